@@ -4,6 +4,7 @@ plugins {
     id("application")
     id("org.openjfx.javafxplugin") version "0.1.0"
     id("jacoco")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "atlanteshellsing.aegis"
@@ -14,6 +15,10 @@ repositories {
 }
 
 val javafxVersion = "24.0.2"
+val jmhLibraryVersion = "1.37"
+
+// Annotation processors run by the main compilation; built before it, never packaged with the application.
+val processor: SourceSet by sourceSets.creating
 
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
@@ -21,6 +26,7 @@ dependencies {
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     implementation("org.openjfx:javafx-controls:${javafxVersion}")
     implementation("org.openjfx:javafx-fxml:${javafxVersion}")
+    annotationProcessor(processor.output)
 }
 
 javafx {
@@ -34,6 +40,15 @@ java {
     }
 }
 
+// Run with e.g. `./gradlew jmh -PjmhInclude=AEGISLogger -PjmhResultName=$(git rev-parse --short HEAD)`
+// and compare the JSON files under build/results/jmh between commits.
+jmh {
+    jmhVersion.set(jmhLibraryVersion)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/${findProperty("jmhResultName") ?: "results"}.json"))
+    (findProperty("jmhInclude") as String?)?.let { includes.add(it) }
+}
+
 jacoco {
     toolVersion = "0.8.13"
 }
@@ -57,7 +72,7 @@ tasks.jacocoTestReport {
         include("**/*.class")
     }
     // Bytecode annotation descriptor (binary name)
-    val excludeAnnotation = "Latlanteshellsing/aegis/assetations/ExcludeAsGenerated;"
+    val excludeAnnotation = "Latlanteshellsing/aegis/annotations/ExcludeAsGenerated;"
     // Efficiently skip annotated class files
     val filteredClasses = classFiles.matching {
         exclude { it ->
@@ -79,5 +94,5 @@ tasks.jacocoTestReport {
 }
 
 application {
-    mainClass.set("atlanteshellsing.aegis.AEGISMainApplication")
+    mainClass.set("atlanteshellsing.aegis.AEGISLauncher")
 }
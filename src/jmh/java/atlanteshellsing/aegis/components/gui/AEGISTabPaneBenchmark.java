@@ -0,0 +1,86 @@
+package atlanteshellsing.aegis.components.gui;
+
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AEGISTabPane} add, remove and select operations on panes holding 10 to 10,000 tabs.
+ *
+ * <p>The pane is not attached to a scene, so no skin is created and the numbers cover the pane's own bookkeeping and
+ * the TabPane model. The JavaFX toolkit is started once because controls require it.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AEGISTabPaneBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int tabCount;
+
+    private AEGISTabPane tabPane;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void startToolkit() {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // Toolkit already running.
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void populate() {
+        tabPane = createPane(tabCount);
+        cursor = 0;
+    }
+
+    @Benchmark
+    public AEGISTabPane addAllTabs() {
+        return createPane(tabCount);
+    }
+
+    @Benchmark
+    public void addAndRemoveTab() {
+        tabPane.addTab("benchmark", "Benchmark", new Label("Benchmark"));
+        tabPane.removeTab("benchmark");
+    }
+
+    @Benchmark
+    public void selectTab() {
+        cursor = (cursor + 7919) % tabCount;
+        tabPane.selectTab("tab-" + cursor);
+    }
+
+    @Benchmark
+    public boolean selectExistingByAdd() {
+        cursor = (cursor + 7919) % tabCount;
+        tabPane.addTab("tab-" + cursor, "Tab " + cursor, new Label());
+        return tabPane.containsTab("tab-" + cursor);
+    }
+
+    private static AEGISTabPane createPane(int tabs) {
+        AEGISTabPane pane = new AEGISTabPane();
+        for(int i = 0; i < tabs; i++) {
+            pane.addTab("tab-" + i, "Tab " + i, new Label("Content " + i));
+        }
+        return pane;
+    }
+}
@@ -0,0 +1,64 @@
+package atlanteshellsing.aegis.custom.factories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares constructing a hardened XML factory per operation, as the configuration code used to, with borrowing a
+ * builder or transformer from the shared pools.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AEGISSecureFactoryBenchmark {
+
+    @Benchmark
+    public DocumentBuilder constructDocumentBuilder() throws ParserConfigurationException {
+        return new AEGISSecureDocumentBuilderFactory().getSecureFactory().newDocumentBuilder();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public DocumentBuilder borrowDocumentBuilder() throws ParserConfigurationException {
+        try(AEGISObjectPool<DocumentBuilder, ParserConfigurationException>.Lease lease = AEGISSecureDocumentBuilderFactory.borrowDocumentBuilder()) {
+            return lease.get();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DocumentBuilder borrowDocumentBuilderFourThreads() throws ParserConfigurationException {
+        try(AEGISObjectPool<DocumentBuilder, ParserConfigurationException>.Lease lease = AEGISSecureDocumentBuilderFactory.borrowDocumentBuilder()) {
+            return lease.get();
+        }
+    }
+
+    @Benchmark
+    public Transformer constructTransformer() throws TransformerConfigurationException {
+        return new AEGISSecureTransformerFactory().getSecureFactory().newTransformer();
+    }
+
+    @Benchmark
+    public Transformer borrowTransformer() throws TransformerConfigurationException {
+        try(AEGISObjectPool<Transformer, TransformerConfigurationException>.Lease lease = AEGISSecureTransformerFactory.borrowTransformer()) {
+            return lease.get();
+        }
+    }
+}
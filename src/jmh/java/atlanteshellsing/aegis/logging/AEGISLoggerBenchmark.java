@@ -0,0 +1,109 @@
+package atlanteshellsing.aegis.logging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+import java.util.logging.StreamHandler;
+
+/**
+ * Measures {@link AEGISLogger#log} throughput in synchronous and asynchronous mode, from one and from four threads,
+ * with and without an attached exception.
+ *
+ * <p>The logger's handlers are replaced by a handler that formats with the real {@link AEGISLogFormatter} but
+ * discards the output, so the numbers cover record creation and formatting without terminal I/O. The exception benchmarks
+ * run with repeat suppression disabled, which measures stack trace formatting, and with the default window, which
+ * measures the suppressor dropping every repeat.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AEGISLoggerBenchmark {
+
+    private static final Exception FAILURE = new IllegalStateException("Benchmark failure", new RuntimeException("Root cause"));
+
+    @Param({"SYNC", "ASYNC"})
+    public String mode;
+
+    @Param({"0", "10"})
+    public int repeatWindowSeconds;
+
+    private Handler[] originalHandlers;
+    private Duration originalRepeatWindow;
+
+    @Setup(Level.Trial)
+    public void installDiscardingHandler() {
+        Logger logger = Logger.getLogger("AEGIS LOG");
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.FINE, "Initializing logger");
+
+        originalHandlers = logger.getHandlers();
+        for(Handler handler : originalHandlers) {
+            logger.removeHandler(handler);
+        }
+        logger.addHandler(new StreamHandler(OutputStream.nullOutputStream(), new AEGISLogFormatter(true)));
+
+        originalRepeatWindow = AEGISLogger.getRepeatWindow();
+        AEGISLogger.setRepeatWindow(Duration.ofSeconds(repeatWindowSeconds));
+
+        if("ASYNC".equals(mode)) {
+            AEGISLogger.enableAsync(8192, AEGISLogger.AEGISLogBackpressure.BLOCK);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreHandlers() {
+        AEGISLogger.shutdown();
+        AEGISLogger.setRepeatWindow(originalRepeatWindow);
+
+        Logger logger = Logger.getLogger("AEGIS LOG");
+        for(Handler handler : logger.getHandlers()) {
+            logger.removeHandler(handler);
+        }
+        for(Handler handler : originalHandlers) {
+            logger.addHandler(handler);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void logMessageSingleThread() {
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.INFO, "Benchmark message");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logMessageFourThreads() {
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.INFO, "Benchmark message");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void logThrowableSingleThread() {
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.SEVERE, "Benchmark failure", FAILURE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logThrowableFourThreads() {
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.SEVERE, "Benchmark failure", FAILURE);
+    }
+}
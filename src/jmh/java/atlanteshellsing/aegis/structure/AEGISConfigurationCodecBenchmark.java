@@ -0,0 +1,149 @@
+package atlanteshellsing.aegis.structure;
+
+import atlanteshellsing.aegis.custom.factories.AEGISObjectPool;
+import atlanteshellsing.aegis.custom.factories.AEGISSecureDocumentBuilderFactory;
+import atlanteshellsing.aegis.custom.factories.AEGISSecureTransformerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link AEGISConfigurationCodec} with the DOM path it replaced, on configuration files of 1 KB to 50 MB.
+ *
+ * <p>The generated files hold a {@code recent} section of filler entries that sorts before {@code theme}, so reading
+ * just the theme forces the StAX reader to skip the whole filler section while the DOM reader builds it.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AEGISConfigurationCodecBenchmark {
+
+    private static final Set<String> THEME_SECTION = Set.of(AEGISPreferences.THEME);
+
+    @Param({"1024", "65536", "1048576", "10485760", "52428800"})
+    public int targetBytes;
+
+    private Path configFile;
+    private AEGISPreferences preferences;
+
+    @Setup(Level.Trial)
+    public void createConfiguration() throws Exception {
+        TreeMap<String, String> values = new TreeMap<>();
+        values.put(AEGISPreferences.THEME, "DarkTheme");
+
+        // Each filler entry serializes to roughly 60 bytes.
+        int entries = Math.max(1, (targetBytes - 128) / 60);
+        for(int i = 0; i < entries; i++) {
+            values.put(String.format("recent.entry%07d.path", i), "/home/aegis/workspace/file-" + i + ".txt");
+        }
+        preferences = new AEGISPreferences(values);
+
+        configFile = Files.createTempFile("aegis-benchmark", ".aegis");
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(configFile))) {
+            AEGISConfigurationCodec.write(out, preferences);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteConfiguration() throws Exception {
+        Files.deleteIfExists(configFile);
+    }
+
+    @Benchmark
+    public String staxReadTheme() throws Exception {
+        return AEGISConfigurationCodec.read(configFile, THEME_SECTION).getTheme();
+    }
+
+    @Benchmark
+    public AEGISPreferences staxReadAll() throws Exception {
+        return AEGISConfigurationCodec.read(configFile);
+    }
+
+    @Benchmark
+    public String domReadTheme() throws Exception {
+        try(AEGISObjectPool<DocumentBuilder, ParserConfigurationException>.Lease builder = AEGISSecureDocumentBuilderFactory.borrowDocumentBuilder()) {
+            Document doc = builder.get().parse(configFile.toFile());
+            Element preferencesElement = (Element) doc.getDocumentElement().getElementsByTagName("preferences").item(0);
+            return preferencesElement.getElementsByTagName("theme").item(0).getTextContent();
+        }
+    }
+
+    @Benchmark
+    public void staxWrite() throws Exception {
+        AEGISConfigurationCodec.write(OutputStream.nullOutputStream(), preferences);
+    }
+
+    @Benchmark
+    public void domWrite() throws Exception {
+        Document doc;
+        try(AEGISObjectPool<DocumentBuilder, ParserConfigurationException>.Lease builder = AEGISSecureDocumentBuilderFactory.borrowDocumentBuilder()) {
+            doc = builder.get().newDocument();
+        }
+
+        Element root = doc.createElement("aegisConfig");
+        root.setAttribute("schemaVersion", String.valueOf(AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION));
+        doc.appendChild(root);
+        Element pref = doc.createElement("preferences");
+        root.appendChild(pref);
+        for(Map.Entry<String, String> entry : preferences.values().entrySet()) {
+            Element parent = pref;
+            String[] segments = entry.getKey().split("\\.");
+            for(int i = 0; i < segments.length - 1; i++) {
+                parent = getOrCreateChild(doc, parent, segments[i]);
+            }
+            Element leaf = doc.createElement(segments[segments.length - 1]);
+            leaf.appendChild(doc.createTextNode(entry.getValue()));
+            parent.appendChild(leaf);
+        }
+
+        try(AEGISObjectPool<Transformer, TransformerConfigurationException>.Lease transformer = AEGISSecureTransformerFactory.borrowTransformer()) {
+            transformer.get().setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.get().transform(new DOMSource(doc), new StreamResult(OutputStream.nullOutputStream()));
+        }
+    }
+
+    /**
+     * Mirrors the DOM writer's lookup; the last child is checked first because sorted keys append groups in order.
+     */
+    private static Element getOrCreateChild(Document doc, Element parent, String name) {
+        Node last = parent.getLastChild();
+        if(last instanceof Element element && element.getTagName().equals(name)) {
+            return element;
+        }
+        Element created = doc.createElement(name);
+        parent.appendChild(created);
+        return created;
+    }
+}
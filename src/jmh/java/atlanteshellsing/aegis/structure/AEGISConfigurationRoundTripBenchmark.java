@@ -0,0 +1,71 @@
+package atlanteshellsing.aegis.structure;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the configuration create, load and save round trips performed by {@link AEGISConfigurationManager} and,
+ * for theme changes, by {@code AEGISThemeManager} (which stores the theme through {@link AEGISConfigurationManager#updatePreferences}).
+ *
+ * <p>The forked JVM points {@code user.home} at {@code build/jmh-home}, so the benchmark never touches the real user
+ * configuration on Linux and macOS.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Duser.home=build/jmh-home")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AEGISConfigurationRoundTripBenchmark {
+
+    private boolean dark;
+
+    @Setup(Level.Trial)
+    public void initialize() {
+        AEGISConfigurationManager.initUserConfig();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        AEGISConfigurationManager.shutdown();
+    }
+
+    @Benchmark
+    public void createConfiguration() throws Exception {
+        Files.deleteIfExists(AEGISConfigurationManager.userConfigFile);
+        AEGISConfigurationManager.initConfiguration();
+    }
+
+    @Benchmark
+    public AEGISPreferences loadConfiguration() {
+        return AEGISConfigurationManager.loadPreferences();
+    }
+
+    @Benchmark
+    public AEGISPreferences saveTheme() {
+        dark = !dark;
+        String theme = dark ? "DarkTheme" : "LightTheme";
+        AEGISPreferences updated = AEGISConfigurationManager.updatePreferences(preferences -> preferences.withTheme(theme));
+        AEGISConfigurationManager.flush();
+        return updated;
+    }
+
+    @Benchmark
+    public AEGISPreferences saveAndReloadTheme() {
+        saveTheme();
+        return AEGISConfigurationManager.loadPreferences();
+    }
+}
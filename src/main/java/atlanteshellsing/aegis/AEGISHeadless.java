@@ -0,0 +1,280 @@
+package atlanteshellsing.aegis;
+
+import atlanteshellsing.aegis.logging.AEGISLogMatch;
+import atlanteshellsing.aegis.logging.AEGISLogQuery;
+import atlanteshellsing.aegis.logging.AEGISLogSearch;
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISProcessStats;
+import atlanteshellsing.aegis.structure.AEGISConfigurationCodec;
+import atlanteshellsing.aegis.structure.AEGISConfigurationManager;
+import atlanteshellsing.aegis.structure.AEGISPreferences;
+import atlanteshellsing.aegis.tasks.AEGISTaskHandle;
+import atlanteshellsing.aegis.tasks.AEGISTaskScheduler;
+import atlanteshellsing.aegis.tools.AEGISToolDescriptor;
+import atlanteshellsing.aegis.tools.AEGISToolIndex;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.PrintStream;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Runs one command against the configuration and log files without starting JavaFX.
+ *
+ * <p>Only the logger and the configuration layer are initialized; no class of this runner or of the commands it calls
+ * references a javafx type, so scripts and batch jobs pay neither the toolkit startup nor its memory. Command output goes
+ * to standard output, log records go to standard error and the log files as usual. The time since process start and
+ * the resident memory are logged on exit, matching the report the GUI logs after its first frame.</p>
+ */
+final class AEGISHeadless {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = """
+            Usage: aegis [command [arguments]]
+              (no command)                start the graphical application
+              init                        create the configuration directories and file
+              get [key]                   print one preference, or every preference
+              set <key> <value>           store a preference; refused if the file would fail its schema
+              unset <key>                 remove a preference
+              list-tools                  print the tools of the graphical application
+              search-logs [--from <time>] [--to <time>] [--source <key>] [--level <level>] [text...]
+                                          print the log records matching the query; times are yyyy-MM-dd [HH:mm:ss]
+              help                        print this help""";
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    /**
+     * Creates a runner printing to the given streams.
+     *
+     * @param out receives the command output
+     * @param err receives usage and argument errors
+     */
+    AEGISHeadless(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Checks whether the command line selects a headless command rather than the graphical application.
+     *
+     * @param args the command line arguments
+     * @return true if the first argument names a command
+     */
+    static boolean isHeadless(String[] args) {
+        return args.length > 0 && !args[0].startsWith("-");
+    }
+
+    /**
+     * Runs the command named by the first argument, then writes pending configuration changes and drains the logger.
+     *
+     * @param args the command and its arguments
+     * @return the process exit status: {@link #EXIT_OK}, {@link #EXIT_FAILED} or {@link #EXIT_USAGE}
+     */
+    int run(String[] args) {
+        String command = args[0];
+        List<String> arguments = List.of(args).subList(1, args.length);
+        try {
+            return switch(command) {
+                case "init" -> init();
+                case "get" -> get(arguments);
+                case "set" -> set(arguments);
+                case "unset" -> unset(arguments);
+                case "list-tools" -> listTools();
+                case "search-logs" -> searchLogs(arguments);
+                case "help" -> {
+                    out.println(USAGE);
+                    yield EXIT_OK;
+                }
+                default -> usage("Unknown command '" + command + "'");
+            };
+        } finally {
+            AEGISConfigurationManager.shutdown();
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO,
+                    "Headless command '{}' finished {}", command, AEGISProcessStats.startupReport());
+            AEGISLogger.shutdown();
+        }
+    }
+
+    private int init() {
+        return initConfiguration() ? EXIT_OK : EXIT_FAILED;
+    }
+
+    private int get(List<String> arguments) {
+        if(arguments.size() > 1) {
+            return usage("get takes at most one key");
+        }
+        if(!initConfiguration()) {
+            return EXIT_FAILED;
+        }
+
+        AEGISPreferences preferences = AEGISConfigurationManager.getPreferences();
+        if(arguments.isEmpty()) {
+            for(Map.Entry<String, String> entry : preferences.values().entrySet()) {
+                out.println(entry.getKey() + "=" + entry.getValue());
+            }
+            return EXIT_OK;
+        }
+
+        String value = preferences.get(arguments.getFirst());
+        if(value == null) {
+            return EXIT_FAILED;
+        }
+        out.println(value);
+        return EXIT_OK;
+    }
+
+    private int set(List<String> arguments) {
+        if(arguments.size() != 2) {
+            return usage("set takes a key and a value");
+        }
+        if(!initConfiguration()) {
+            return EXIT_FAILED;
+        }
+
+        return store(arguments.get(0), arguments.get(1).trim());
+    }
+
+    private int unset(List<String> arguments) {
+        if(arguments.size() != 1) {
+            return usage("unset takes a key");
+        }
+        if(!initConfiguration()) {
+            return EXIT_FAILED;
+        }
+
+        return store(arguments.getFirst(), null);
+    }
+
+    /**
+     * Stores or removes a preference, unless the configuration file would then be malformed or fail its schema, which
+     * would make the next start discard every preference.
+     *
+     * @param key   the dotted preference key
+     * @param value the new value; null to remove the preference
+     * @return {@link #EXIT_OK}, or {@link #EXIT_USAGE} if the preference cannot be stored
+     */
+    private int store(String key, String value) {
+        try {
+            AEGISConfigurationCodec.checkWritable(AEGISConfigurationManager.getPreferences().with(key, value));
+        } catch (XMLStreamException e) {
+            return usage("Cannot store '" + key + "': " + e.getMessage());
+        }
+
+        AEGISConfigurationManager.updatePreferences(preferences -> preferences.with(key, value));
+        return EXIT_OK;
+    }
+
+    /**
+     * Prints the generated tool index. Listing the descriptors never loads a tool class or a javafx class; only invoking
+     * a descriptor's factory would.
+     */
+    private int listTools() {
+        for(AEGISToolDescriptor tool : AEGISToolIndex.tools()) {
+            out.println(tool.id() + "\t" + tool.menu() + " > " + tool.title());
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Streams the matching log records to standard output as a batch job on the task scheduler, whose updates run directly
+     * on the worker thread since there is no FX thread to hand them to.
+     */
+    private int searchLogs(List<String> arguments) {
+        AEGISLogQuery query;
+        try {
+            query = parseQuery(arguments);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return usage(e.getMessage());
+        }
+        if(!initConfiguration()) {
+            return EXIT_FAILED;
+        }
+
+        AEGISTaskScheduler scheduler = new AEGISTaskScheduler(Runnable::run);
+        AEGISTaskHandle<Long> handle = scheduler.submit(AEGISLogSearch.class, "log search", context -> {
+            LongAdder count = new LongAdder();
+            try(Stream<AEGISLogMatch> matches = AEGISLogSearch.search(AEGISConfigurationManager.logsDir, query)) {
+                matches.forEachOrdered(match -> {
+                    context.throwIfCancelled();
+                    out.println(match.text());
+                    count.increment();
+                });
+            }
+            return count.sum();
+        });
+
+        try {
+            long count = handle.getResult().toCompletableFuture().join();
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Log search found {} records", count);
+            return EXIT_OK;
+        } catch (CompletionException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Log Search Failed",
+                    e.getCause() instanceof Exception cause ? cause : e);
+            return EXIT_FAILED;
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Parses the options of {@code search-logs}; every argument that is not an option is part of the searched text.
+     */
+    private static AEGISLogQuery parseQuery(List<String> arguments) {
+        String from = "";
+        String to = "";
+        AEGISLogger.AEGISLogKey key = null;
+        AEGISLogger.AEGISLogLevel level = AEGISLogger.AEGISLogLevel.FINE;
+        List<String> text = new ArrayList<>();
+
+        for(int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            if(!argument.startsWith("--")) {
+                text.add(argument);
+                continue;
+            }
+            if(i + 1 == arguments.size()) {
+                throw new IllegalArgumentException("Missing value for " + argument);
+            }
+
+            String value = arguments.get(++i);
+            switch(argument) {
+                case "--from" -> from = value;
+                case "--to" -> to = value;
+                case "--source" -> key = AEGISLogger.AEGISLogKey.valueOf(value.toUpperCase(Locale.ROOT));
+                case "--level" -> level = AEGISLogger.AEGISLogLevel.valueOf(value.toUpperCase(Locale.ROOT));
+                default -> throw new IllegalArgumentException("Unknown option " + argument);
+            }
+        }
+
+        return new AEGISLogQuery(AEGISLogQuery.parseBound(from, false), AEGISLogQuery.parseBound(to, true), key, level, String.join(" ", text));
+    }
+
+    /**
+     * Creates the directories and the configuration file if missing and loads the stored preferences.
+     *
+     * @return true on success; false if the directories could not be created (a severe error is logged)
+     */
+    private static boolean initConfiguration() {
+        if(!AEGISConfigurationManager.initDirectories()) {
+            return false;
+        }
+        AEGISConfigurationManager.initConfiguration();
+        return true;
+    }
+
+    private int usage(String problem) {
+        err.println(problem);
+        err.println(USAGE);
+        return EXIT_USAGE;
+    }
+}
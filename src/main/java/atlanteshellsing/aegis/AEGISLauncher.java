@@ -0,0 +1,28 @@
+package atlanteshellsing.aegis;
+
+/**
+ * Entry point of the application: runs a headless command when one is given, otherwise starts the graphical application.
+ *
+ * <p>This class deliberately has no javafx dependency. {@link AEGISMainApplication} extends a JavaFX class, so it is only
+ * referenced on the graphical path; a headless command never loads it or any other javafx class.</p>
+ */
+public final class AEGISLauncher {
+
+    /**
+     * Prevents instantiation of this entry point class.
+     */
+    private AEGISLauncher() {}
+
+    /**
+     * Dispatches the command line.
+     *
+     * @param args a headless command and its arguments (see {@code aegis help}), or nothing to start the GUI
+     */
+    public static void main(String[] args) {
+        if(AEGISHeadless.isHeadless(args)) {
+            System.exit(new AEGISHeadless(System.out, System.err).run(args));
+        }
+
+        AEGISMainApplication.main(args);
+    }
+}
@@ -1,40 +1,165 @@
 package atlanteshellsing.aegis;
 
 import atlanteshellsing.aegis.gui.AEGISMainGui;
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISFlightRecorder;
+import atlanteshellsing.aegis.metrics.AEGISProcessStats;
+import atlanteshellsing.aegis.metrics.AEGISStartupPhaseEvent;
+import atlanteshellsing.aegis.resources.AEGISResourceManager;
 import atlanteshellsing.aegis.structure.AEGISConfigurationManager;
+import atlanteshellsing.aegis.theme.AEGISThemeRegistry;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
-import java.nio.file.Files;
-import java.util.Objects;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 public class AEGISMainApplication extends Application {
-    
+
+    private static final int LOG_BUFFER_CAPACITY = 8192;
+    private static final long LAUNCH_NANOS = System.nanoTime();
+    private static final String APPLICATION_ICON = "/Images/AEGIS.png";
+
     protected AEGISMainGui mainGUI;
-    protected Image logo = new Image(Objects.requireNonNull(getClass().getResource("/images/AEGIS.png")).toExternalForm());
+    protected CompletableFuture<Void> configReady;
+    protected CompletableFuture<Void> themesReady;
+    protected CompletableFuture<List<Image>> iconsReady;
+
+    /**
+     * Starts the background startup phases before the FX thread builds the UI.
+     *
+     * <p>File-system setup followed by the configuration load, theme discovery, and the decoding of the application icon
+     * in every icon size run concurrently off the FX application thread. {@link #start(Stage)} only waits for the
+     * configuration and the themes, since applying the stored theme depends on both.</p>
+     */
+    @Override
+    public void init() {
+        AEGISLogger.enableAsync(LOG_BUFFER_CAPACITY, AEGISLogger.AEGISLogBackpressure.DROP_LOW_LEVELS);
+
+        configReady = CompletableFuture
+                .supplyAsync(timed("filesystem setup", AEGISConfigurationManager::initDirectories))
+                .thenAcceptAsync(directoriesReady -> {
+                    if(directoriesReady) {
+                        timedRun("config load", AEGISConfigurationManager::initConfiguration).run();
+                        AEGISConfigurationManager.startWatching();
+                    }
+                });
+
+        themesReady = CompletableFuture.runAsync(timedRun("theme discovery", AEGISThemeRegistry::discover));
+
+        long iconStart = System.nanoTime();
+        iconsReady = AEGISResourceManager.loadIcons(APPLICATION_ICON).whenComplete((icons, error) ->
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO,
+                        "Startup phase '{}' took {} ms on {}", "icon decode", millisSince(iconStart), Thread.currentThread().getName()));
+    }
 
     /**
-     * Initializes the application UI: ensures the user configuration directory exists, creates the main GUI,
-     * sets the scene and application icon on the provided primary stage, and displays the stage.
+     * Builds the main GUI while the background phases finish, applies the loaded theme, and shows the stage as soon as the
+     * scene graph is ready. The application icon is installed whenever its decoding completes.
      *
      * @param primaryStage the primary JavaFX Stage to initialize and show
      */
     @Override
     public void start(Stage primaryStage) {
 
-        AEGISConfigurationManager.initUserConfig();
+        mainGUI = timed("scene graph", AEGISMainGui::new).get();
+
+        timedRun("config wait", CompletableFuture.allOf(configReady, themesReady)::join).run();
+        Scene scene = mainGUI.createScene(1280, 800);
+        primaryStage.setScene(scene);
 
-        mainGUI = new AEGISMainGui();
+        iconsReady.whenCompleteAsync((icons, error) -> {
+            if(error != null) {
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Application Icon Could Not Be Loaded",
+                        error instanceof CompletionException && error.getCause() instanceof Exception cause ? cause : new RuntimeException(error));
+                return;
+            }
+            primaryStage.getIcons().setAll(icons);
+        }, Platform::runLater);
 
-        primaryStage.setScene(mainGUI.createScene(1280, 800));
-        primaryStage.getIcons().clear();
-        primaryStage.getIcons().add(logo);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO,
+                        "Startup: first frame after " + millisSince(LAUNCH_NANOS) + " ms, " + AEGISProcessStats.startupReport());
+            }
+        });
 
         primaryStage.show();
     }
 
+    /**
+     * Writes any configuration changes still pending in the background writer and drains the asynchronous
+     * log buffer before the application exits.
+     */
+    @Override
+    public void stop() {
+        if(mainGUI != null) {
+            mainGUI.getTaskScheduler().shutdown();
+        }
+        AEGISFlightRecorder.stop();
+        AEGISConfigurationManager.shutdown();
+        AEGISLogger.shutdown();
+    }
+
+    /**
+     * Wraps a startup phase so that its duration is logged, and reported to the flight recorder, when it completes.
+     *
+     * @param phase the phase name used in the log line
+     * @param work  the phase body
+     * @param <T>   the phase result type
+     * @return a supplier running {@code work} and logging its duration
+     */
+    private static <T> Supplier<T> timed(String phase, Supplier<T> work) {
+        return () -> {
+            long start = System.nanoTime();
+            AEGISStartupPhaseEvent event = new AEGISStartupPhaseEvent();
+            event.begin();
+            try {
+                return work.get();
+            } finally {
+                if(event.shouldCommit()) {
+                    event.phase = phase;
+                    event.commit();
+                }
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO,
+                        "Startup phase '{}' took {} ms on {}", phase, millisSince(start), Thread.currentThread().getName());
+            }
+        };
+    }
+
+    /**
+     * Wraps a startup phase without a result so that its duration is logged when it completes.
+     *
+     * @param phase the phase name used in the log line
+     * @param work  the phase body
+     * @return a runnable running {@code work} and logging its duration
+     */
+    private static Runnable timedRun(String phase, Runnable work) {
+        Supplier<Void> timedWork = timed(phase, () -> {
+            work.run();
+            return null;
+        });
+        return timedWork::get;
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Starts the graphical application. {@link AEGISLauncher} is the application's entry point and only calls this
+     * method when no headless command is given.
+     *
+     * @param args the command line arguments, passed on to JavaFX
+     */
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
-}
\ No newline at end of file
+}
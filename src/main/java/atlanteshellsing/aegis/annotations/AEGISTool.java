@@ -0,0 +1,51 @@
+package atlanteshellsing.aegis.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a tool entry point: a public JavaFX node with a public no-argument constructor that is opened as a tab.
+ *
+ * <p>At build time the tool processor collects every annotated class into the generated
+ * {@code atlanteshellsing.aegis.tools.AEGISToolIndex}. The main window builds its menus from that index, so no class
+ * path scanning happens at startup and a tool class is only loaded when its tab is first shown.</p>
+ *
+ * <p>Usage example:
+ * <pre>
+ * {@code @AEGISTool(id = "hex-viewer", title = "Hex Viewer", menu = "Tools")
+ * public class HexViewer extends BorderPane {
+ *       public HexViewer() { ... }
+ *  }}
+ * </pre>
+ */
+@Retention(RetentionPolicy.SOURCE) // only read by the processor
+@Target(ElementType.TYPE)
+public @interface AEGISTool {
+
+    /**
+     * The unique tool id, also used as the tab key; lower-case letters, digits and dashes.
+     *
+     * @return the tool id
+     */
+    String id();
+
+    /**
+     * The title shown on the menu item and the tab.
+     *
+     * @return the tool title
+     */
+    String title();
+
+    /**
+     * The name of the menu bar menu holding the tool; the menu is created if it does not exist.
+     *
+     * @return the menu name
+     */
+    String menu() default "Tools";
+
+    /**
+     * The position of the tool within its menu; tools with the same order are sorted by title.
+     *
+     * @return the sort order
+     */
+    int order() default 0;
+}
@@ -0,0 +1,323 @@
+package atlanteshellsing.aegis.components.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Finds open tabs by key and title, ranked by how well they match and how recently they were selected.
+ *
+ * <p>The index is maintained incrementally as tabs are added, removed and selected, so a lookup never scans every tab.
+ * A search term of three or more characters is looked up through a trigram index and matches anywhere in the key or
+ * title; a shorter term is looked up through a sorted word index and matches the start of a word. Every term of a
+ * query must match. Candidates are drawn from the smallest candidate set of any term, filtered through the trigram
+ * postings of the other terms and scored, and only the best {@code limit} are kept. If even the smallest set holds more
+ * than {@value #BROAD_CANDIDATES} tabs, e.g. for a single letter, the tabs are instead checked in most-recently-used
+ * order, which stops as soon as {@code limit} tabs matched at the start of their key or title, since no later tab can
+ * outrank them.</p>
+ *
+ * <p>Matches are ordered by the kind of match, a match at the start of the key or title first and a match inside a word
+ * last, then by the most recent selection. Not thread-safe; the tab pane uses it on the FX thread only.</p>
+ */
+final class AEGISTabIndex {
+
+    private static final int SHORT_TERM = 3;
+    private static final int BROAD_CANDIDATES = 1024;
+    private static final Comparator<Ranked> RANKING = Comparator.comparingInt(Ranked::score)
+            .thenComparing(ranked -> ranked.entry().lastUsed, Comparator.reverseOrder());
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Long, Set<Entry>> trigrams = new HashMap<>();
+    private final NavigableMap<String, Set<Entry>> words = new TreeMap<>();
+    private final NavigableMap<Long, Entry> recentlyUsed = new TreeMap<>();
+    private long clock;
+
+    /**
+     * An indexed tab: its key and title in lower case, the words they consist of and a bit per initial of those words,
+     * which rejects most entries for a short term without looking at the words.
+     */
+    private static final class Entry {
+        final String key;
+        final String lowerKey;
+        final String lowerTitle;
+        final String[] words;
+        final long initials;
+        long lastUsed;
+
+        Entry(String key, String title) {
+            this.key = key;
+            this.lowerKey = normalize(key);
+            this.lowerTitle = normalize(title);
+            Set<String> distinct = new HashSet<>();
+            addWords(lowerKey, distinct);
+            addWords(lowerTitle, distinct);
+            this.words = distinct.toArray(String[]::new);
+            long bits = 0;
+            for(String word : words) {
+                bits |= initialBit(word);
+            }
+            this.initials = bits;
+        }
+    }
+
+    /**
+     * A matching entry and its match score; lower is better.
+     */
+    private record Ranked(Entry entry, int score) {}
+
+    /**
+     * Adds a tab, ranked as the most recently used one. Adding a key that is already indexed replaces its title.
+     *
+     * @param key   the unique key of the tab
+     * @param title the display title of the tab
+     */
+    void add(String key, String title) {
+        remove(key);
+        Entry entry = new Entry(key, title);
+        entries.put(key, entry);
+        forEachTrigram(entry, trigram -> trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(entry));
+        for(String word : entry.words) {
+            words.computeIfAbsent(word, w -> new HashSet<>()).add(entry);
+        }
+        stamp(entry);
+    }
+
+    /**
+     * Removes a tab. Does nothing if the key is not indexed.
+     *
+     * @param key the unique key of the tab
+     */
+    void remove(String key) {
+        Entry entry = entries.remove(key);
+        if(entry == null) {
+            return;
+        }
+        forEachTrigram(entry, trigram -> removePosting(trigrams, trigram, entry));
+        for(String word : entry.words) {
+            removePosting(words, word, entry);
+        }
+        recentlyUsed.remove(entry.lastUsed);
+    }
+
+    /**
+     * Marks a tab as the most recently used one. Does nothing if the key is not indexed.
+     *
+     * @param key the unique key of the tab
+     */
+    void touch(String key) {
+        Entry entry = entries.get(key);
+        if(entry != null) {
+            recentlyUsed.remove(entry.lastUsed);
+            stamp(entry);
+        }
+    }
+
+    /**
+     * Provides the number of indexed tabs.
+     *
+     * @return the number of indexed tabs
+     */
+    int size() { return entries.size(); }
+
+    /**
+     * Finds the tabs matching every whitespace-separated term of a query, best match first.
+     *
+     * @param query the search terms; case is ignored. A blank query lists the most recently used tabs.
+     * @param limit the maximum number of keys returned
+     * @return the keys of the best matches, at most {@code limit}
+     */
+    List<String> find(String query, int limit) {
+        if(limit <= 0) {
+            return List.of();
+        }
+        String[] terms = normalize(query).trim().split("\\s+");
+        if(terms[0].isEmpty()) {
+            return mostRecentlyUsed(limit);
+        }
+
+        Set<Entry> driving = null;
+        List<Set<Entry>> filters = new ArrayList<>();
+        for(String term : terms) {
+            Set<Entry> candidates = candidates(term);
+            if(candidates != null && candidates.isEmpty()) {
+                return List.of();
+            }
+            if(candidates != null && term.length() >= SHORT_TERM) {
+                filters.add(candidates);
+            }
+            if(candidates != null && (driving == null || candidates.size() < driving.size())) {
+                driving = candidates;
+            }
+        }
+
+        boolean byRecentUse = driving == null || driving.size() > BROAD_CANDIDATES;
+        PriorityQueue<Ranked> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for(Entry entry : byRecentUse ? recentlyUsed.descendingMap().values() : driving) {
+            int score = containedInAll(entry, filters) ? score(entry, terms) : -1;
+            if(score < 0) {
+                continue;
+            }
+            best.add(new Ranked(entry, score));
+            if(best.size() > limit) {
+                best.poll();
+            }
+            if(byRecentUse && best.size() == limit && best.peek().score() == 0) {
+                break;
+            }
+        }
+
+        List<Ranked> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<String> keys = new ArrayList<>(ranked.size());
+        for(Ranked match : ranked) {
+            keys.add(match.entry().key);
+        }
+        return keys;
+    }
+
+    private List<String> mostRecentlyUsed(int limit) {
+        List<String> keys = new ArrayList<>(Math.min(limit, entries.size()));
+        for(Entry entry : recentlyUsed.descendingMap().values()) {
+            if(keys.size() == limit) {
+                break;
+            }
+            keys.add(entry.key);
+        }
+        return keys;
+    }
+
+    /**
+     * Collects the entries that may match a term: the rarest posting list among its trigrams, or every entry with a word
+     * starting with a short term. The result is a superset of the matches of the term and must not be modified.
+     *
+     * @return the candidates; null if a short term starts the words of more than {@value #BROAD_CANDIDATES} entries
+     */
+    private Set<Entry> candidates(String term) {
+        if(term.length() < SHORT_TERM) {
+            List<Set<Entry>> postings = new ArrayList<>();
+            int total = 0;
+            for(Set<Entry> posting : words.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                total += posting.size();
+                if(total > BROAD_CANDIDATES) {
+                    return null;
+                }
+                postings.add(posting);
+            }
+            if(postings.size() == 1) {
+                return postings.getFirst();
+            }
+            Set<Entry> union = new HashSet<>(total);
+            for(Set<Entry> posting : postings) {
+                union.addAll(posting);
+            }
+            return union;
+        }
+
+        Set<Entry> rarest = null;
+        for(int i = 0; i + SHORT_TERM <= term.length(); i++) {
+            Set<Entry> posting = trigrams.get(trigram(term, i));
+            if(posting == null) {
+                return Collections.emptySet();
+            }
+            if(rarest == null || posting.size() < rarest.size()) {
+                rarest = posting;
+            }
+        }
+        return rarest;
+    }
+
+    private static boolean containedInAll(Entry entry, List<Set<Entry>> filters) {
+        for(Set<Entry> filter : filters) {
+            if(!filter.contains(entry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scores an entry against every term: 0 per term matching the start of the key or title, 1 per term matching the
+     * start of a word, 2 per term matching inside a word.
+     *
+     * @return the summed score, or -1 if a term does not match
+     */
+    private static int score(Entry entry, String[] terms) {
+        int score = 0;
+        for(String term : terms) {
+            if(entry.lowerKey.startsWith(term) || entry.lowerTitle.startsWith(term)) {
+                continue;
+            }
+            if((entry.initials & initialBit(term)) != 0 && startsAnyWord(entry, term)) {
+                score += 1;
+            } else if(term.length() >= SHORT_TERM && (entry.lowerKey.contains(term) || entry.lowerTitle.contains(term))) {
+                score += 2;
+            } else {
+                return -1;
+            }
+        }
+        return score;
+    }
+
+    private static boolean startsAnyWord(Entry entry, String term) {
+        for(String word : entry.words) {
+            if(word.startsWith(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long initialBit(String text) {
+        return text.isEmpty() ? 0 : 1L << (text.charAt(0) & 63);
+    }
+
+    private void stamp(Entry entry) {
+        entry.lastUsed = ++clock;
+        recentlyUsed.put(entry.lastUsed, entry);
+    }
+
+    private static <K> void removePosting(Map<K, Set<Entry>> index, K token, Entry entry) {
+        Set<Entry> posting = index.get(token);
+        if(posting != null && posting.remove(entry) && posting.isEmpty()) {
+            index.remove(token);
+        }
+    }
+
+    private static void forEachTrigram(Entry entry, LongConsumer consumer) {
+        for(String text : new String[] {entry.lowerKey, entry.lowerTitle}) {
+            for(int i = 0; i + SHORT_TERM <= text.length(); i++) {
+                consumer.accept(trigram(text, i));
+            }
+        }
+    }
+
+    /**
+     * Packs the three characters starting at {@code index} into one value.
+     */
+    private static long trigram(String text, int index) {
+        return (long) text.charAt(index) << 32 | (long) text.charAt(index + 1) << 16 | text.charAt(index + 2);
+    }
+
+    private static void addWords(String text, Set<String> words) {
+        words.add(text);
+        for(String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if(!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,123 @@
+package atlanteshellsing.aegis.components.gui;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISCounter;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports the content of closed tabs that is still reachable after the garbage collector has looked at the whole heap.
+ *
+ * <p>Closed content is only weakly referenced. The detector never triggers a collection itself; it listens to the
+ * collections the JVM runs anyway and only counts those covering the old generation, i.e. full collections and the
+ * cycles of concurrent collectors, since content that lived for a while is rarely reclaimed by a young collection.
+ * Content closed at least {@value #SETTLE_SECONDS} seconds before {@value #COLLECTIONS_TO_CONFIRM} such collections
+ * that still survives them is leaked by something outside the tab pane, e.g. a listener on a long-lived property; it is
+ * logged once under {@code AEGIS_MAIN} and counted in {@code tabs.leaked}. Until the heap fills up enough for such a
+ * collection, nothing is reported.</p>
+ */
+final class AEGISTabLeakDetector implements NotificationListener {
+
+    private static final long SETTLE_SECONDS = 5;
+    private static final int COLLECTIONS_TO_CONFIRM = 2;
+    private static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+    private static final String MAJOR_GC_ACTION = "end of major GC";
+    private static final String G1_CONCURRENT_COLLECTOR = "G1 Concurrent GC";
+    private static final String CYCLE_COLLECTOR_SUFFIX = "Cycles";
+    private static final AEGISCounter LEAKED = AEGISMetrics.counter("tabs.leaked");
+
+    private final Set<Watched> watched = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean listening = new AtomicBoolean();
+
+    /**
+     * A weak reference to closed content, remembering what it was.
+     */
+    private static final class Watched extends WeakReference<Object> {
+        final String key;
+        final String type;
+        final long closedNanos;
+        /** Whole-heap collections survived since the content settled; only touched by the notification thread. */
+        int collections;
+
+        Watched(String key, Object content) {
+            super(content);
+            this.key = key;
+            this.type = content.getClass().getName();
+            this.closedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts watching the content of a tab that was just closed.
+     *
+     * @param key     the key of the closed tab
+     * @param content the content the tab showed
+     */
+    void watch(String key, Object content) {
+        watched.removeIf(reference -> reference.refersTo(null));
+        watched.add(new Watched(key, content));
+        listen();
+    }
+
+    /**
+     * Subscribes to the collection notifications of every collector, once.
+     */
+    private void listen() {
+        if(!listening.compareAndSet(false, true)) {
+            return;
+        }
+
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if(collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(this, null, collector.getName());
+            }
+        }
+    }
+
+    /**
+     * Runs on the JVM's notification thread after every collection: counts whole-heap collections against the settled
+     * content and reports the content that survived enough of them.
+     *
+     * @param notification the collection notification
+     * @param handback     the name of the collector that sent it
+     */
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if(!GC_NOTIFICATION.equals(notification.getType()) || !(notification.getUserData() instanceof CompositeData info)
+                || !coversWholeHeap((String) handback, (String) info.get("gcAction"))) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for(Watched reference : watched) {
+            if(reference.refersTo(null)) {
+                watched.remove(reference);
+            } else if(now - reference.closedNanos >= TimeUnit.SECONDS.toNanos(SETTLE_SECONDS) && ++reference.collections >= COLLECTIONS_TO_CONFIRM) {
+                watched.remove(reference);
+                LEAKED.increment();
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING,
+                        "Content Of Closed Tab '{}' ({}) Is Still Reachable After {} Full Collections", reference.key, reference.type, COLLECTIONS_TO_CONFIRM);
+            }
+        }
+    }
+
+    /**
+     * Tells collections that clear weak references into the old generation from young collections: full collections of
+     * the generational collectors, G1's concurrent cycles and the cycles reported by ZGC and Shenandoah.
+     */
+    private static boolean coversWholeHeap(String collector, String action) {
+        return MAJOR_GC_ACTION.equals(action) || G1_CONCURRENT_COLLECTOR.equals(collector)
+                || (collector != null && collector.endsWith(CYCLE_COLLECTOR_SUFFIX));
+    }
+}
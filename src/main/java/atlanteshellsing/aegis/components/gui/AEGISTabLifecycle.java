@@ -0,0 +1,37 @@
+package atlanteshellsing.aegis.components.gui;
+
+/**
+ * Optional lifecycle of tab content. Content nodes of an {@link AEGISTabPane} that implement this interface are told
+ * when their tab is shown, hidden and closed.
+ *
+ * <p>A tab pane keeps the content of hidden tabs in the scene, so content that polls, animates or streams should pause
+ * in {@link #deactivated()} rather than wait to be removed from the scene. Every callback runs on the FX thread; an
+ * exception thrown by a callback is logged and does not affect the tab pane.</p>
+ */
+public interface AEGISTabLifecycle {
+
+    /**
+     * Called when the tab becomes the selected tab, and right after its content is installed if it already is.
+     */
+    default void activated() {}
+
+    /**
+     * Called when another tab is selected, before the tab is closed while selected, and right after its content is
+     * installed if the tab is not selected.
+     */
+    default void deactivated() {}
+
+    /**
+     * Called once after the tab was closed. Release listeners registered on longer-lived objects, stop background work
+     * and drop large buffers here; the content is never shown again.
+     */
+    default void disposed() {}
+
+    /**
+     * Estimates the memory held by this content beyond its scene graph, such as result lists or decoded buffers.
+     * Summed into the {@code tabs.retainedBytes} gauge, so it may be called on any thread and must be cheap.
+     *
+     * @return the approximate retained size in bytes; 0 if negligible
+     */
+    default long retainedBytes() { return 0; }
+}
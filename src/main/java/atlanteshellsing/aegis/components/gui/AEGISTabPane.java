@@ -1,17 +1,108 @@
 package atlanteshellsing.aegis.components.gui;
 
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISLatencyHistogram;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+import atlanteshellsing.aegis.metrics.AEGISTabEvent;
+import atlanteshellsing.aegis.tasks.AEGISTask;
+import atlanteshellsing.aegis.tasks.AEGISTaskHandle;
+import atlanteshellsing.aegis.tasks.AEGISTaskObserver;
+import atlanteshellsing.aegis.tasks.AEGISTaskScheduler;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.layout.StackPane;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class AEGISTabPane extends TabPane {
 
-    protected record TabInfo(String key, Tab tab, String title, Node content) {}
+    /**
+     * Lifecycle of a tab's content node.
+     */
+    public enum ContentState {
+        /** The tab has a content factory that has not been invoked yet. */
+        UNMATERIALIZED,
+        /** The content factory is running; the tab shows a placeholder. */
+        PENDING,
+        /** The tab shows its real content. */
+        MATERIALIZED,
+        /** The content factory failed; the tab shows an error message. */
+        FAILED
+    }
+
+    protected record TabInfo(String key, Tab tab, String title, Node content, ContentState state) {
+
+        /**
+         * Returns a copy of this TabInfo with new content and state.
+         *
+         * @param content the content now shown by the tab; may be null while not materialized
+         * @param state   the new content state
+         * @return the updated TabInfo
+         */
+        TabInfo withContent(Node content, ContentState state) {
+            return new TabInfo(key, tab, title, content, state);
+        }
+    }
+
+    private static final AtomicInteger OPEN_TABS = new AtomicInteger();
+    private static final AEGISLatencyHistogram MATERIALIZE_LATENCY = AEGISMetrics.histogram("tabs.materialize");
+    private static final AEGISLatencyHistogram LOOKUP_LATENCY = AEGISMetrics.histogram("tabs.lookup");
+    private static final Set<AEGISTabLifecycle> LIVE_CONTENT = ConcurrentHashMap.newKeySet();
+    private static final AEGISTabLeakDetector LEAK_DETECTOR = new AEGISTabLeakDetector();
+
+    static {
+        AEGISMetrics.gauge("tabs.open", OPEN_TABS::get);
+        AEGISMetrics.gauge("tabs.retainedBytes", AEGISTabPane::getTotalRetainedBytes);
+    }
 
     private final Map<String, TabInfo> tabRegistry = new HashMap<>();
+    private final Map<String, Supplier<? extends CompletionStage<? extends Node>>> contentFactories = new HashMap<>();
+    private final Map<String, List<AEGISTaskHandle<?>>> tabTasks = new HashMap<>();
+    private final AEGISTabIndex tabIndex = new AEGISTabIndex();
+    private final AEGISTaskScheduler taskScheduler;
+    private AEGISTabLifecycle activeContent;
+    private AEGISTabSwitcher switcher;
+
+    /**
+     * Creates an empty tab pane that materializes lazily created tab content the first time a tab is selected. Tabs of
+     * this pane cannot submit tasks through {@link #submitTask(Node, String, AEGISTask, AEGISTaskObserver)}.
+     */
+    public AEGISTabPane() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty tab pane whose tabs run their background work on the given scheduler.
+     *
+     * @param taskScheduler the scheduler used by {@link #submitTask(Node, String, AEGISTask, AEGISTaskObserver)}; may be null
+     */
+    public AEGISTabPane(AEGISTaskScheduler taskScheduler) {
+        this.taskScheduler = taskScheduler;
+        getSelectionModel().selectedItemProperty().addListener((observable, previous, selected) -> {
+            deactivateContent();
+            if(selected != null && selected.getUserData() instanceof String key) {
+                tabIndex.touch(key);
+                materialize(key);
+            }
+            if(selected != null) {
+                activateContent(selected.getContent());
+            }
+        });
+    }
 
     /**
      * Adds a new tab to the pane and the registry.
@@ -26,10 +117,48 @@ public class AEGISTabPane extends TabPane {
             return;
         }
 
-        Tab tab = new Tab(title, content);
-        tab.setOnClosed(e -> removeTab(key));
-        getTabs().add(tab);
-        tabRegistry.put(key, new TabInfo(key, tab, title, content));
+        AEGISTabEvent event = new AEGISTabEvent();
+        event.begin();
+        registerTab(key, title, content, ContentState.MATERIALIZED);
+        commitTabEvent(event, "add", key);
+    }
+
+    /**
+     * Adds a new tab whose content is built on the FX thread the first time the tab is selected.
+     *
+     * @param key            Unique key for this tab.
+     * @param title          Display title of the tab.
+     * @param contentFactory Builds the UI content for the tab; invoked at most once.
+     */
+    public void addTab(String key, String title, Supplier<? extends Node> contentFactory) {
+        addAsyncTab(key, title, () -> CompletableFuture.completedFuture(contentFactory.get()));
+    }
+
+    /**
+     * Adds a new tab whose content is produced asynchronously the first time the tab is selected.
+     *
+     * <p>The factory is invoked on the FX thread and should hand slow work to a background executor; the tab shows a
+     * lightweight placeholder until the returned stage completes, after which the content is installed on the FX thread.
+     * If the tab is closed before that, the result is discarded.</p>
+     *
+     * @param key            Unique key for this tab.
+     * @param title          Display title of the tab.
+     * @param contentFactory Starts building the UI content for the tab; invoked at most once.
+     */
+    public void addAsyncTab(String key, String title, Supplier<? extends CompletionStage<? extends Node>> contentFactory) {
+        if(containsTab(key)) {
+            selectTab(key);
+            return;
+        }
+
+        AEGISTabEvent event = new AEGISTabEvent();
+        event.begin();
+        contentFactories.put(key, contentFactory);
+        Tab tab = registerTab(key, title, null, ContentState.UNMATERIALIZED);
+        if(tab.isSelected()) {
+            materialize(key);
+        }
+        commitTabEvent(event, "add", key);
     }
 
     /**
@@ -38,10 +167,110 @@ public class AEGISTabPane extends TabPane {
      * @param key The unique key of the tab.
      */
     public void removeTab(String key) {
+        AEGISTabEvent event = new AEGISTabEvent();
+        event.begin();
+        contentFactories.remove(key);
+        List<AEGISTaskHandle<?>> tasks = tabTasks.remove(key);
+        if(tasks != null) {
+            for(AEGISTaskHandle<?> task : tasks) {
+                task.cancel();
+            }
+        }
         TabInfo info = tabRegistry.remove(key);
         if(info != null) {
+            OPEN_TABS.decrementAndGet();
+            tabIndex.remove(key);
             getTabs().remove(info.tab());
+            info.tab().setContent(null);
+            if(info.content() != null) {
+                disposeContent(key, info.content());
+            }
         }
+        commitTabEvent(event, "remove", key);
+    }
+
+    /**
+     * Estimates the memory retained by the content of a tab, as reported by {@link AEGISTabLifecycle#retainedBytes()}.
+     *
+     * @param key The unique key of the tab.
+     * @return the approximate retained size in bytes; 0 if the tab does not exist or its content does not report a size
+     */
+    public long getRetainedBytes(String key) {
+        TabInfo info = tabRegistry.get(key);
+        return info != null && info.content() instanceof AEGISTabLifecycle lifecycle ? lifecycle.retainedBytes() : 0;
+    }
+
+    /**
+     * Sums the retained size reported by the content of every open tab in any tab pane.
+     *
+     * @return the approximate retained size in bytes
+     */
+    private static long getTotalRetainedBytes() {
+        long total = 0;
+        for(AEGISTabLifecycle content : LIVE_CONTENT) {
+            total += Math.max(0, content.retainedBytes());
+        }
+        return total;
+    }
+
+    /**
+     * Ties a background task to a tab, so the task is cancelled when the tab is closed. If the tab does not exist
+     * (anymore), the task is cancelled right away.
+     *
+     * @param key    The unique key of the tab.
+     * @param handle The handle of the task doing work for the tab.
+     */
+    public void registerTask(String key, AEGISTaskHandle<?> handle) {
+        if(!containsTab(key)) {
+            handle.cancel();
+            return;
+        }
+
+        List<AEGISTaskHandle<?>> tasks = tabTasks.computeIfAbsent(key, k -> new ArrayList<>());
+        tasks.removeIf(AEGISTaskHandle::isDone);
+        tasks.add(handle);
+    }
+
+    /**
+     * Runs background work for the tab showing {@code content} and ties it to that tab, so it is cancelled when the
+     * tab is closed. The content's class is used as the tool class, so its concurrency limit applies.
+     *
+     * @param content  The content node of a tab in this pane.
+     * @param name     The task name used in log entries.
+     * @param task     The work to run.
+     * @param observer Receives progress and the outcome on the FX thread.
+     * @param <T>      The result type.
+     * @return The handle of the submitted task.
+     * @throws IllegalStateException if this pane has no scheduler or {@code content} is not shown by one of its tabs
+     */
+    public <T> AEGISTaskHandle<T> submitTask(Node content, String name, AEGISTask<T> task, AEGISTaskObserver<? super T> observer) {
+        if(taskScheduler == null) {
+            throw new IllegalStateException("This tab pane has no task scheduler");
+        }
+        String key = tabRegistry.values().stream()
+                .filter(info -> info.content() == content)
+                .map(TabInfo::key)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Content is not shown by a tab of this pane: " + content));
+
+        AEGISTaskHandle<T> handle = taskScheduler.submit(content.getClass(), name, task, observer);
+        registerTask(key, handle);
+        return handle;
+    }
+
+    /**
+     * Finds the AEGISTabPane a node is shown in.
+     *
+     * @param node A node inside a tab's content.
+     * @return The closest enclosing AEGISTabPane; Null if the node is not inside one.
+     */
+    public static AEGISTabPane find(Node node) {
+        for(Node current = node; current != null; current = current.getParent()) {
+            if(current instanceof AEGISTabPane tabPane) {
+                return tabPane;
+            }
+        }
+        return null;
     }
 
     /**
@@ -56,6 +285,43 @@ public class AEGISTabPane extends TabPane {
         }
     }
 
+    /**
+     * Finds open tabs by key and title without scanning the tab list. Every whitespace-separated term of the query must
+     * occur in the key or title; terms shorter than three characters must start a word. Tabs matching at the start of
+     * their key or title come first, then the more recently selected ones.
+     *
+     * @param query The search terms; case is ignored. A blank query lists the most recently selected tabs.
+     * @param limit The maximum number of keys returned.
+     * @return The keys of the best matching tabs, best first.
+     */
+    public List<String> findTabs(String query, int limit) {
+        long start = System.nanoTime();
+        List<String> keys = tabIndex.find(query, limit);
+        LOOKUP_LATENCY.recordSince(start);
+        return keys;
+    }
+
+    /**
+     * Shows a popup for switching to another tab by typing part of its key or title.
+     */
+    public void showQuickSwitcher() {
+        if(switcher == null) {
+            switcher = new AEGISTabSwitcher(this);
+        }
+        switcher.open();
+    }
+
+    /**
+     * Gets the title of a tab.
+     *
+     * @param key Key to be searched for.
+     * @return The display title of the tab; Null if not found.
+     */
+    public String getTabTitle(String key) {
+        TabInfo info = getTabInfo(key);
+        return info != null ? info.title() : null;
+    }
+
     /**
      * Checks if a tab exists by key.
      *
@@ -64,6 +330,17 @@ public class AEGISTabPane extends TabPane {
      */
     public boolean containsTab(String key) { return tabRegistry.containsKey(key); }
 
+    /**
+     * Gets the content state of a tab.
+     *
+     * @param key Key to be searched for.
+     * @return The tab's content state; Null if not found.
+     */
+    public ContentState getContentState(String key) {
+        TabInfo info = getTabInfo(key);
+        return info != null ? info.state() : null;
+    }
+
     /**
      * Gets the TabInfo for a key.
      *
@@ -71,4 +348,171 @@ public class AEGISTabPane extends TabPane {
      * @return The TabInfo object; Null if not found.
      */
     protected TabInfo getTabInfo(String key) { return tabRegistry.get(key); }
+
+    /**
+     * Completes a tab event. Costs a single check while no flight recording runs.
+     *
+     * @param event     the event begun when the operation started
+     * @param operation the operation name: {@code add}, {@code remove} or {@code materialize}
+     * @param key       the key of the tab
+     */
+    private void commitTabEvent(AEGISTabEvent event, String operation, String key) {
+        if(event.shouldCommit()) {
+            event.operation = operation;
+            event.key = key;
+            event.openTabs = tabRegistry.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Creates the Tab, registers it and adds it to the pane. The registry entry is created first, because adding
+     * the first tab selects it immediately.
+     */
+    private Tab registerTab(String key, String title, Node content, ContentState state) {
+        Tab tab = new Tab(title, content);
+        tab.setUserData(key);
+        tab.setOnClosed(e -> removeTab(key));
+        tabRegistry.put(key, new TabInfo(key, tab, title, content, state));
+        tabIndex.add(key, title);
+        OPEN_TABS.incrementAndGet();
+        getTabs().add(tab);
+        if(content != null) {
+            contentInstalled(tab, content);
+        }
+        return tab;
+    }
+
+    /**
+     * Invokes the content factory of an unmaterialized tab and shows a placeholder until its content is ready.
+     */
+    private void materialize(String key) {
+        TabInfo info = tabRegistry.get(key);
+        Supplier<? extends CompletionStage<? extends Node>> factory = contentFactories.remove(key);
+        if(info == null || factory == null || info.state() != ContentState.UNMATERIALIZED) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        AEGISTabEvent event = new AEGISTabEvent();
+        event.begin();
+        tabRegistry.put(key, info.withContent(null, ContentState.PENDING));
+        info.tab().setContent(createPlaceholder("Loading " + info.title() + "..."));
+
+        CompletionStage<? extends Node> stage;
+        try {
+            stage = factory.get();
+        } catch (RuntimeException e) {
+            completeMaterialization(key, info.tab(), null, e, start);
+            return;
+        } finally {
+            commitTabEvent(event, "materialize", key);
+        }
+
+        stage.whenComplete((content, error) -> {
+            if(Platform.isFxApplicationThread()) {
+                completeMaterialization(key, info.tab(), content, error, start);
+            } else {
+                Platform.runLater(() -> completeMaterialization(key, info.tab(), content, error, start));
+            }
+        });
+    }
+
+    /**
+     * Installs materialized content, or an error message if the factory failed. Ignored if the tab was closed meanwhile.
+     */
+    private void completeMaterialization(String key, Tab tab, Node content, Throwable error, long startNanos) {
+        TabInfo info = tabRegistry.get(key);
+        if(info == null || info.tab() != tab) {
+            if(content instanceof AEGISTabLifecycle lifecycle) {
+                notifyLifecycle(key, "disposed", lifecycle::disposed);
+            }
+            return;
+        }
+
+        MATERIALIZE_LATENCY.recordSince(startNanos);
+
+        if(error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Could Not Create Content For Tab " + key,
+                    cause instanceof Exception exception ? exception : new RuntimeException(cause));
+            tab.setContent(createPlaceholder("Could not load " + info.title()));
+            tabRegistry.put(key, info.withContent(null, ContentState.FAILED));
+            return;
+        }
+
+        tab.setContent(content);
+        tabRegistry.put(key, info.withContent(content, ContentState.MATERIALIZED));
+        contentInstalled(tab, content);
+    }
+
+    /**
+     * Starts tracking newly installed content and tells it whether its tab is shown, so content that starts working when
+     * it enters the scene pauses right away in a tab that is not selected.
+     */
+    private void contentInstalled(Tab tab, Node content) {
+        if(!(content instanceof AEGISTabLifecycle lifecycle)) {
+            return;
+        }
+        LIVE_CONTENT.add(lifecycle);
+        if(tab.isSelected()) {
+            activateContent(content);
+        } else {
+            notifyLifecycle(content, "deactivated", lifecycle::deactivated);
+        }
+    }
+
+    /**
+     * Tells the content of the selected tab that it is shown, unless it already knows.
+     */
+    private void activateContent(Node content) {
+        if(content instanceof AEGISTabLifecycle lifecycle && lifecycle != activeContent) {
+            deactivateContent();
+            activeContent = lifecycle;
+            notifyLifecycle(content, "activated", lifecycle::activated);
+        }
+    }
+
+    /**
+     * Tells the content that was last activated that it is hidden.
+     */
+    private void deactivateContent() {
+        AEGISTabLifecycle lifecycle = activeContent;
+        if(lifecycle != null) {
+            activeContent = null;
+            notifyLifecycle(lifecycle, "deactivated", lifecycle::deactivated);
+        }
+    }
+
+    /**
+     * Disposes the content of a closed tab and hands it to the leak detector, which reports it if it survives the full collections that follow.
+     */
+    private void disposeContent(String key, Node content) {
+        if(content instanceof AEGISTabLifecycle lifecycle) {
+            if(lifecycle == activeContent) {
+                deactivateContent();
+            }
+            LIVE_CONTENT.remove(lifecycle);
+            notifyLifecycle(key, "disposed", lifecycle::disposed);
+        }
+        LEAK_DETECTOR.watch(key, content);
+    }
+
+    /**
+     * Invokes a lifecycle callback, logging instead of propagating its failure so one faulty tab cannot break the pane.
+     */
+    private static void notifyLifecycle(Object source, String callback, Runnable invocation) {
+        try {
+            invocation.run();
+        } catch (RuntimeException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE,
+                    "Tab Content Failed In " + callback + ": " + source, e);
+        }
+    }
+
+    private static Node createPlaceholder(String text) {
+        StackPane placeholder = new StackPane(new Label(text));
+        placeholder.setAlignment(Pos.CENTER);
+        return placeholder;
+    }
 }
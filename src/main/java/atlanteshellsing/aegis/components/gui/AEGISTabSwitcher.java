@@ -0,0 +1,127 @@
+package atlanteshellsing.aegis.components.gui;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Insets;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.VBox;
+import javafx.stage.Popup;
+
+import java.util.List;
+
+/**
+ * Keyboard-driven popup for switching between the tabs of an {@link AEGISTabPane} by typing part of a key or title.
+ *
+ * <p>Every keystroke queries the pane's tab index, never the tab list, and shows at most {@value #MAX_RESULTS} matches
+ * in a virtualized list. Up and Down move the selection, Enter switches to the selected tab and Escape or a click
+ * elsewhere closes the popup. With an empty query the tabs are listed most recently used first and the previously
+ * selected tab is preselected, so opening the switcher and pressing Enter toggles between the last two tabs.</p>
+ */
+final class AEGISTabSwitcher extends Popup {
+
+    private static final int MAX_RESULTS = 50;
+    private static final int VISIBLE_ROWS = 12;
+    private static final double CELL_HEIGHT = 22;
+    private static final double WIDTH = 480;
+    private static final double TOP_OFFSET = 40;
+
+    private final AEGISTabPane tabPane;
+    private final TextField queryField = new TextField();
+    private final ListView<String> resultList = new ListView<>();
+
+    /**
+     * Creates the switcher for a tab pane. It is shown with {@link #open()}.
+     *
+     * @param tabPane the pane whose tabs are listed
+     */
+    AEGISTabSwitcher(AEGISTabPane tabPane) {
+        this.tabPane = tabPane;
+        setAutoHide(true);
+        setHideOnEscape(true);
+
+        queryField.setPromptText("Switch to tab");
+        queryField.textProperty().addListener((observable, previous, query) -> updateResults());
+        queryField.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            switch(event.getCode()) {
+                case DOWN -> moveSelection(1);
+                case UP -> moveSelection(-1);
+                case ENTER -> switchToSelected();
+                default -> {
+                    return;
+                }
+            }
+            event.consume();
+        });
+
+        resultList.setFocusTraversable(false);
+        resultList.setFixedCellSize(CELL_HEIGHT);
+        resultList.setPrefHeight(CELL_HEIGHT * VISIBLE_ROWS + 2);
+        resultList.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(String key, boolean empty) {
+                super.updateItem(key, empty);
+                setText(empty || key == null ? null : tabPane.getTabTitle(key) + "  -  " + key);
+            }
+        });
+        resultList.setOnMouseClicked(event -> {
+            if(event.getButton() == MouseButton.PRIMARY) {
+                switchToSelected();
+            }
+        });
+
+        VBox content = new VBox(6, queryField, resultList);
+        content.getStyleClass().add("aegis-tab-switcher");
+        content.setPadding(new Insets(8));
+        content.setPrefWidth(WIDTH);
+        getContent().add(content);
+    }
+
+    /**
+     * Shows the switcher near the top of the tab pane, with an empty query listing the most recently used tabs.
+     */
+    void open() {
+        if(isShowing() || tabPane.getScene() == null) {
+            return;
+        }
+
+        queryField.clear();
+        updateResults();
+        if(resultList.getItems().size() > 1) {
+            resultList.getSelectionModel().select(1);
+        }
+
+        Bounds bounds = tabPane.localToScreen(tabPane.getBoundsInLocal());
+        show(tabPane, bounds.getMinX() + Math.max(0, (bounds.getWidth() - WIDTH) / 2), bounds.getMinY() + TOP_OFFSET);
+        queryField.requestFocus();
+    }
+
+    private void updateResults() {
+        List<String> keys = tabPane.findTabs(queryField.getText(), MAX_RESULTS);
+        resultList.getItems().setAll(keys);
+        if(!keys.isEmpty()) {
+            resultList.getSelectionModel().selectFirst();
+            resultList.scrollTo(0);
+        }
+    }
+
+    private void moveSelection(int delta) {
+        int size = resultList.getItems().size();
+        if(size == 0) {
+            return;
+        }
+        int index = Math.floorMod(resultList.getSelectionModel().getSelectedIndex() + delta, size);
+        resultList.getSelectionModel().select(index);
+        resultList.scrollTo(index);
+    }
+
+    private void switchToSelected() {
+        String key = resultList.getSelectionModel().getSelectedItem();
+        hide();
+        if(key != null) {
+            tabPane.selectTab(key);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package atlanteshellsing.aegis.custom.factories;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free pool of reusable, non-thread-safe objects such as XML parsers and transformers.
+ *
+ * <p>Objects are not bound to the thread that created them, so the pool works the same for platform and virtual
+ * threads: a borrower takes any idle instance (a hit) or creates a new one (a miss), and returns it by closing the
+ * {@link Lease}. Returned instances are reset before they become idle again; instances returned while the pool
+ * already holds {@code maxIdle} idle objects are discarded.</p>
+ *
+ * <pre>
+ * {@code try (AEGISObjectPool<DocumentBuilder, ParserConfigurationException>.Lease lease = pool.borrow()) {
+ *      Document doc = lease.get().parse(file);
+ *  }}
+ * </pre>
+ *
+ * @param <T> the pooled type
+ * @param <E> the exception thrown when a new instance cannot be created
+ */
+public final class AEGISObjectPool<T, E extends Exception> {
+
+    /**
+     * Creates new pooled instances on a miss.
+     *
+     * @param <T> the pooled type
+     * @param <E> the exception thrown when an instance cannot be created
+     */
+    @FunctionalInterface
+    public interface Factory<T, E extends Exception> {
+        T create() throws E;
+    }
+
+    private final int maxIdle;
+    private final Factory<T, E> factory;
+    private final Consumer<T> resetter;
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param maxIdle  the maximum number of idle instances retained
+     * @param factory  creates a new instance when no idle one is available
+     * @param resetter restores a returned instance to its freshly created state
+     */
+    public AEGISObjectPool(int maxIdle, Factory<T, E> factory, Consumer<T> resetter) {
+        this.maxIdle = maxIdle;
+        this.factory = factory;
+        this.resetter = resetter;
+    }
+
+    /**
+     * Takes an idle instance from the pool, or creates one if none is idle.
+     *
+     * @return a lease that must be closed to return the instance
+     * @throws E if a new instance is needed and cannot be created
+     */
+    public Lease borrow() throws E {
+        T instance = idle.poll();
+        if(instance != null) {
+            idleCount.decrementAndGet();
+            hits.increment();
+            return new Lease(instance);
+        }
+
+        misses.increment();
+        return new Lease(factory.create());
+    }
+
+    /**
+     * Provides the number of borrows served by an idle instance.
+     *
+     * @return the hit count since the pool was created
+     */
+    public long getHitCount() { return hits.sum(); }
+
+    /**
+     * Provides the number of borrows that had to create a new instance.
+     *
+     * @return the miss count since the pool was created
+     */
+    public long getMissCount() { return misses.sum(); }
+
+    /**
+     * Provides the number of instances currently idle in the pool.
+     *
+     * @return the idle instance count
+     */
+    public int getIdleCount() { return idleCount.get(); }
+
+    /**
+     * Resets a returned instance and keeps it if the pool has room. Instances that fail to reset are discarded.
+     */
+    private void release(T instance) {
+        try {
+            resetter.accept(instance);
+        } catch (RuntimeException e) {
+            return;
+        }
+
+        if(idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(instance);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Exclusive use of one pooled instance until {@link #close()} is called.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private T instance;
+
+        private Lease(T instance) {
+            this.instance = instance;
+        }
+
+        /**
+         * Provides the leased instance.
+         *
+         * @return the leased instance
+         * @throws IllegalStateException if the lease has already been closed
+         */
+        public T get() {
+            if(instance == null) {
+                throw new IllegalStateException("Lease already closed");
+            }
+            return instance;
+        }
+
+        /**
+         * Returns the instance to the pool. Closing a lease more than once has no effect.
+         */
+        @Override
+        public void close() {
+            T returned = instance;
+            instance = null;
+            if(returned != null) {
+                release(returned);
+            }
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package atlanteshellsing.aegis.custom.factories;
 
 import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISFactoryEvent;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 public class AEGISSecureDocumentBuilderFactory {
 
+    private static final int MAX_IDLE_BUILDERS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final AEGISSecureDocumentBuilderFactory SHARED = new AEGISSecureDocumentBuilderFactory();
+    private static final AEGISObjectPool<DocumentBuilder, ParserConfigurationException> BUILDER_POOL =
+            new AEGISObjectPool<>(MAX_IDLE_BUILDERS, SHARED::newDocumentBuilder, DocumentBuilder::reset);
+
+    static {
+        AEGISMetrics.gauge("xml.documentBuilderPool.hits", BUILDER_POOL::getHitCount);
+        AEGISMetrics.gauge("xml.documentBuilderPool.misses", BUILDER_POOL::getMissCount);
+    }
+
     private DocumentBuilderFactory secureFactory;
+    private boolean configured;
 
     /**
      * Creates a DocumentBuilderFactory preconfigured for secure XML parsing.
@@ -16,6 +31,8 @@ public class AEGISSecureDocumentBuilderFactory {
      * Configures the factory to enable secure processing, disallow DOCTYPE declarations, disable external general and parameter entities, prevent loading external DTDs, disable XInclude processing, disable expansion of entity references, and enable namespace awareness. Any ParserConfigurationException raised while applying these settings is logged. 
      */
     public AEGISSecureDocumentBuilderFactory() {
+        AEGISFactoryEvent event = new AEGISFactoryEvent();
+        event.begin();
 
         try {
             secureFactory = DocumentBuilderFactory.newInstance();
@@ -30,9 +47,16 @@ public class AEGISSecureDocumentBuilderFactory {
             secureFactory.setExpandEntityReferences(false);
             secureFactory.setNamespaceAware(true);
 
+            configured = true;
         } catch (ParserConfigurationException e) {
             AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Failed to configure secure XML parser", e);
         }
+
+        if(event.shouldCommit()) {
+            event.factory = getClass().getSimpleName();
+            event.configured = configured;
+            event.commit();
+        }
     }
 
     /**
@@ -41,4 +65,42 @@ public class AEGISSecureDocumentBuilderFactory {
  * @return the DocumentBuilderFactory configured with secure parsing features
  */
 public DocumentBuilderFactory getSecureFactory() { return secureFactory; }
+
+    /**
+     * Provides the process-wide hardened factory, so callers do not repeat the service lookup and feature setup.
+     *
+     * @return the shared secure factory
+     */
+    public static AEGISSecureDocumentBuilderFactory getShared() { return SHARED; }
+
+    /**
+     * Borrows a DocumentBuilder created by the shared hardened factory. Close the lease to return the builder,
+     * which is {@link DocumentBuilder#reset() reset} before it is handed out again.
+     *
+     * @return a lease on a secure DocumentBuilder
+     * @throws ParserConfigurationException if a new builder is needed and cannot be created
+     */
+    public static AEGISObjectPool<DocumentBuilder, ParserConfigurationException>.Lease borrowDocumentBuilder() throws ParserConfigurationException {
+        return BUILDER_POOL.borrow();
+    }
+
+    /**
+     * Provides the shared DocumentBuilder pool, e.g. to read its hit and miss counts.
+     *
+     * @return the shared DocumentBuilder pool
+     */
+    public static AEGISObjectPool<DocumentBuilder, ParserConfigurationException> getBuilderPool() { return BUILDER_POOL; }
+
+    /**
+     * Creates a new DocumentBuilder from this factory. Factories are not thread-safe, so creation is serialized.
+     *
+     * @return a new secure DocumentBuilder
+     * @throws ParserConfigurationException if the factory could not be hardened or cannot create a builder
+     */
+    public synchronized DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+        if(!configured) {
+            throw new ParserConfigurationException("Secure XML parser is not configured");
+        }
+        return secureFactory.newDocumentBuilder();
+    }
 }
\ No newline at end of file
@@ -1,14 +1,29 @@
 package atlanteshellsing.aegis.custom.factories;
 
 import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISFactoryEvent;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
 
 import javax.xml.XMLConstants;
+import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 
 public class AEGISSecureTransformerFactory {
 
+    private static final int MAX_IDLE_TRANSFORMERS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final AEGISSecureTransformerFactory SHARED = new AEGISSecureTransformerFactory();
+    private static final AEGISObjectPool<Transformer, TransformerConfigurationException> TRANSFORMER_POOL =
+            new AEGISObjectPool<>(MAX_IDLE_TRANSFORMERS, SHARED::newTransformer, Transformer::reset);
+
+    static {
+        AEGISMetrics.gauge("xml.transformerPool.hits", TRANSFORMER_POOL::getHitCount);
+        AEGISMetrics.gauge("xml.transformerPool.misses", TRANSFORMER_POOL::getMissCount);
+    }
+
     private TransformerFactory secureFactory;
+    private boolean configured;
 
     /**
      * Initializes a TransformerFactory preconfigured for secure XML processing.
@@ -20,6 +35,8 @@ public class AEGISSecureTransformerFactory {
      * may be left uninitialized (null).
      */
     public AEGISSecureTransformerFactory() {
+        AEGISFactoryEvent event = new AEGISFactoryEvent();
+        event.begin();
 
         try {
             secureFactory = TransformerFactory.newInstance();
@@ -29,9 +46,17 @@ public class AEGISSecureTransformerFactory {
             // Disallow external stylesheets/entities
             secureFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
             secureFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+
+            configured = true;
         } catch (TransformerConfigurationException e) {
             AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Failed to configure secure XML transformer", e);
         }
+
+        if(event.shouldCommit()) {
+            event.factory = getClass().getSimpleName();
+            event.configured = configured;
+            event.commit();
+        }
     }
 
     /**
@@ -40,4 +65,42 @@ public class AEGISSecureTransformerFactory {
  * @return the TransformerFactory with secure processing enabled and external DTD/stylesheets disabled, or `null` if configuration failed
  */
 public TransformerFactory getSecureFactory() { return secureFactory; }
+
+    /**
+     * Provides the process-wide hardened factory, so callers do not repeat the service lookup and feature setup.
+     *
+     * @return the shared secure factory
+     */
+    public static AEGISSecureTransformerFactory getShared() { return SHARED; }
+
+    /**
+     * Borrows an identity Transformer created by the shared hardened factory. Close the lease to return the transformer,
+     * which is {@link Transformer#reset() reset} (including its output properties) before it is handed out again.
+     *
+     * @return a lease on a secure identity Transformer
+     * @throws TransformerConfigurationException if a new transformer is needed and cannot be created
+     */
+    public static AEGISObjectPool<Transformer, TransformerConfigurationException>.Lease borrowTransformer() throws TransformerConfigurationException {
+        return TRANSFORMER_POOL.borrow();
+    }
+
+    /**
+     * Provides the shared Transformer pool, e.g. to read its hit and miss counts.
+     *
+     * @return the shared Transformer pool
+     */
+    public static AEGISObjectPool<Transformer, TransformerConfigurationException> getTransformerPool() { return TRANSFORMER_POOL; }
+
+    /**
+     * Creates a new identity Transformer from this factory. Factories are not thread-safe, so creation is serialized.
+     *
+     * @return a new secure identity Transformer
+     * @throws TransformerConfigurationException if the factory could not be hardened or cannot create a transformer
+     */
+    public synchronized Transformer newTransformer() throws TransformerConfigurationException {
+        if(!configured) {
+            throw new TransformerConfigurationException("Secure XML transformer is not configured");
+        }
+        return secureFactory.newTransformer();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package atlanteshellsing.aegis.custom.factories;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISFactoryEvent;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class AEGISSecureXMLStreamFactory {
+
+    private static final AEGISSecureXMLStreamFactory SHARED = new AEGISSecureXMLStreamFactory();
+
+    private XMLInputFactory secureInputFactory;
+    private XMLOutputFactory outputFactory;
+    private boolean configured;
+
+    /**
+     * Creates StAX factories preconfigured for secure streaming XML processing.
+     *
+     * The input factory gets the same hardening as {@link AEGISSecureDocumentBuilderFactory}: DTD support, external entities,
+     * external DTD access and entity replacement are disabled and namespace awareness is enabled. Readers created by
+     * {@link #createReader(InputStream)} additionally reject any DOCTYPE declaration. Any failure while applying these settings is logged.
+     */
+    public AEGISSecureXMLStreamFactory() {
+        AEGISFactoryEvent event = new AEGISFactoryEvent();
+        event.begin();
+
+        try {
+            secureInputFactory = XMLInputFactory.newFactory();
+
+            secureInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            secureInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            secureInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+            secureInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+            secureInputFactory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+
+            outputFactory = XMLOutputFactory.newFactory();
+
+            configured = true;
+        } catch (IllegalArgumentException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Failed to configure secure XML stream factory", e);
+        }
+
+        if(event.shouldCommit()) {
+            event.factory = getClass().getSimpleName();
+            event.configured = configured;
+            event.commit();
+        }
+    }
+
+    /**
+     * Provides the process-wide hardened factory, so callers do not repeat the service lookup and feature setup.
+     *
+     * @return the shared secure stream factory
+     */
+    public static AEGISSecureXMLStreamFactory getShared() { return SHARED; }
+
+    /**
+     * Creates a secure streaming reader. The returned reader throws as soon as a DOCTYPE declaration is encountered.
+     *
+     * @param in the UTF-8 (or self-describing) XML input
+     * @return a new secure XMLStreamReader
+     * @throws XMLStreamException if the factory could not be hardened or the reader cannot be created
+     */
+    public synchronized XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+        if(!configured) {
+            throw new XMLStreamException("Secure XML stream reader is not configured");
+        }
+        return new DoctypeRejectingReader(secureInputFactory.createXMLStreamReader(in));
+    }
+
+    /**
+     * Creates a streaming writer producing UTF-8 output.
+     *
+     * @param out the destination stream
+     * @return a new XMLStreamWriter
+     * @throws XMLStreamException if the factory could not be configured or the writer cannot be created
+     */
+    public synchronized XMLStreamWriter createWriter(OutputStream out) throws XMLStreamException {
+        if(!configured) {
+            throw new XMLStreamException("Secure XML stream writer is not configured");
+        }
+        return outputFactory.createXMLStreamWriter(out, "UTF-8");
+    }
+
+    /**
+     * Reader wrapper that fails on DTD events, mirroring the {@code disallow-doctype-decl} feature of the DOM factory.
+     */
+    private static final class DoctypeRejectingReader extends StreamReaderDelegate {
+
+        private DoctypeRejectingReader(XMLStreamReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = super.next();
+            if(event == DTD) {
+                throw new XMLStreamException("DOCTYPE is disallowed", getLocation());
+            }
+            return event;
+        }
+    }
+}
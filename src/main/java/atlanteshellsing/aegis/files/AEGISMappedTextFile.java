@@ -0,0 +1,451 @@
+package atlanteshellsing.aegis.files;
+
+import atlanteshellsing.aegis.metrics.AEGISLatencyHistogram;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+import atlanteshellsing.aegis.tasks.AEGISTaskContext;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A text file of any size, memory-mapped read-only and addressed by line number.
+ *
+ * <p>The whole file is mapped once; its pages are loaded by the operating system as they are touched and never copied
+ * into the heap, except for the lines actually decoded. Lines are located through a sparse index holding the start of
+ * every {@value #CHECKPOINT_STRIDE}th line, about eight bytes per thousand lines. {@link #buildIndex(AEGISTaskContext)}
+ * builds it in chunks of {@value #CHUNK_BYTES} bytes, scanned in parallel on the fork/join common pool eight bytes at a
+ * time. Chunks are published in file order as soon as every earlier chunk is done, so the lines at the start of the file
+ * can be read while the rest is still being indexed; {@link #lineCount()} grows accordingly.</p>
+ *
+ * <p>Lines are split at {@code \n}, a trailing {@code \r} is dropped and the bytes are decoded as UTF-8. Lines longer
+ * than {@value #MAX_LINE_BYTES} bytes are cut off. All methods may be called from any thread; after {@link #close()}
+ * the mapping is released and every method reading the file throws {@link IllegalStateException}.</p>
+ */
+public final class AEGISMappedTextFile implements AutoCloseable {
+
+    public static final int CHECKPOINT_STRIDE = 1024;
+    public static final String TRUNCATION_MARK = " [...]";
+
+    static final int MAX_LINE_BYTES = 64 * 1024;
+    private static final long CHUNK_BYTES = 64L * 1024 * 1024;
+    private static final long SEARCH_PROGRESS_BYTES = 16L * 1024 * 1024;
+    private static final ValueLayout.OfLong WORD = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long BYTES = 0x0101010101010101L;
+    private static final long NEWLINES = BYTES * '\n';
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private static final AEGISLatencyHistogram INDEX_LATENCY = AEGISMetrics.histogram("files.index");
+
+    private final Path path;
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long size;
+    private final long chunkBytes;
+    private final int chunkCount;
+
+    private final ChunkIndex[] chunks;
+    private final long[] firstNewline;
+    private final ChunkIndex[] pending;
+    private volatile int indexedChunks;
+    private volatile long indexBytes;
+    private volatile boolean closed;
+
+    private final Object cursorLock = new Object();
+    private long cursorLine = -1;
+    private long cursorOffset;
+
+    /**
+     * The newlines of one chunk.
+     *
+     * @param newlines    the number of newlines in the chunk
+     * @param checkpoints the start of the line following every {@value #CHECKPOINT_STRIDE}th newline of the chunk,
+     *                    beginning with its first
+     */
+    private record ChunkIndex(long newlines, long[] checkpoints) {}
+
+    private AEGISMappedTextFile(Path path, Arena arena, MemorySegment segment, long chunkBytes) {
+        this.path = path;
+        this.arena = arena;
+        this.segment = segment;
+        this.size = segment.byteSize();
+        this.chunkBytes = chunkBytes;
+        this.chunkCount = (int) ((size + chunkBytes - 1) / chunkBytes);
+        this.chunks = new ChunkIndex[chunkCount];
+        this.firstNewline = new long[chunkCount];
+        this.pending = new ChunkIndex[chunkCount];
+    }
+
+    /**
+     * Maps a file. Mapping is cheap whatever the size of the file; call {@link #buildIndex(AEGISTaskContext)} before
+     * reading lines beyond the first.
+     *
+     * @param path the file to open
+     * @return the mapped file; close it to release the mapping
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static AEGISMappedTextFile open(Path path) throws IOException {
+        return open(path, CHUNK_BYTES);
+    }
+
+    /**
+     * Maps a file that is indexed in chunks of the given size, so tests can cross chunk boundaries with small files.
+     *
+     * @param path       the file to open
+     * @param chunkBytes the number of bytes indexed per chunk; at least 1
+     * @return the mapped file; close it to release the mapping
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static AEGISMappedTextFile open(Path path, long chunkBytes) throws IOException {
+        if(chunkBytes < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkBytes);
+        }
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Arena arena = Arena.ofShared();
+            try {
+                return new AEGISMappedTextFile(path, arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena), chunkBytes);
+            } catch (IOException | RuntimeException e) {
+                arena.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Provides the mapped file.
+     *
+     * @return the path the file was opened with
+     */
+    public Path path() { return path; }
+
+    /**
+     * Provides the size of the file when it was mapped.
+     *
+     * @return the size in bytes
+     */
+    public long size() { return size; }
+
+    /**
+     * Checks whether every chunk has been indexed.
+     *
+     * @return true once {@link #lineCount()} is final
+     */
+    public boolean isIndexComplete() { return indexedChunks == chunkCount; }
+
+    /**
+     * Estimates the heap used by the line index; the mapped file itself is not on the heap.
+     *
+     * @return the approximate size in bytes
+     */
+    public long retainedBytes() { return indexBytes + (long) chunkCount * 3 * Long.BYTES; }
+
+    /**
+     * Indexes the lines of the file, using up to the parallelism of the common pool. Progress is reported as the fraction
+     * of the file indexed from its start; every chunk published is readable at once. Does nothing if already indexed.
+     *
+     * @param context the task context, checked for cancellation between chunks
+     * @throws CancellationException if the task was cancelled or the file closed before indexing finished
+     */
+    public void buildIndex(AEGISTaskContext context) {
+        long start = System.nanoTime();
+        AtomicInteger nextChunk = new AtomicInteger(indexedChunks);
+        int workers = Math.min(Math.max(1, ForkJoinPool.getCommonPoolParallelism()), chunkCount);
+
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for(int i = 1; i < workers; i++) {
+            running.add(CompletableFuture.runAsync(() -> indexChunks(nextChunk, context)));
+        }
+        try {
+            indexChunks(nextChunk, context);
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException | IllegalStateException e) {
+            if(!closed) {
+                throw e;
+            }
+        }
+
+        if(!isIndexComplete()) {
+            context.throwIfCancelled();
+            throw new CancellationException("File was closed while indexing");
+        }
+        INDEX_LATENCY.recordSince(start);
+    }
+
+    /**
+     * Indexes chunks, claimed in file order, until none is left or the task is cancelled.
+     */
+    private void indexChunks(AtomicInteger nextChunk, AEGISTaskContext context) {
+        for(int chunk = nextChunk.getAndIncrement(); chunk < chunkCount; chunk = nextChunk.getAndIncrement()) {
+            if(closed || context.isCancelled()) {
+                return;
+            }
+            publish(chunk, indexChunk(chunk));
+            context.updateProgress((double) Math.min(size, indexedChunks * chunkBytes) / size, null);
+        }
+    }
+
+    private ChunkIndex indexChunk(int chunk) {
+        long start = chunk * chunkBytes;
+        long end = Math.min(size, start + chunkBytes);
+        long[] checkpoints = new long[16];
+        int checkpointCount = 0;
+        long newlines = 0;
+        for(long position = nextNewline(start, end); position < end; position = nextNewline(position + 1, end)) {
+            if(newlines % CHECKPOINT_STRIDE == 0) {
+                if(checkpointCount == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+                }
+                checkpoints[checkpointCount++] = position + 1;
+            }
+            newlines++;
+        }
+        return new ChunkIndex(newlines, Arrays.copyOf(checkpoints, checkpointCount));
+    }
+
+    /**
+     * Records an indexed chunk and publishes it together with every following chunk already indexed, once all earlier
+     * chunks are published. Readers see a published chunk through the volatile {@code indexedChunks}.
+     */
+    private void publish(int chunk, ChunkIndex index) {
+        synchronized(pending) {
+            pending[chunk] = index;
+            int published = indexedChunks;
+            long bytes = indexBytes;
+            while(published < chunkCount && pending[published] != null) {
+                ChunkIndex ready = pending[published];
+                pending[published] = null;
+                firstNewline[published] = published == 0 ? 0 : firstNewline[published - 1] + chunks[published - 1].newlines();
+                chunks[published] = ready;
+                bytes += (long) ready.checkpoints().length * Long.BYTES;
+                published++;
+            }
+            indexBytes = bytes;
+            indexedChunks = published;
+        }
+    }
+
+    /**
+     * Provides the number of lines that can be read. While indexing, this is every line starting in the indexed part of
+     * the file; the last of them may continue beyond it. An empty file has no lines, and a final newline does not start
+     * another line.
+     *
+     * @return the number of readable lines
+     */
+    public long lineCount() {
+        int published = indexedChunks;
+        long newlines = published == 0 ? 0 : firstNewline[published - 1] + chunks[published - 1].newlines();
+        if(published < chunkCount) {
+            return newlines + 1;
+        }
+        return size == 0 ? 0 : newlines + (segment.get(ValueLayout.JAVA_BYTE, size - 1) == '\n' ? 0 : 1);
+    }
+
+    /**
+     * Finds the byte offset a line starts at, scanning at most {@value #CHECKPOINT_STRIDE} lines from the closest
+     * checkpoint, or from the end of the line read last if that is closer.
+     *
+     * @param line the zero-based line number
+     * @return the offset of the first byte of the line
+     * @throws IndexOutOfBoundsException if the line is not below {@link #lineCount()}
+     */
+    public long lineStart(long line) {
+        if(line < 0 || line >= lineCount()) {
+            throw new IndexOutOfBoundsException("Line " + line + " is not indexed");
+        }
+        if(line == 0) {
+            return 0;
+        }
+
+        long newline = line - 1;
+        int chunk = chunkOf(newline);
+        long indexInChunk = newline - firstNewline[chunk];
+        long start = chunks[chunk].checkpoints()[(int) (indexInChunk / CHECKPOINT_STRIDE)];
+        long skip = indexInChunk % CHECKPOINT_STRIDE;
+        synchronized(cursorLock) {
+            if(cursorLine >= 0 && cursorLine <= line && line - cursorLine < skip) {
+                start = cursorOffset;
+                skip = line - cursorLine;
+            }
+        }
+        for(; skip > 0; skip--) {
+            start = nextNewline(start, size) + 1;
+        }
+        return start;
+    }
+
+    /**
+     * Finds the published chunk holding a newline: the last chunk whose first newline is not after it.
+     */
+    private int chunkOf(long newline) {
+        int low = 0;
+        int high = indexedChunks - 1;
+        while(low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if(firstNewline[middle] <= newline) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Decodes one line.
+     *
+     * @param line the zero-based line number
+     * @return the line without its line terminator; cut off and ending in {@value #TRUNCATION_MARK} if longer than
+     * {@value #MAX_LINE_BYTES} bytes
+     * @throws IndexOutOfBoundsException if the line is not below {@link #lineCount()}
+     */
+    public String line(long line) {
+        long start = lineStart(line);
+        long limit = Math.min(size, start + MAX_LINE_BYTES);
+        long end = nextNewline(start, limit);
+        boolean truncated = end == limit && limit < size && segment.get(ValueLayout.JAVA_BYTE, limit) != '\n';
+        if(!truncated && end < size) {
+            synchronized(cursorLock) {
+                cursorLine = line + 1;
+                cursorOffset = end + 1;
+            }
+        }
+
+        long textEnd = end;
+        if(textEnd > start && segment.get(ValueLayout.JAVA_BYTE, textEnd - 1) == '\r') {
+            textEnd--;
+        }
+        String text = new String(segment.asSlice(start, textEnd - start).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+        return truncated ? text + TRUNCATION_MARK : text;
+    }
+
+    /**
+     * Finds the first line at or after {@code fromLine} containing a text, ignoring the case of ASCII letters. Lines are
+     * counted while scanning, so the line found may lie beyond the indexed part of the file.
+     *
+     * @param text     the text to find; must not be empty or contain a line break
+     * @param fromLine the zero-based line to start at; must be below {@link #lineCount()}
+     * @param context  the task context, checked for cancellation and told the progress every 16 MB
+     * @return the zero-based number of the line containing the text; -1 if no later line contains it
+     * @throws CancellationException if the task was cancelled
+     */
+    public long findNext(String text, long fromLine, AEGISTaskContext context) {
+        byte[] needle = text.getBytes(StandardCharsets.UTF_8);
+        if(needle.length == 0) {
+            throw new IllegalArgumentException("Search text is empty");
+        }
+        for(int i = 0; i < needle.length; i++) {
+            needle[i] = lowerCaseAscii(needle[i]);
+        }
+
+        long line = fromLine;
+        long start = lineStart(fromLine);
+        long last = size - needle.length;
+        byte first = needle[0];
+        long firstBytes = BYTES * (first & 0xFF);
+        long firstUpperBytes = first >= 'a' && first <= 'z' ? BYTES * (first - ('a' - 'A')) : firstBytes;
+        long nextCheck = start;
+
+        long position = start;
+        for(; position + Long.BYTES <= size; position += Long.BYTES) {
+            if(position >= nextCheck) {
+                context.throwIfCancelled();
+                context.updateProgress((double) (position - start) / (size - start), "line " + (line + 1));
+                nextCheck = position + SEARCH_PROGRESS_BYTES;
+            }
+            long word = segment.get(WORD, position);
+            if((zeroBytes(word ^ firstBytes) | zeroBytes(word ^ firstUpperBytes)) == 0) {
+                line += Long.bitCount(zeroBytes(word ^ NEWLINES));
+                continue;
+            }
+            for(long candidate = position; candidate < position + Long.BYTES; candidate++) {
+                byte b = segment.get(ValueLayout.JAVA_BYTE, candidate);
+                if(b == '\n') {
+                    line++;
+                } else if(candidate <= last && lowerCaseAscii(b) == first && regionMatches(candidate, needle)) {
+                    return line;
+                }
+            }
+        }
+        for(; position <= last; position++) {
+            byte b = segment.get(ValueLayout.JAVA_BYTE, position);
+            if(b == '\n') {
+                line++;
+            } else if(lowerCaseAscii(b) == first && regionMatches(position, needle)) {
+                return line;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionMatches(long position, byte[] needle) {
+        for(int i = 1; i < needle.length; i++) {
+            if(lowerCaseAscii(segment.get(ValueLayout.JAVA_BYTE, position + i)) != needle[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the next newline in {@code [from, limit)}, eight bytes at a time.
+     *
+     * @return the position of the newline; {@code limit} if there is none
+     */
+    private long nextNewline(long from, long limit) {
+        long position = from;
+        for(; position + Long.BYTES <= limit; position += Long.BYTES) {
+            long newlines = zeroBytes(segment.get(WORD, position) ^ NEWLINES);
+            if(newlines != 0) {
+                return position + (Long.numberOfTrailingZeros(newlines) >>> 3);
+            }
+        }
+        for(; position < limit; position++) {
+            if(segment.get(ValueLayout.JAVA_BYTE, position) == '\n') {
+                return position;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Sets the high bit of every zero byte of a word and clears all other bits. Unlike the shorter
+     * {@code (x - 0x01..) & ~x & 0x80..}, no borrow carries into neighbouring bytes, so every set bit is exact. XOR-ing a
+     * word with eight copies of a byte first finds that byte.
+     */
+    private static long zeroBytes(long word) {
+        return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+    }
+
+    private static byte lowerCaseAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Releases the mapping. Indexing and searches still running stop with a {@link CancellationException}. Safe to call
+     * more than once.
+     */
+    @Override
+    public void close() {
+        synchronized(pending) {
+            if(closed) {
+                return;
+            }
+            closed = true;
+        }
+        arena.close();
+    }
+}
@@ -0,0 +1,169 @@
+package atlanteshellsing.aegis.gui;
+
+import atlanteshellsing.aegis.annotations.AEGISTool;
+import atlanteshellsing.aegis.components.gui.AEGISTabLifecycle;
+import atlanteshellsing.aegis.metrics.AEGISCounter;
+import atlanteshellsing.aegis.metrics.AEGISGauge;
+import atlanteshellsing.aegis.metrics.AEGISLatencyHistogram;
+import atlanteshellsing.aegis.metrics.AEGISMetric;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.GridPane;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Live view of every metric in {@link AEGISMetrics}, one row per metric.
+ *
+ * <p>Values are polled from an {@link AnimationTimer} that only runs while the view is attached to a scene and its tab is
+ * selected, at most every {@value #REFRESH_INTERVAL_NANOS} ns. Rows are rebuilt only when new metrics have been
+ * registered, and a label's text is only replaced when the value it shows has changed, so an idle refresh neither
+ * allocates nor triggers layout.</p>
+ */
+@AEGISTool(id = "diagnostics", title = "Diagnostics", menu = "View", order = 10)
+public class AEGISDiagnosticsView extends ScrollPane implements AEGISTabLifecycle {
+
+    private static final long REFRESH_INTERVAL_NANOS = 500_000_000L;
+    private static final double[] PERCENTILES = {50, 99};
+
+    private final GridPane grid = new GridPane();
+    private final List<MetricRow> rows = new ArrayList<>();
+    private int knownRegistrations = -1;
+    private boolean hidden;
+
+    private final AnimationTimer refreshTimer = new AnimationTimer() {
+        private long lastRefresh;
+
+        @Override
+        public void handle(long now) {
+            if(now - lastRefresh >= REFRESH_INTERVAL_NANOS) {
+                lastRefresh = now;
+                refresh();
+            }
+        }
+    };
+
+    /**
+     * Creates the diagnostics view. Polling starts when the view is shown in a scene and stops when it is removed or its
+     * tab is hidden.
+     */
+    public AEGISDiagnosticsView() {
+        grid.setHgap(24);
+        grid.setVgap(4);
+        grid.setPadding(new Insets(12));
+        setContent(grid);
+        setFitToWidth(true);
+
+        sceneProperty().addListener((observable, previous, scene) -> updatePolling());
+    }
+
+    @Override
+    public void activated() {
+        hidden = false;
+        updatePolling();
+    }
+
+    @Override
+    public void deactivated() {
+        hidden = true;
+        updatePolling();
+    }
+
+    @Override
+    public void disposed() {
+        hidden = true;
+        refreshTimer.stop();
+    }
+
+    /**
+     * Runs the refresh timer while the view is in a scene and not hidden, refreshing at once when it starts.
+     */
+    private void updatePolling() {
+        if(getScene() != null && !hidden) {
+            refresh();
+            refreshTimer.start();
+        } else {
+            refreshTimer.stop();
+        }
+    }
+
+    /**
+     * Updates every row, rebuilding the grid first if metrics were registered since the last refresh.
+     */
+    private void refresh() {
+        int registrations = AEGISMetrics.registrationCount();
+        if(registrations != knownRegistrations) {
+            knownRegistrations = registrations;
+            rebuildRows();
+        }
+        for(MetricRow row : rows) {
+            row.update();
+        }
+    }
+
+    private void rebuildRows() {
+        rows.clear();
+        grid.getChildren().clear();
+
+        int rowIndex = 0;
+        for(AEGISMetric metric : AEGISMetrics.all()) {
+            MetricRow row = new MetricRow(metric);
+            rows.add(row);
+            grid.addRow(rowIndex++, new Label(metric.name()), row.valueLabel);
+        }
+    }
+
+    /**
+     * One metric and the label showing it. Remembers the sampled values last rendered, so unchanged values are not re-rendered.
+     */
+    private static final class MetricRow {
+
+        private final AEGISMetric metric;
+        private final Label valueLabel = new Label();
+        private long lastValue = Long.MIN_VALUE;
+        private long lastCount = -1;
+
+        private MetricRow(AEGISMetric metric) {
+            this.metric = metric;
+        }
+
+        private void update() {
+            switch(metric) {
+                case AEGISCounter counter -> updateValue(counter.get());
+                case AEGISGauge gauge -> updateValue(gauge.get());
+                case AEGISLatencyHistogram histogram -> updateHistogram(histogram);
+            }
+        }
+
+        private void updateValue(long value) {
+            if(value != lastValue) {
+                lastValue = value;
+                valueLabel.setText(Long.toString(value));
+            }
+        }
+
+        private void updateHistogram(AEGISLatencyHistogram histogram) {
+            long count = histogram.count();
+            if(count == lastCount) {
+                return;
+            }
+            lastCount = count;
+
+            StringBuilder text = new StringBuilder(96);
+            text.append("n=").append(count).append("  mean=").append(formatMillis(histogram.meanNanos()));
+            for(double percentile : PERCENTILES) {
+                text.append("  p").append((int) percentile).append('=').append(formatMillis(histogram.percentileNanos(percentile)));
+            }
+            text.append("  max=").append(formatMillis(histogram.maxNanos()));
+            valueLabel.setText(text.toString());
+        }
+
+        private static String formatMillis(long nanos) {
+            return String.format("%.2f ms", nanos / 1_000_000.0);
+        }
+    }
+}
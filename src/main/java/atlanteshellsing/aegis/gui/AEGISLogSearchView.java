@@ -0,0 +1,211 @@
+package atlanteshellsing.aegis.gui;
+
+import atlanteshellsing.aegis.annotations.AEGISTool;
+import atlanteshellsing.aegis.components.gui.AEGISTabLifecycle;
+import atlanteshellsing.aegis.components.gui.AEGISTabPane;
+import atlanteshellsing.aegis.logging.AEGISLogMatch;
+import atlanteshellsing.aegis.logging.AEGISLogQuery;
+import atlanteshellsing.aegis.logging.AEGISLogSearch;
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.structure.AEGISConfigurationManager;
+import atlanteshellsing.aegis.tasks.AEGISTaskHandle;
+import atlanteshellsing.aegis.tasks.AEGISTaskObserver;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Searches the log files in {@link AEGISConfigurationManager#logsDir} by time range, source, minimum level and text.
+ *
+ * <p>The search runs as a task of the tab, so closing the tab cancels it. At most {@value #MAX_RESULTS} matches are
+ * shown, in a virtualized list; selecting a match shows the complete record including its stack trace. The text of the
+ * shown matches is reported as the retained size of the tab.</p>
+ */
+@AEGISTool(id = "log-search", title = "Search Logs", menu = "View", order = 30)
+public class AEGISLogSearchView extends BorderPane implements AEGISTabLifecycle {
+
+    private static final int MAX_RESULTS = 100_000;
+    private static final double CELL_HEIGHT = 22;
+    private static final String ALL_SOURCES = "All Sources";
+
+    private final TextField fromField = new TextField();
+    private final TextField toField = new TextField();
+    private final ChoiceBox<String> sourceChoice = new ChoiceBox<>();
+    private final ChoiceBox<AEGISLogger.AEGISLogLevel> levelChoice = new ChoiceBox<>();
+    private final TextField textField = new TextField();
+    private final Button searchButton = new Button("Search");
+    private final Label statusLabel = new Label();
+    private final ListView<AEGISLogMatch> resultList = new ListView<>();
+    private final TextArea detailArea = new TextArea();
+
+    private AEGISTaskHandle<List<AEGISLogMatch>> running;
+    private volatile long resultBytes;
+
+    /**
+     * Creates the search view.
+     */
+    public AEGISLogSearchView() {
+        fromField.setPromptText("From (yyyy-MM-dd [HH:mm:ss])");
+        toField.setPromptText("To (yyyy-MM-dd [HH:mm:ss])");
+        sourceChoice.getItems().add(ALL_SOURCES);
+        for(AEGISLogger.AEGISLogKey key : AEGISLogger.AEGISLogKey.values()) {
+            sourceChoice.getItems().add(key.name());
+        }
+        sourceChoice.setValue(ALL_SOURCES);
+        levelChoice.getItems().setAll(AEGISLogger.AEGISLogLevel.values());
+        levelChoice.setValue(AEGISLogger.AEGISLogLevel.FINE);
+        textField.setPromptText("Text");
+        searchButton.setDefaultButton(true);
+        searchButton.setOnAction(action -> {
+            if(running != null) {
+                running.cancel();
+            } else {
+                search();
+            }
+        });
+
+        HBox toolbar = new HBox(8, fromField, toField, sourceChoice, levelChoice, textField, searchButton, statusLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(6));
+        HBox.setHgrow(textField, Priority.ALWAYS);
+
+        resultList.setFixedCellSize(CELL_HEIGHT);
+        resultList.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(AEGISLogMatch match, boolean empty) {
+                super.updateItem(match, empty);
+                setText(empty || match == null ? null : match.firstLine());
+            }
+        });
+        resultList.getSelectionModel().selectedItemProperty().addListener((observable, previous, match) ->
+                detailArea.setText(match == null ? "" : match.segment().getFileName() + " @ " + match.offset() + "\n\n" + match.text()));
+        detailArea.setEditable(false);
+
+        SplitPane splitPane = new SplitPane(resultList, detailArea);
+        splitPane.setOrientation(Orientation.VERTICAL);
+        splitPane.setDividerPositions(0.7);
+
+        setTop(toolbar);
+        setCenter(splitPane);
+    }
+
+    /**
+     * Starts a search with the criteria from the toolbar, replacing the current results once it completes.
+     */
+    private void search() {
+        if(running != null) {
+            return;
+        }
+
+        AEGISLogQuery query;
+        try {
+            String source = sourceChoice.getValue();
+            AEGISLogger.AEGISLogKey key = ALL_SOURCES.equals(source) ? null : AEGISLogger.AEGISLogKey.valueOf(source);
+            query = new AEGISLogQuery(AEGISLogQuery.parseBound(fromField.getText(), false), AEGISLogQuery.parseBound(toField.getText(), true),
+                    key, levelChoice.getValue(), textField.getText());
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            statusLabel.setText(e.getMessage());
+            return;
+        }
+
+        AEGISTabPane tabPane = AEGISTabPane.find(this);
+        if(tabPane == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean truncated = new AtomicBoolean();
+        running = tabPane.submitTask(this, "log search", context -> {
+            List<AEGISLogMatch> matches = new ArrayList<>();
+            try(Stream<AEGISLogMatch> results = AEGISLogSearch.search(AEGISConfigurationManager.logsDir, query)) {
+                results.limit(MAX_RESULTS + 1L).forEachOrdered(match -> {
+                    context.throwIfCancelled();
+                    matches.add(match);
+                    if(matches.size() % 1000 == 0) {
+                        context.updateProgress(-1, matches.size() + " matches");
+                    }
+                });
+            }
+            if(matches.size() > MAX_RESULTS) {
+                truncated.set(true);
+                matches.remove(MAX_RESULTS);
+            }
+            return matches;
+        }, new AEGISTaskObserver<>() {
+            @Override
+            public void progress(double fraction, String message) {
+                statusLabel.setText("Searching... " + message);
+            }
+
+            @Override
+            public void succeeded(List<AEGISLogMatch> matches) {
+                finish(matches.size() + (truncated.get() ? "+" : "") + " matches in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                resultList.getItems().setAll(matches);
+                resultBytes = estimateBytes(matches);
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                finish("Search failed: " + error.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                finish("Search cancelled");
+            }
+        });
+        searchButton.setText("Cancel");
+        statusLabel.setText("Searching...");
+    }
+
+    /**
+     * Cancels a running search and drops the results.
+     */
+    @Override
+    public void disposed() {
+        if(running != null) {
+            running.cancel();
+        }
+        resultList.getItems().clear();
+        detailArea.clear();
+        resultBytes = 0;
+    }
+
+    @Override
+    public long retainedBytes() { return resultBytes; }
+
+    /**
+     * Estimates the memory of the matches, dominated by their text: one byte per character for Latin-1 strings, plus the
+     * list reference.
+     */
+    private static long estimateBytes(List<AEGISLogMatch> matches) {
+        long bytes = 0;
+        for(AEGISLogMatch match : matches) {
+            bytes += match.text().length() + Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    private void finish(String status) {
+        running = null;
+        searchButton.setText("Search");
+        statusLabel.setText(status);
+    }
+}
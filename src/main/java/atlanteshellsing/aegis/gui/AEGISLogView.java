@@ -0,0 +1,351 @@
+package atlanteshellsing.aegis.gui;
+
+import atlanteshellsing.aegis.annotations.AEGISTool;
+import atlanteshellsing.aegis.components.gui.AEGISTabLifecycle;
+import atlanteshellsing.aegis.logging.AEGISLogBuffer;
+import atlanteshellsing.aegis.logging.AEGISLogEntry;
+import atlanteshellsing.aegis.logging.AEGISLogFilter;
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import javafx.animation.AnimationTimer;
+import javafx.collections.ObservableListBase;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Live view of the records kept in the {@link AEGISLogBuffer}, filterable by source, minimum level and text.
+ *
+ * <p>The records are shown in a virtualized {@link ListView} with a fixed cell height, so only the visible rows are
+ * laid out however many records match. New records are pulled from the buffer once per pulse, at most
+ * {@value #PULSE_BUDGET} per pulse, and appended to the list in a single change.</p>
+ *
+ * <p>Filtering is incremental: if the new filter only narrows the previous one (a longer search text, a higher level,
+ * a single source), only the current matches are checked again. Otherwise the buffer is scanned from its oldest record,
+ * again spread over pulses, so typing in the filter field never stalls the FX thread.</p>
+ *
+ * <p>Pulling pauses while the view's tab is hidden and resumes where it stopped once the tab is selected again.</p>
+ */
+@AEGISTool(id = "logs", title = "Logs", menu = "View", order = 20)
+public class AEGISLogView extends BorderPane implements AEGISTabLifecycle {
+
+    private static final int PULSE_BUDGET = 65_536;
+    private static final double CELL_HEIGHT = 22;
+    private static final String ALL_SOURCES = "All Sources";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final List<String> LEVEL_STYLE_CLASSES = Arrays.stream(AEGISLogger.AEGISLogLevel.values()).map(AEGISLogView::styleClass).toList();
+
+    private final AEGISLogBuffer buffer = AEGISLogger.getBuffer();
+    private final ListView<AEGISLogEntry> listView = new ListView<>();
+    private final ChoiceBox<String> sourceChoice = new ChoiceBox<>();
+    private final ChoiceBox<AEGISLogger.AEGISLogLevel> levelChoice = new ChoiceBox<>();
+    private final TextField textField = new TextField();
+    private final ToggleButton followButton = new ToggleButton("Follow");
+    private final Label statusLabel = new Label();
+
+    private final AEGISLogEntry[] readBatch = new AEGISLogEntry[PULSE_BUDGET];
+    private final AEGISLogEntry[] matchBatch = new AEGISLogEntry[PULSE_BUDGET];
+
+    private AEGISLogFilter filter = AEGISLogFilter.ALL;
+    private MatchList matches = new MatchList(buffer.capacity());
+    private long cursor;
+    private AEGISLogEntry[] refineSource;
+    private int refinePosition;
+    private int refineLength;
+    private long shownMatches = -1;
+    private long shownRetained = -1;
+    private boolean hidden;
+
+    private final AnimationTimer pulseTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pull();
+        }
+    };
+
+    /**
+     * Creates the log view. Records are pulled while the view is shown in a scene and its tab is selected; records logged
+     * in between are caught up the next time it is shown, as long as the buffer still holds them.
+     */
+    public AEGISLogView() {
+        getStyleClass().add("aegis-log-view");
+
+        sourceChoice.getItems().add(ALL_SOURCES);
+        for(AEGISLogger.AEGISLogKey key : AEGISLogger.AEGISLogKey.values()) {
+            sourceChoice.getItems().add(key.name());
+        }
+        sourceChoice.setValue(ALL_SOURCES);
+        levelChoice.getItems().setAll(AEGISLogger.AEGISLogLevel.values());
+        levelChoice.setValue(AEGISLogger.AEGISLogLevel.FINE);
+        textField.setPromptText("Filter");
+        followButton.setSelected(true);
+
+        sourceChoice.valueProperty().addListener((observable, previous, value) -> updateFilter());
+        levelChoice.valueProperty().addListener((observable, previous, value) -> updateFilter());
+        textField.textProperty().addListener((observable, previous, value) -> updateFilter());
+        followButton.selectedProperty().addListener((observable, previous, follow) -> {
+            if(follow) {
+                scrollToEnd();
+            }
+        });
+
+        HBox toolbar = new HBox(8, sourceChoice, levelChoice, textField, followButton, statusLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(6));
+        HBox.setHgrow(textField, Priority.ALWAYS);
+
+        listView.setFixedCellSize(CELL_HEIGHT);
+        listView.setCellFactory(view -> new LogCell());
+        listView.setItems(matches);
+
+        setTop(toolbar);
+        setCenter(listView);
+
+        sceneProperty().addListener((observable, previous, scene) -> updatePulling());
+    }
+
+    @Override
+    public void activated() {
+        hidden = false;
+        updatePulling();
+    }
+
+    @Override
+    public void deactivated() {
+        hidden = true;
+        updatePulling();
+    }
+
+    /**
+     * Stops pulling for good and drops the matches, which otherwise hold on to records the buffer already forgot.
+     */
+    @Override
+    public void disposed() {
+        hidden = true;
+        pulseTimer.stop();
+        refineSource = null;
+        matches = new MatchList(buffer.capacity());
+        listView.setItems(matches);
+    }
+
+    /**
+     * Estimates the references held by the matches and an unfinished refinement; the records themselves are shared with
+     * the buffer.
+     */
+    @Override
+    public long retainedBytes() {
+        AEGISLogEntry[] pending = refineSource;
+        return (long) Integer.BYTES * (matches.capacity() + (pending == null ? 0 : pending.length) + readBatch.length + matchBatch.length);
+    }
+
+    /**
+     * Runs the pulse timer while the view is in a scene and not hidden, catching up with the buffer when it starts.
+     */
+    private void updatePulling() {
+        if(getScene() != null && !hidden) {
+            pull();
+            pulseTimer.start();
+        } else {
+            pulseTimer.stop();
+        }
+    }
+
+    /**
+     * Applies the filter described by the toolbar. A narrowing filter refines the current matches; any other filter
+     * rescans the buffer from its oldest record.
+     */
+    private void updateFilter() {
+        String source = sourceChoice.getValue();
+        AEGISLogFilter next = new AEGISLogFilter(ALL_SOURCES.equals(source) ? null : AEGISLogger.AEGISLogKey.valueOf(source),
+                levelChoice.getValue(), textField.getText());
+        if(next.equals(filter)) {
+            return;
+        }
+
+        if(next.isNarrowingOf(filter)) {
+            refineSource = pendingMatches();
+            refineLength = refineSource.length;
+        } else {
+            refineSource = null;
+            cursor = 0;
+        }
+        refinePosition = 0;
+        filter = next;
+
+        matches = new MatchList(buffer.capacity());
+        listView.setItems(matches);
+        pull();
+    }
+
+    /**
+     * Collects every entry that is a match under the current filter, including the part of an unfinished refinement
+     * that has not been checked yet.
+     */
+    private AEGISLogEntry[] pendingMatches() {
+        AEGISLogEntry[] current = matches.snapshot();
+        if(refineSource == null || refinePosition >= refineLength) {
+            return current;
+        }
+        AEGISLogEntry[] pending = Arrays.copyOf(current, current.length + refineLength - refinePosition);
+        System.arraycopy(refineSource, refinePosition, pending, current.length, refineLength - refinePosition);
+        return pending;
+    }
+
+    /**
+     * Checks at most {@value #PULSE_BUDGET} entries, first those of an unfinished refinement and then new records from
+     * the buffer, and appends the matches to the list in one change.
+     */
+    private void pull() {
+        int matched = 0;
+        if(refineSource != null) {
+            int end = Math.min(refineLength, refinePosition + PULSE_BUDGET);
+            for(int i = refinePosition; i < end; i++) {
+                if(filter.matches(refineSource[i])) {
+                    matchBatch[matched++] = refineSource[i];
+                }
+            }
+            refinePosition = end;
+            if(refinePosition == refineLength) {
+                refineSource = null;
+            }
+        } else {
+            int read = buffer.read(cursor, readBatch);
+            for(int i = 0; i < read; i++) {
+                if(filter.matches(readBatch[i])) {
+                    matchBatch[matched++] = readBatch[i];
+                }
+            }
+            if(read > 0) {
+                cursor = readBatch[read - 1].sequence() + 1;
+                Arrays.fill(readBatch, 0, read, null);
+            }
+        }
+
+        if(matched > 0) {
+            matches.append(matchBatch, matched);
+            Arrays.fill(matchBatch, 0, matched, null);
+            if(followButton.isSelected()) {
+                scrollToEnd();
+            }
+        }
+        updateStatus();
+    }
+
+    private void scrollToEnd() {
+        if(!matches.isEmpty()) {
+            listView.scrollTo(matches.size() - 1);
+        }
+    }
+
+    private void updateStatus() {
+        long retained = buffer.nextSequence() - buffer.firstSequence();
+        if(matches.size() != shownMatches || retained != shownRetained) {
+            shownMatches = matches.size();
+            shownRetained = retained;
+            statusLabel.setText(shownMatches + " of " + retained + " entries");
+        }
+    }
+
+    private static String styleClass(AEGISLogger.AEGISLogLevel level) {
+        return "log-" + level.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The entries matching the current filter. Only appends and drops from the front, each reported as a single change;
+     * once the buffer's capacity is reached, the oldest quarter is dropped, matching what the buffer itself forgets.
+     */
+    private static final class MatchList extends ObservableListBase<AEGISLogEntry> {
+
+        private final int maxSize;
+        private AEGISLogEntry[] entries = new AEGISLogEntry[1024];
+        private int size;
+
+        private MatchList(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        private void append(AEGISLogEntry[] batch, int count) {
+            if(size + count > maxSize) {
+                dropOldest(Math.max(size + count - maxSize, maxSize / 4));
+            }
+            if(size + count > entries.length) {
+                entries = Arrays.copyOf(entries, Math.min(maxSize, Math.max(size + count, entries.length * 2)));
+            }
+            System.arraycopy(batch, 0, entries, size, count);
+
+            beginChange();
+            nextAdd(size, size + count);
+            size += count;
+            endChange();
+        }
+
+        private void dropOldest(int count) {
+            int dropped = Math.min(count, size);
+            List<AEGISLogEntry> removed = List.of(Arrays.copyOf(entries, dropped));
+            System.arraycopy(entries, dropped, entries, 0, size - dropped);
+            Arrays.fill(entries, size - dropped, size, null);
+
+            beginChange();
+            nextRemove(0, removed);
+            size -= dropped;
+            endChange();
+        }
+
+        private AEGISLogEntry[] snapshot() { return Arrays.copyOf(entries, size); }
+
+        private int capacity() { return entries.length; }
+
+        @Override
+        public AEGISLogEntry get(int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return entries[index];
+        }
+
+        @Override
+        public int size() { return size; }
+    }
+
+    /**
+     * Renders one entry as a single line, colored by level through the {@code log-<level>} style class.
+     */
+    private static final class LogCell extends ListCell<AEGISLogEntry> {
+
+        @Override
+        protected void updateItem(AEGISLogEntry entry, boolean empty) {
+            super.updateItem(entry, empty);
+            getStyleClass().removeAll(LEVEL_STYLE_CLASSES);
+
+            if(empty || entry == null) {
+                setText(null);
+                return;
+            }
+
+            StringBuilder text = new StringBuilder(128)
+                    .append(TIME_FORMAT.format(Instant.ofEpochMilli(entry.timestampMillis())))
+                    .append(" [").append(entry.key().name()).append("] [")
+                    .append(entry.level().name()).append("] ")
+                    .append(entry.message());
+            if(entry.thrown() != null) {
+                text.append("  (").append(entry.thrown()).append(')');
+            }
+            setText(text.toString());
+            getStyleClass().add(styleClass(entry.level()));
+        }
+    }
+}
@@ -1,26 +1,45 @@
 package atlanteshellsing.aegis.gui;
 
 import atlanteshellsing.aegis.components.gui.AEGISTabPane;
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISFlightRecorder;
+import atlanteshellsing.aegis.structure.AEGISConfigurationManager;
+import atlanteshellsing.aegis.tasks.AEGISTaskObserver;
+import atlanteshellsing.aegis.tasks.AEGISTaskScheduler;
+import atlanteshellsing.aegis.theme.AEGISTheme;
 import atlanteshellsing.aegis.theme.AEGISThemeManager;
+import atlanteshellsing.aegis.theme.AEGISThemeRegistry;
+import atlanteshellsing.aegis.tools.AEGISToolDescriptor;
+import atlanteshellsing.aegis.tools.AEGISToolIndex;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.RadioMenuItem;
+import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.ToggleGroup;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.nio.file.Path;
 
 public class AEGISMainGui {
 
     private final BorderPane pane;
     private final MenuBar menuBar;
     private final AEGISTabPane tabPane;
+    private final AEGISTaskScheduler taskScheduler = new AEGISTaskScheduler(Platform::runLater);
 
     public AEGISMainGui() {
         pane = new BorderPane();
         menuBar = new MenuBar();
-        tabPane = new AEGISTabPane();
+        tabPane = new AEGISTabPane(taskScheduler);
 
         initMenuBar();
 
@@ -31,25 +50,125 @@ public class AEGISMainGui {
 
     private void initMenuBar() {
         Menu fileMenu = new Menu("File");
+        MenuItem open = new MenuItem("Open");
+        open.setAccelerator(KeyCombination.keyCombination("Shortcut+O"));
+        open.setOnAction(action -> openFile());
         fileMenu.getItems().addAll(
                 new MenuItem("New"),
-                new MenuItem("Open"),
+                open,
                 new MenuItem("Exit")
         );
 
         Menu viewMenu = new Menu("View");
         MenuItem toggleTheme = new MenuItem("Toggle Theme");
         toggleTheme.setOnAction(action -> AEGISThemeManager.toggleTheme(pane.getScene()));
-        viewMenu.getItems().add(toggleTheme);
+        Menu themeMenu = new Menu("Theme");
+        themeMenu.getItems().add(new MenuItem("Loading..."));
+        themeMenu.setOnShowing(event -> populateThemeMenu(themeMenu));
+        MenuItem switchTab = new MenuItem("Switch Tab...");
+        switchTab.setAccelerator(KeyCombination.keyCombination("Shortcut+E"));
+        switchTab.setOnAction(action -> tabPane.showQuickSwitcher());
+        viewMenu.getItems().addAll(toggleTheme, themeMenu, new SeparatorMenuItem(), switchTab);
 
         Menu helpMenu = new Menu("Help");
-        helpMenu.getItems().add(new MenuItem("About"));
+        MenuItem flightRecording = new MenuItem("Start Flight Recording");
+        flightRecording.setOnAction(action -> startOrDumpFlightRecording(flightRecording));
+        helpMenu.getItems().addAll(new MenuItem("About"), new SeparatorMenuItem(), flightRecording);
 
         menuBar.getMenus().addAll(fileMenu, helpMenu, viewMenu);
+        addToolMenuItems();
 
         initHeader();
     }
 
+    /**
+     * Asks for a file and shows it in a viewer tab keyed by its absolute path, so opening the same file again selects the
+     * existing tab. The viewer maps the file instead of reading it, so files of several gigabytes open at once.
+     */
+    private void openFile() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open File");
+        File chosen = chooser.showOpenDialog(pane.getScene().getWindow());
+        if(chosen == null) {
+            return;
+        }
+
+        Path path = chosen.toPath().toAbsolutePath();
+        String key = "file:" + path;
+        tabPane.addTab(key, path.getFileName().toString(), () -> AEGISTextFileView.open(path));
+        tabPane.selectTab(key);
+    }
+
+    /**
+     * Starts the flight recording on first use and dumps everything recorded so far into the "Recordings" app-data
+     * directory on every later use. Both run off the FX thread; failures are logged by the task scheduler.
+     *
+     * @param item the menu item, relabeled once the recording runs
+     */
+    private void startOrDumpFlightRecording(MenuItem item) {
+        taskScheduler.submit(AEGISMainGui.class, "flight recording", context -> {
+            if(!AEGISFlightRecorder.isRecording()) {
+                AEGISFlightRecorder.start();
+                return null;
+            }
+            return AEGISFlightRecorder.dump(AEGISConfigurationManager.recordingsDir);
+        }, new AEGISTaskObserver<Path>() {
+            @Override
+            public void succeeded(Path file) {
+                item.setText("Dump Flight Recording");
+                if(file == null) {
+                    AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Flight recording started");
+                } else {
+                    AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Flight recording dumped to {}", file);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds one menu item per tool in the generated {@link AEGISToolIndex}, creating menus that do not exist yet. Only the
+     * index is loaded here; a tool class is loaded when its tab is first shown.
+     */
+    private void addToolMenuItems() {
+        for(AEGISToolDescriptor tool : AEGISToolIndex.tools()) {
+            MenuItem item = new MenuItem(tool.title());
+            item.setOnAction(action -> {
+                tabPane.addTab(tool.id(), tool.title(), tool.factory());
+                tabPane.selectTab(tool.id());
+            });
+            findOrCreateMenu(tool.menu()).getItems().add(item);
+        }
+    }
+
+    private Menu findOrCreateMenu(String name) {
+        for(Menu menu : menuBar.getMenus()) {
+            if(menu.getText().equals(name)) {
+                return menu;
+            }
+        }
+        Menu menu = new Menu(name);
+        menuBar.getMenus().add(menu);
+        return menu;
+    }
+
+    /**
+     * Fills the theme menu with one entry per registered theme, selecting the active one. Rebuilt each time the menu
+     * opens, so themes discovered later appear without restarting.
+     *
+     * @param themeMenu the menu to fill
+     */
+    private void populateThemeMenu(Menu themeMenu) {
+        ToggleGroup group = new ToggleGroup();
+        themeMenu.getItems().clear();
+        for(AEGISTheme theme : AEGISThemeRegistry.getThemes()) {
+            RadioMenuItem item = new RadioMenuItem(theme.name());
+            item.setToggleGroup(group);
+            item.setSelected(theme.name().equals(AEGISThemeManager.getCurrentTheme()));
+            item.setOnAction(action -> AEGISThemeManager.applyTheme(pane.getScene(), theme.name()));
+            themeMenu.getItems().add(item);
+        }
+    }
+
     private void initHeader() {
         Label titleLabel = new Label("AEGIS - Alpha");
         titleLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
@@ -76,4 +195,11 @@ public class AEGISMainGui {
     }
 
     public AEGISTabPane getMainTabPane() { return tabPane; }
+
+    /**
+     * Provides the scheduler running tool work off the FX thread; task updates are delivered on the FX thread.
+     *
+     * @return the application's task scheduler
+     */
+    public AEGISTaskScheduler getTaskScheduler() { return taskScheduler; }
 }
\ No newline at end of file
@@ -0,0 +1,284 @@
+package atlanteshellsing.aegis.gui;
+
+import atlanteshellsing.aegis.components.gui.AEGISTabLifecycle;
+import atlanteshellsing.aegis.components.gui.AEGISTabPane;
+import atlanteshellsing.aegis.files.AEGISMappedTextFile;
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.tasks.AEGISTaskHandle;
+import atlanteshellsing.aegis.tasks.AEGISTaskObserver;
+import javafx.collections.ObservableListBase;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Read-only view of a text file of any size, such as a log, dump or export.
+ *
+ * <p>The file is memory-mapped by {@link AEGISMappedTextFile} and its lines are indexed by a task of the tab once the tab
+ * is first shown. The list grows as the index does, so the start of the file can be read and scrolled right away. The
+ * list is virtualized with a fixed cell height and its items are just line numbers; only the visible lines are decoded,
+ * so the heap used does not depend on the size of the file. A line number can be jumped to, and text is searched from the
+ * line after the selected one in the background. Closing the tab cancels both and releases the mapping.</p>
+ */
+public class AEGISTextFileView extends BorderPane implements AEGISTabLifecycle {
+
+    private static final double CELL_HEIGHT = 22;
+    private static final int MAX_ITEMS = Integer.MAX_VALUE - 8;
+
+    private final AEGISMappedTextFile file;
+    private final LineList lines = new LineList();
+    private final ListView<Integer> listView = new ListView<>(lines);
+    private final TextField lineField = new TextField();
+    private final TextField searchField = new TextField();
+    private final Button searchButton = new Button("Find Next");
+    private final Label statusLabel = new Label();
+
+    private AEGISTaskHandle<Void> indexing;
+    private AEGISTaskHandle<Long> searching;
+
+    /**
+     * Creates the view of an opened file. The view owns the file and closes it when its tab is closed.
+     *
+     * @param file the mapped file
+     */
+    public AEGISTextFileView(AEGISMappedTextFile file) {
+        this.file = file;
+        getStyleClass().add("aegis-text-file-view");
+
+        lineField.setPromptText("Line");
+        lineField.setPrefColumnCount(10);
+        lineField.setOnAction(action -> jumpToLine());
+        searchField.setPromptText("Find");
+        searchField.setOnAction(action -> findNext());
+        searchButton.setOnAction(action -> {
+            if(searching != null) {
+                searching.cancel();
+            } else {
+                findNext();
+            }
+        });
+
+        HBox toolbar = new HBox(8, lineField, searchField, searchButton, statusLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(6));
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+
+        listView.setFixedCellSize(CELL_HEIGHT);
+        listView.setCellFactory(view -> new LineCell());
+
+        setTop(toolbar);
+        setCenter(listView);
+        updateLineCount();
+
+        sceneProperty().addListener((observable, previous, scene) -> startIndexing());
+    }
+
+    /**
+     * Opens a file in a new view. Mapping is cheap whatever the size of the file; indexing starts once the view is shown.
+     *
+     * @param path the file to open
+     * @return the view
+     * @throws UncheckedIOException if the file cannot be opened or mapped
+     */
+    public static AEGISTextFileView open(Path path) {
+        try {
+            return new AEGISTextFileView(AEGISMappedTextFile.open(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open " + path, e);
+        }
+    }
+
+    @Override
+    public void activated() {
+        startIndexing();
+    }
+
+    /**
+     * Stops indexing and searching, detaches the list so no cell reads the file anymore and releases the mapping.
+     */
+    @Override
+    public void disposed() {
+        if(indexing != null) {
+            indexing.cancel();
+        }
+        if(searching != null) {
+            searching.cancel();
+        }
+        listView.setItems(null);
+        file.close();
+    }
+
+    @Override
+    public long retainedBytes() { return file.retainedBytes(); }
+
+    /**
+     * Starts indexing the file as a task of the tab, once the view is shown by a tab pane. Does nothing afterwards.
+     */
+    private void startIndexing() {
+        AEGISTabPane tabPane = AEGISTabPane.find(this);
+        if(indexing != null || tabPane == null || file.isIndexComplete()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        indexing = tabPane.submitTask(this, "file index", context -> {
+            file.buildIndex(context);
+            return null;
+        }, new AEGISTaskObserver<>() {
+            @Override
+            public void progress(double fraction, String message) {
+                updateLineCount();
+                statusLabel.setText(String.format("Indexing... %.0f%%", fraction * 100));
+            }
+
+            @Override
+            public void succeeded(Void result) {
+                updateLineCount();
+                statusLabel.setText(file.lineCount() + " lines");
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Indexed {} ({} bytes, {} lines) in {} ms",
+                        file.path(), file.size(), file.lineCount(), (System.nanoTime() - start) / 1_000_000);
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                statusLabel.setText("Indexing failed: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Grows the list to the lines indexed so far.
+     */
+    private void updateLineCount() {
+        lines.grow((int) Math.min(MAX_ITEMS, file.lineCount()));
+    }
+
+    /**
+     * Scrolls to and selects the line typed into the line field, counted from 1.
+     */
+    private void jumpToLine() {
+        long line;
+        try {
+            line = Long.parseLong(lineField.getText().trim()) - 1;
+        } catch (NumberFormatException e) {
+            statusLabel.setText("Not a line number: " + lineField.getText());
+            return;
+        }
+        if(line < 0 || line >= lines.size()) {
+            statusLabel.setText(file.isIndexComplete() ? "The file has " + lines.size() + " lines" : "Line " + (line + 1) + " is not indexed yet");
+            return;
+        }
+        select((int) line);
+    }
+
+    /**
+     * Searches the text of the search field from the line after the selected one, or from the first line.
+     */
+    private void findNext() {
+        String text = searchField.getText();
+        AEGISTabPane tabPane = AEGISTabPane.find(this);
+        if(searching != null || text.isEmpty() || lines.isEmpty() || tabPane == null) {
+            return;
+        }
+
+        long from = Math.min(listView.getSelectionModel().getSelectedIndex() + 1L, lines.size() - 1L);
+        searching = tabPane.submitTask(this, "file search", context -> file.findNext(text, from, context), new AEGISTaskObserver<>() {
+            @Override
+            public void progress(double fraction, String message) {
+                statusLabel.setText(String.format("Searching... %.0f%% (%s)", fraction * 100, message));
+            }
+
+            @Override
+            public void succeeded(Long line) {
+                finishSearch(line < 0 ? "'" + text + "' not found from line " + (from + 1) : "Found at line " + (line + 1));
+                updateLineCount();
+                if(line >= 0 && line < lines.size()) {
+                    select(line.intValue());
+                } else if(line >= 0) {
+                    statusLabel.setText("Found at line " + (line + 1) + ", which is not indexed yet");
+                }
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                finishSearch("Search failed: " + error.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                finishSearch("Search cancelled");
+            }
+        });
+        searchButton.setText("Cancel");
+        statusLabel.setText("Searching...");
+    }
+
+    private void finishSearch(String status) {
+        searching = null;
+        searchButton.setText("Find Next");
+        statusLabel.setText(status);
+    }
+
+    private void select(int line) {
+        listView.getSelectionModel().clearAndSelect(line);
+        listView.scrollTo(Math.max(0, line - 3));
+    }
+
+    /**
+     * The line numbers of the readable lines. Holds nothing but its size; only grows while indexing, reported as one
+     * change per growth.
+     */
+    private static final class LineList extends ObservableListBase<Integer> {
+
+        private int size;
+
+        private void grow(int newSize) {
+            if(newSize <= size) {
+                return;
+            }
+
+            beginChange();
+            nextAdd(size, newSize);
+            size = newSize;
+            endChange();
+        }
+
+        @Override
+        public Integer get(int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return index;
+        }
+
+        @Override
+        public int size() { return size; }
+    }
+
+    /**
+     * Decodes and shows one line, prefixed with its number.
+     */
+    private final class LineCell extends ListCell<Integer> {
+
+        @Override
+        protected void updateItem(Integer line, boolean empty) {
+            super.updateItem(line, empty);
+            if(empty || line == null) {
+                setText(null);
+                return;
+            }
+            setText(String.format("%8d  ", line + 1) + file.line(line));
+        }
+    }
+}
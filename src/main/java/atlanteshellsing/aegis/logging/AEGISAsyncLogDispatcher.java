@@ -0,0 +1,201 @@
+package atlanteshellsing.aegis.logging;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Moves record formatting and output off the calling thread.
+ *
+ * <p>Callers copy their record into an {@link AEGISLogRingBuffer}; a single daemon consumer thread drains the ring in
+ * batches, builds the {@link LogRecord}s, hands them to the logger's handlers and flushes the handlers once per batch.
+ * What happens when the ring fills up is decided by the configured {@link AEGISLogger.AEGISLogBackpressure}.</p>
+ */
+final class AEGISAsyncLogDispatcher {
+
+    private static final int BATCH_SIZE = 256;
+    private static final int SAMPLE_RATE = 10;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long DROP_REPORT_INTERVAL_MILLIS = 1000;
+
+    private final Logger logger;
+    private final AEGISLogRingBuffer ring;
+    private final AEGISLogger.AEGISLogBackpressure backpressure;
+    private final int highWaterMark;
+    private final Thread consumer;
+
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final AtomicInteger activeProducers = new AtomicInteger();
+
+    private volatile boolean running = true;
+    private volatile boolean consumerParked;
+
+    private long reportedDrops;
+    private long lastDropReport;
+
+    /**
+     * Creates and starts a dispatcher for the given logger.
+     *
+     * @param logger       the logger whose handlers receive the drained records
+     * @param capacity     the minimum number of records the ring can hold
+     * @param backpressure the policy applied while the ring is (nearly) full
+     */
+    AEGISAsyncLogDispatcher(Logger logger, int capacity, AEGISLogger.AEGISLogBackpressure backpressure) {
+        this.logger = logger;
+        this.ring = new AEGISLogRingBuffer(capacity);
+        this.backpressure = backpressure;
+        this.highWaterMark = ring.capacity() - ring.capacity() / 4;
+
+        consumer = new Thread(this::consumeLoop, "AEGIS-LogConsumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Publishes a record according to the backpressure policy.
+     *
+     * <p>Every call is counted as an active producer while it runs, so that {@link #shutdown(long)} can wait for a call
+     * that passed the running check just before shutdown to finish publishing, and drain its record too.</p>
+     *
+     * @return true if the record was queued or discarded by the backpressure policy; false if the dispatcher has been
+     *         shut down and the caller must log the record itself
+     */
+    boolean publish(AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level, String message, Throwable thrown) {
+        activeProducers.incrementAndGet();
+        try {
+            return running && enqueue(key, level, message, thrown);
+        } finally {
+            activeProducers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Applies the backpressure policy and copies the record into the ring, waiting for a free slot if required.
+     */
+    private boolean enqueue(AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level, String message, Throwable thrown) {
+        if(isLowLevel(level) && backpressure != AEGISLogger.AEGISLogBackpressure.BLOCK && ring.size() >= highWaterMark) {
+            boolean keep = backpressure == AEGISLogger.AEGISLogBackpressure.SAMPLE
+                    && sampleCounter.getAndIncrement() % SAMPLE_RATE == 0;
+            if(!keep) {
+                dropped.increment();
+                return true;
+            }
+        }
+
+        long timestamp = System.currentTimeMillis();
+        while(!ring.tryPublish(key, level, message, thrown, timestamp)) {
+            if(!running) {
+                return false;
+            }
+            wakeConsumer();
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+
+        if(consumerParked) {
+            wakeConsumer();
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting records, waits for the consumer to drain everything already queued and flushes the handlers.
+     *
+     * @param timeoutMillis the maximum time to wait for the drain
+     */
+    void shutdown(long timeoutMillis) {
+        running = false;
+        wakeConsumer();
+        try {
+            consumer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Provides the number of records discarded by the backpressure policy since this dispatcher started.
+     *
+     * @return the dropped record count
+     */
+    long getDroppedCount() { return dropped.sum(); }
+
+    /**
+     * Consumer thread body: drains batches until shut down, then drains whatever is left.
+     */
+    private void consumeLoop() {
+        while(running) {
+            int drained = drainBatch();
+            if(drained == 0) {
+                consumerParked = true;
+                if(ring.size() == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                consumerParked = false;
+            }
+        }
+
+        // Drain everything published before shutdown, including the records of producers that passed the running check
+        // just before it and are still copying their record into the ring.
+        while(drainBatch() > 0 || activeProducers.get() > 0) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Drains at most one batch, publishes it to the handlers and flushes them once.
+     *
+     * @return the number of records drained
+     */
+    private int drainBatch() {
+        int drained = ring.drain(this::dispatch, BATCH_SIZE);
+        reportDrops();
+        if(drained > 0) {
+            for(Handler handler : logger.getHandlers()) {
+                handler.flush();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Converts a drained slot into a LogRecord carrying the original timestamp and passes it to the logger.
+     */
+    private void dispatch(AEGISLogRingBuffer.Slot slot) {
+        LogRecord logRec = AEGISLogger.createRecord(slot.key, slot.level, slot.message, slot.thrown);
+        logRec.setInstant(Instant.ofEpochMilli(slot.timestamp));
+        logger.log(logRec);
+    }
+
+    /**
+     * Emits a warning summarizing dropped records at most once per {@link #DROP_REPORT_INTERVAL_MILLIS}.
+     */
+    private void reportDrops() {
+        long total = dropped.sum();
+        long now = System.currentTimeMillis();
+        if(total == reportedDrops || now - lastDropReport < DROP_REPORT_INTERVAL_MILLIS) {
+            return;
+        }
+
+        LogRecord logRec = AEGISLogger.createRecord(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING,
+                "Log buffer full, dropped " + (total - reportedDrops) + " records (" + total + " total)", null);
+        logger.log(logRec);
+        reportedDrops = total;
+        lastDropReport = now;
+    }
+
+    private void wakeConsumer() {
+        LockSupport.unpark(consumer);
+    }
+
+    private static boolean isLowLevel(AEGISLogger.AEGISLogLevel level) {
+        return level == AEGISLogger.AEGISLogLevel.FINE || level == AEGISLogger.AEGISLogLevel.INFO;
+    }
+}
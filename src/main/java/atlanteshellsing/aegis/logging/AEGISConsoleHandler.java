@@ -0,0 +1,48 @@
+package atlanteshellsing.aegis.logging;
+
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+import java.util.logging.StreamHandler;
+
+/**
+ * Console handler writing to {@code System.err} that can defer flushing to the caller.
+ *
+ * <p>Like {@link java.util.logging.ConsoleHandler} it flushes after every record by default. When the asynchronous
+ * pipeline is active, the consumer thread switches auto-flush off and flushes once per drained batch instead.</p>
+ */
+class AEGISConsoleHandler extends StreamHandler {
+
+    private volatile boolean autoFlush = true;
+
+    /**
+     * Creates a console handler using the given formatter.
+     *
+     * @param formatter the formatter applied to every record
+     */
+    AEGISConsoleHandler(Formatter formatter) {
+        super(System.err, formatter);
+    }
+
+    /**
+     * Enables or disables flushing after every published record.
+     *
+     * @param autoFlush true to flush after every record, false to leave flushing to explicit {@link #flush()} calls
+     */
+    void setAutoFlush(boolean autoFlush) { this.autoFlush = autoFlush; }
+
+    @Override
+    public synchronized void publish(LogRecord logRec) {
+        super.publish(logRec);
+        if(autoFlush) {
+            flush();
+        }
+    }
+
+    /**
+     * Flushes pending output without closing {@code System.err}.
+     */
+    @Override
+    public synchronized void close() {
+        flush();
+    }
+}
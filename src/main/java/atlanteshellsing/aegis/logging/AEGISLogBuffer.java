@@ -0,0 +1,89 @@
+package atlanteshellsing.aegis.logging;
+
+import java.util.Arrays;
+
+/**
+ * Bounded in-memory ring of the most recent log records, kept for the log viewer.
+ *
+ * <p>Every record is assigned an increasing sequence number. Once the buffer is full, the oldest record is overwritten,
+ * so readers follow the buffer with a sequence cursor and {@link #read(long, AEGISLogEntry[])} simply skips records that
+ * were overwritten in the meantime. The backing array grows on demand up to the capacity, so a quiet application does not
+ * pay for a large buffer.</p>
+ */
+public final class AEGISLogBuffer {
+
+    private static final int INITIAL_SIZE = 1024;
+
+    private final int capacity;
+    private AEGISLogEntry[] entries;
+    private long nextSequence;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity the maximum number of records kept; at least 1
+     */
+    AEGISLogBuffer(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new AEGISLogEntry[Math.min(capacity, INITIAL_SIZE)];
+    }
+
+    /**
+     * Appends a record, overwriting the oldest one if the buffer is full.
+     *
+     * @param timestampMillis the time the record was logged
+     * @param key             the source of the record
+     * @param level           the severity of the record
+     * @param message         the message text
+     * @param thrown          the attached throwable; may be null. Only its description is kept
+     */
+    synchronized void append(long timestampMillis, AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level, String message, Throwable thrown) {
+        if(nextSequence == entries.length && entries.length < capacity) {
+            entries = Arrays.copyOf(entries, (int) Math.min(capacity, entries.length * 2L));
+        }
+        long sequence = nextSequence++;
+        entries[(int) (sequence % entries.length)] = new AEGISLogEntry(sequence, timestampMillis, key, level, message,
+                thrown == null ? null : thrown.toString());
+    }
+
+    /**
+     * Copies the records starting at a sequence number, oldest first. Records that were already overwritten are skipped,
+     * so the first copied record may have a higher sequence number than requested.
+     *
+     * @param fromSequence the sequence number of the first wanted record
+     * @param destination  receives the records from index 0; its length limits how many are copied
+     * @return the number of copied records; 0 if no record at or after {@code fromSequence} exists yet
+     */
+    public synchronized int read(long fromSequence, AEGISLogEntry[] destination) {
+        long sequence = Math.max(fromSequence, firstSequence());
+        int count = (int) Math.min(destination.length, Math.max(0, nextSequence - sequence));
+        for(int i = 0; i < count; i++) {
+            destination[i] = entries[(int) ((sequence + i) % entries.length)];
+        }
+        return count;
+    }
+
+    /**
+     * Provides the sequence number of the oldest record still kept.
+     *
+     * @return the oldest sequence number; equal to {@link #nextSequence()} while the buffer is empty
+     */
+    public synchronized long firstSequence() { return Math.max(0, nextSequence - entries.length); }
+
+    /**
+     * Provides the sequence number the next appended record will get.
+     *
+     * @return the number of records appended since startup
+     */
+    public synchronized long nextSequence() { return nextSequence; }
+
+    /**
+     * Provides the maximum number of records kept.
+     *
+     * @return the capacity
+     */
+    public int capacity() { return capacity; }
+}
@@ -0,0 +1,49 @@
+package atlanteshellsing.aegis.logging;
+
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Handler copying every published record into an {@link AEGISLogBuffer}.
+ *
+ * <p>It runs wherever the other handlers run: on the logging thread in synchronous mode and on the consumer thread in
+ * asynchronous mode. It only stores references to the record's fields and the description of an attached throwable, so keeping records
+ * costs no formatting.</p>
+ */
+class AEGISLogBufferHandler extends Handler {
+
+    private final AEGISLogBuffer buffer;
+
+    /**
+     * Creates a handler feeding the given buffer.
+     *
+     * @param buffer the buffer receiving the records
+     */
+    AEGISLogBufferHandler(AEGISLogBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void publish(LogRecord logRec) {
+        AEGISLogger.AEGISLogKey key = AEGISLogger.AEGISLogKey.AEGIS_MAIN;
+        AEGISLogger.AEGISLogLevel level = AEGISLogger.AEGISLogLevel.INFO;
+
+        Object[] params = logRec.getParameters();
+        if(params != null) {
+            if(params.length > 0 && params[0] instanceof AEGISLogger.AEGISLogKey logKey) {
+                key = logKey;
+            }
+            if(params.length > 1 && params[1] instanceof AEGISLogger.AEGISLogLevel logLevel) {
+                level = logLevel;
+            }
+        }
+
+        buffer.append(logRec.getInstant().toEpochMilli(), key, level, logRec.getMessage(), logRec.getThrown());
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,19 @@
+package atlanteshellsing.aegis.logging;
+
+/**
+ * One log record as kept by the {@link AEGISLogBuffer}.
+ *
+ * <p>An attached throwable is kept as its description only. The buffer holds up to a million records, and a live
+ * throwable would retain its stack trace, its causes and whatever objects they reference for as long as the record is
+ * kept; the full trace is written by the console and file handlers instead.</p>
+ *
+ * @param sequence        the position of the record in the buffer, counted from 0 since startup; never reused
+ * @param timestampMillis the time the record was logged, in milliseconds since the epoch
+ * @param key             the source of the record
+ * @param level           the severity of the record
+ * @param message         the message text
+ * @param thrown          the description of the attached throwable, as by {@link Throwable#toString()}; may be null
+ */
+public record AEGISLogEntry(long sequence, long timestampMillis, AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level,
+                            String message, String thrown) {
+}
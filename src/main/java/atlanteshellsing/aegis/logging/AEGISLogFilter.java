@@ -0,0 +1,71 @@
+package atlanteshellsing.aegis.logging;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Selects log entries by source, minimum level and message text.
+ *
+ * @param key      the only source shown; Null for every source
+ * @param minLevel the lowest level shown
+ * @param text     text the message must contain, ignoring case; empty to accept every message
+ */
+public record AEGISLogFilter(AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel minLevel, String text) {
+
+    /** Accepts every entry. */
+    public static final AEGISLogFilter ALL = new AEGISLogFilter(null, AEGISLogger.AEGISLogLevel.FINE, "");
+
+    /**
+     * Creates a filter, normalizing the text to lower case.
+     *
+     * @param key      the only source shown; Null for every source
+     * @param minLevel the lowest level shown
+     * @param text     text the message must contain, ignoring case
+     */
+    public AEGISLogFilter {
+        Objects.requireNonNull(minLevel);
+        text = text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks whether an entry passes this filter.
+     *
+     * @param entry the entry to check
+     * @return true if the entry's source, level and message are accepted
+     */
+    public boolean matches(AEGISLogEntry entry) {
+        return (key == null || entry.key() == key)
+                && entry.level().ordinal() >= minLevel.ordinal()
+                && (text.isEmpty() || containsIgnoreCase(entry.message(), text));
+    }
+
+    /**
+     * Checks whether every entry passing this filter also passes another filter. If so, the entries matching this filter
+     * can be found by refining the other filter's matches instead of scanning every entry again.
+     *
+     * @param other the previously applied filter; may be null
+     * @return true if this filter accepts a subset of what {@code other} accepts
+     */
+    public boolean isNarrowingOf(AEGISLogFilter other) {
+        return other != null
+                && (other.key == null || other.key == key)
+                && minLevel.ordinal() >= other.minLevel.ordinal()
+                && text.contains(other.text);
+    }
+
+    /**
+     * Searches for lower-case text without allocating a lower-case copy of the message.
+     */
+    private static boolean containsIgnoreCase(String message, String lowerCaseText) {
+        if(message == null) {
+            return false;
+        }
+        int last = message.length() - lowerCaseText.length();
+        for(int i = 0; i <= last; i++) {
+            if(message.regionMatches(true, i, lowerCaseText, 0, lowerCaseText.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
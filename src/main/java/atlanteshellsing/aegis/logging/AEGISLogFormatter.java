@@ -0,0 +1,246 @@
+package atlanteshellsing.aegis.logging;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+
+/**
+ * Formats AEGIS log records as timestamped lines, colorized with ANSI codes for the console or as plain text for files.
+ */
+class AEGISLogFormatter extends Formatter {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String GREY = "\u001B[90m";
+    private static final String RED = "\u001B[31m";
+    private static final int TRACE_CACHE_SIZE = 256;
+
+    private final boolean colored;
+
+    private long cachedEpochSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+
+    /** Rendered stack traces by their content, least recently used first; guarded by the formatter's monitor. */
+    private final Map<TraceKey, String> traceCache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TraceKey, String> eldest) {
+            return size() > TRACE_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * The printable content of a throwable: its description and complete stack trace, then the same for its suppressed
+     * exceptions and its cause. Two keys are only equal if their traces print identically, so the key of a logged
+     * throwable finds its rendered trace in the cache.
+     *
+     * @param description the throwable as returned by {@link Throwable#toString()}, or a circular reference marker
+     * @param frames      the complete stack trace of the throwable; empty for a circular reference
+     * @param suppressed  the keys of the suppressed exceptions
+     * @param cause       the key of the cause; null if there is none
+     */
+    private record TraceKey(String description, List<StackTraceElement> frames, List<TraceKey> suppressed, TraceKey cause) {
+
+        static TraceKey of(Throwable thrown, Set<Throwable> seen) {
+            if(!seen.add(thrown)) {
+                return new TraceKey("[CIRCULAR REFERENCE: " + thrown + "]", List.of(), List.of(), null);
+            }
+
+            List<TraceKey> suppressed = new ArrayList<>();
+            for(Throwable inner : thrown.getSuppressed()) {
+                suppressed.add(of(inner, seen));
+            }
+            Throwable cause = thrown.getCause();
+            return new TraceKey(thrown.toString(), Arrays.asList(thrown.getStackTrace()), suppressed, cause != null ? of(cause, seen) : null);
+        }
+    }
+
+    /**
+     * One throwable of a stack trace, as {@link Throwable#printStackTrace()} lays it out.
+     *
+     * @param indent         the tabs preceding every line, one per level of suppressed-exception nesting
+     * @param caption        the header line, e.g. {@code Caused by: java.io.IOException: Disk Full}
+     * @param frames         the complete stack trace of the throwable
+     * @param framesInCommon the number of trailing frames shared with the enclosing throwable, which are elided
+     */
+    private record TraceSegment(String indent, String caption, List<StackTraceElement> frames, int framesInCommon) {}
+
+    /**
+     * Creates a formatter.
+     *
+     * @param colored true to wrap lines in ANSI color codes (console), false to emit plain text (files)
+     */
+    AEGISLogFormatter(boolean colored) {
+        this.colored = colored;
+    }
+
+    /**
+     * Formats a LogRecord into a colorized, timestamped log line and appends any attached throwable stack trace.
+     *
+     * <p>The formatted line contains an ANSI color code, the record's timestamp, log source key (defaults to AEGIS_MAIN if not provided
+     * via record parameters), the record's level name, the message, and a reset color code. If the LogRecord has a thrown
+     * Throwable, its stack trace and nested causes are appended after the main line.</p>
+     *
+     * @param logRec the LogRecord to format; may carry optional parameters where index 0 is an AEGISLogKey and index 1 is
+     *               an AEGISLogLevel that determines the color
+     * @return a single string containing the complete formatted log entry (including newline), with ANSI color codes and
+     *         any appended stack trace for an attached Throwable
+     */
+    @Override
+    public synchronized String format(LogRecord logRec) {
+        StringBuilder builder = new StringBuilder(128);
+
+        AEGISLogger.AEGISLogKey key = AEGISLogger.AEGISLogKey.AEGIS_MAIN;
+        AEGISLogger.AEGISLogLevel aegisLevel = null;
+
+        Object[] params = logRec.getParameters();
+        if (params != null) {
+            if (params.length > 0 && params[0] instanceof AEGISLogger.AEGISLogKey logKey) {
+                key = logKey;
+            }
+            if (params.length > 1 && params[1] instanceof AEGISLogger.AEGISLogLevel logLevel) {
+                aegisLevel = logLevel;
+            }
+        }
+
+        String color = aegisLevel != null ? aegisLevel.color.code : AEGISLogger.LogColor.RESET.code;
+
+        builder.append(ansi(color))
+                .append('[').append(timestamp(logRec.getInstant().getEpochSecond())).append("] [")
+                .append(key.name()).append("] [")
+                .append(logRec.getLevel().getName()).append("] ")
+                .append(logRec.getMessage())
+                .append(ansi(AEGISLogger.LogColor.RESET.code))
+                .append(System.lineSeparator());
+
+        //print throwables
+        if(logRec.getThrown() != null) {
+            Throwable thrown = logRec.getThrown();
+            printThrowable(builder, thrown);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Formats the timestamp for the given second, reusing the previous result while records arrive within the same second.
+     *
+     * @param epochSecond the record's time in seconds since the epoch
+     * @return the timestamp formatted as {@code yyyy-MM-dd HH:mm:ss} in the system time zone
+     */
+    private String timestamp(long epochSecond) {
+        if(epochSecond != cachedEpochSecond) {
+            cachedTimestamp = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()).format(FORMATTER);
+            cachedEpochSecond = epochSecond;
+        }
+        return cachedTimestamp;
+    }
+
+    /**
+     * Returns the given ANSI escape sequence for colored output, or an empty string for plain output.
+     *
+     * @param code the ANSI escape sequence
+     * @return {@code code} if this formatter is colored, otherwise an empty string
+     */
+    private String ansi(String code) {
+        return colored ? code : "";
+    }
+
+    /**
+     * Appends a colorized, multiline representation of the given throwable, its suppressed exceptions and its nested causes
+     * to the supplied StringBuilder.
+     *
+     * <p>Like {@link Throwable#printStackTrace()}, frames a cause shares with the throwable enclosing it are elided as
+     * {@code ... N more}. The rendered text is cached by a {@link TraceKey} holding the complete trace, so an exception
+     * logged over and over from the same call path is walked and compared on every record but only rendered once.</p>
+     *
+     * @param builder the destination buffer to which the formatted throwable text will be appended
+     * @param thrown  the throwable to format (may contain a cause chain)
+     */
+    private void printThrowable(StringBuilder builder, Throwable thrown) {
+        TraceKey key = TraceKey.of(thrown, Collections.newSetFromMap(new IdentityHashMap<>()));
+        String trace = traceCache.get(key);
+        if(trace == null) {
+            List<TraceSegment> segments = new ArrayList<>();
+            collectSegments(segments, key, List.of(), "Caused by: ", "");
+            trace = render(segments);
+            traceCache.put(key, trace);
+        }
+        builder.append(trace);
+    }
+
+    /**
+     * Flattens a throwable into trace segments in print order: the throwable, its suppressed exceptions, then its cause.
+     *
+     * @param segments  the list receiving the segments
+     * @param thrown    the key of the throwable to add
+     * @param enclosing the stack trace of the enclosing throwable; empty for the logged throwable
+     * @param caption   the prefix of the header line
+     * @param indent    the tabs preceding every line
+     */
+    private static void collectSegments(List<TraceSegment> segments, TraceKey thrown, List<StackTraceElement> enclosing, String caption,
+                                        String indent) {
+        List<StackTraceElement> frames = thrown.frames();
+        int own = frames.size() - 1;
+        int outer = enclosing.size() - 1;
+        while(own >= 0 && outer >= 0 && frames.get(own).equals(enclosing.get(outer))) {
+            own--;
+            outer--;
+        }
+        segments.add(new TraceSegment(indent, caption + thrown.description(), frames, frames.size() - 1 - own));
+
+        for(TraceKey suppressed : thrown.suppressed()) {
+            collectSegments(segments, suppressed, frames, "Suppressed: ", indent + "\t");
+        }
+
+        if(thrown.cause() != null) {
+            collectSegments(segments, thrown.cause(), frames, "Caused by: ", indent);
+        }
+    }
+
+    /**
+     * Renders trace segments, with headers in red and stack frames in grey.
+     *
+     * @param segments the segments to render
+     * @return the trace text, every line terminated by a line separator
+     */
+    private String render(List<TraceSegment> segments) {
+        StringBuilder builder = new StringBuilder(256);
+        for(TraceSegment segment : segments) {
+            // Print Exception Header In Red
+            builder.append(segment.indent())
+                    .append(ansi(RED))
+                    .append(segment.caption())
+                    .append(ansi(AEGISLogger.LogColor.RESET.code))
+                    .append(System.lineSeparator());
+
+            // Print Stack Trace In Grey, Eliding Frames Shared With The Enclosing Trace
+            int shown = segment.frames().size() - segment.framesInCommon();
+            for(int i = 0; i < shown; i++) {
+                builder.append(segment.indent())
+                        .append(ansi(GREY))
+                        .append("\tat ")
+                        .append(segment.frames().get(i))
+                        .append(ansi(AEGISLogger.LogColor.RESET.code))
+                        .append(System.lineSeparator());
+            }
+            if(segment.framesInCommon() > 0) {
+                builder.append(segment.indent())
+                        .append(ansi(GREY))
+                        .append("\t... ").append(segment.framesInCommon()).append(" more")
+                        .append(ansi(AEGISLogger.LogColor.RESET.code))
+                        .append(System.lineSeparator());
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package atlanteshellsing.aegis.logging;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * One log file record found by {@link AEGISLogSearch}.
+ *
+ * @param segment   the log file holding the record
+ * @param offset    the byte offset of the record in the (uncompressed) file
+ * @param timestamp the record time, to the second
+ * @param key       the source of the record
+ * @param level     the severity of the record
+ * @param text      the complete record: the header line followed by any stack trace lines, without the final line break
+ */
+public record AEGISLogMatch(Path segment, long offset, LocalDateTime timestamp, AEGISLogger.AEGISLogKey key,
+                            AEGISLogger.AEGISLogLevel level, String text) {
+
+    /**
+     * Provides the header line of the record.
+     *
+     * @return the text up to the first line break
+     */
+    public String firstLine() {
+        int end = text.indexOf('\n');
+        return end < 0 ? text : text.substring(0, end);
+    }
+}
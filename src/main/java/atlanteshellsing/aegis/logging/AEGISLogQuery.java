@@ -0,0 +1,59 @@
+package atlanteshellsing.aegis.logging;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/**
+ * Selects records from the log files written by {@link AEGISLogger#enableFileLogging(java.nio.file.Path)}.
+ *
+ * @param from     the earliest record time, inclusive; Null for no lower bound
+ * @param to       the latest record time, inclusive; Null for no upper bound
+ * @param key      the only source searched; Null for every source
+ * @param minLevel the lowest level searched
+ * @param text     text the record (message and stack trace) must contain, ignoring ASCII case; empty to accept every record
+ */
+public record AEGISLogQuery(LocalDateTime from, LocalDateTime to, AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel minLevel,
+                            String text) {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Creates a query.
+     *
+     * @param from     the earliest record time, inclusive; Null for no lower bound
+     * @param to       the latest record time, inclusive; Null for no upper bound
+     * @param key      the only source searched; Null for every source
+     * @param minLevel the lowest level searched
+     * @param text     text the record must contain, ignoring ASCII case
+     */
+    public AEGISLogQuery {
+        Objects.requireNonNull(minLevel);
+        Objects.requireNonNull(text);
+        if(from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Query starts after it ends: " + from + " > " + to);
+        }
+    }
+
+    /**
+     * Parses a time bound as written in the log files ({@code yyyy-MM-dd HH:mm:ss}); a date alone ({@code yyyy-MM-dd})
+     * stands for the start or the end of that day.
+     *
+     * @param text     the bound; blank for no bound
+     * @param endOfDay true to read a date alone as the last second of the day, false as midnight
+     * @return the time; Null if the text is blank
+     * @throws java.time.format.DateTimeParseException if the text is neither a date nor a date and time
+     */
+    public static LocalDateTime parseBound(String text, boolean endOfDay) {
+        String trimmed = text.trim();
+        if(trimmed.isEmpty()) {
+            return null;
+        }
+        if(trimmed.length() == 10) {
+            return LocalDate.parse(trimmed).atTime(endOfDay ? LocalTime.of(23, 59, 59) : LocalTime.MIDNIGHT);
+        }
+        return LocalDateTime.parse(trimmed, TIME_FORMAT);
+    }
+}
@@ -0,0 +1,127 @@
+package atlanteshellsing.aegis.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, preallocated multi-producer/single-consumer ring of log slots.
+ *
+ * <p>Producers claim a slot with a single CAS on the tail counter and copy their fields into it; no objects are
+ * allocated on the publishing thread. Each slot carries a sequence number that tells producers whether it is free
+ * and tells the consumer whether it has been fully written, so neither side ever takes a lock.</p>
+ */
+final class AEGISLogRingBuffer {
+
+    /**
+     * A reusable ring entry. Fields are only read by the consumer after it observes the slot's published sequence.
+     */
+    static final class Slot {
+        volatile long sequence;
+
+        AEGISLogger.AEGISLogKey key;
+        AEGISLogger.AEGISLogLevel level;
+        String message;
+        Throwable thrown;
+        long timestamp;
+    }
+
+    /**
+     * Receives slots drained by the consumer. The slot is recycled as soon as the call returns.
+     */
+    @FunctionalInterface
+    interface SlotConsumer {
+        void accept(Slot slot);
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * Creates a ring able to hold at least {@code requestedCapacity} records.
+     *
+     * @param requestedCapacity the minimum capacity; rounded up to the next power of two
+     */
+    AEGISLogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(1, requestedCapacity - 1)) << 1;
+        slots = new Slot[capacity];
+        mask = capacity - 1;
+        for(int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+    }
+
+    /**
+     * Copies a record into the next free slot.
+     *
+     * @return true if the record was published; false if the ring is full
+     */
+    boolean tryPublish(AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level, String message, Throwable thrown, long timestamp) {
+        long position = tail.get();
+        while(true) {
+            Slot slot = slots[(int) position & mask];
+            long difference = slot.sequence - position;
+
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    slot.key = key;
+                    slot.level = level;
+                    slot.message = message;
+                    slot.thrown = thrown;
+                    slot.timestamp = timestamp;
+                    slot.sequence = position + 1;
+                    return true;
+                }
+                position = tail.get();
+            } else if(difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hands up to {@code maxRecords} published slots to {@code consumer} in publication order and frees them.
+     * Must only be called from the single consumer thread.
+     *
+     * @return the number of records drained
+     */
+    int drain(SlotConsumer consumer, int maxRecords) {
+        long position = head;
+        int drained = 0;
+
+        while(drained < maxRecords) {
+            Slot slot = slots[(int) position & mask];
+            if(slot.sequence != position + 1) {
+                break;
+            }
+
+            consumer.accept(slot);
+
+            slot.message = null;
+            slot.thrown = null;
+            slot.sequence = position + slots.length;
+            position++;
+            drained++;
+        }
+
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Provides an approximate count of records waiting to be drained.
+     *
+     * @return the number of claimed but not yet drained slots
+     */
+    int size() { return (int) Math.max(0, tail.get() - head); }
+
+    /**
+     * Provides the number of slots in the ring.
+     *
+     * @return the ring capacity
+     */
+    int capacity() { return slots.length; }
+}
@@ -0,0 +1,490 @@
+package atlanteshellsing.aegis.logging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Searches the log files in a logs directory without reading them into the heap.
+ *
+ * <p>Every record written by the file handler starts with a {@code [yyyy-MM-dd HH:mm:ss] [KEY] [LEVEL] } header line;
+ * stack trace lines following it belong to the same record. Plain segments are memory-mapped. For each of them a sparse
+ * timestamp index (one sampled record every {@value #INDEX_STRIDE} bytes) is built by positional reads and cached until
+ * the file changes, so a time-range query only touches the part of a segment that can contain matching records. That
+ * part is split into chunks of {@value #CHUNK_BYTES} bytes which are scanned in parallel on the fork/join common pool.
+ * Header fields are compared on the raw bytes; only matching records are decoded.</p>
+ *
+ * <p>Rotated segments are gzip-compressed by the file handler and cannot be mapped. They are skipped by the day in their
+ * file name when it lies outside the queried range, and otherwise streamed through a decompressor, one segment per chunk.</p>
+ */
+public final class AEGISLogSearch {
+
+    private static final int INDEX_STRIDE = 256 * 1024;
+    private static final int INDEX_PROBE_BYTES = 16 * 1024;
+    private static final int CHUNK_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_RECORD_TAIL = 1024 * 1024;
+    private static final int HEADER_BYTES = 23;
+    private static final Pattern SEGMENT_NAME = Pattern.compile(Pattern.quote(AEGISRollingFileHandler.SEGMENT_PREFIX) + "(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.log(\\.gz)?");
+    private static final byte[][] KEY_NAMES = names(AEGISLogger.AEGISLogKey.values());
+    private static final byte[][] LEVEL_NAMES = names(AEGISLogger.AEGISLogLevel.values());
+
+    private static final Map<Path, SegmentIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * A log file, in the order segments were written.
+     *
+     * @param path       the file
+     * @param day        the day the segment was started, taken from the file name; Null for the active segment
+     * @param sequence   the rotation number of the segment on its day
+     * @param compressed true for gzip-compressed segments
+     */
+    private record Segment(Path path, LocalDate day, int sequence, boolean compressed) {}
+
+    /**
+     * Sampled record positions of one plain segment, valid while the file keeps its size and modification time.
+     */
+    private record SegmentIndex(long size, long modifiedMillis, long[] offsets, long[] stamps) {}
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISLogSearch() {}
+
+    /**
+     * Searches every log segment in a directory. The matches are produced in file order, oldest segment first, and the
+     * returned stream is parallel; use {@code forEachOrdered} or an ordered collector to keep that order.
+     *
+     * <p>Segments are read while the stream is consumed, so I/O failures surface as {@link UncheckedIOException}. The
+     * active segment is searched up to its size when the search starts; records still buffered by the file handler are
+     * not visible yet.</p>
+     *
+     * @param directory the logs directory, typically {@code <appdata>/Aegis/Logs}
+     * @param query     the records to find
+     * @return the matching records
+     * @throws IOException if the directory cannot be listed or a segment cannot be indexed
+     */
+    public static Stream<AEGISLogMatch> search(Path directory, AEGISLogQuery query) throws IOException {
+        RecordMatcher matcher = new RecordMatcher(query);
+        List<Segment> segments = listSegments(directory);
+        indexes.keySet().removeIf(path -> path.startsWith(directory) && segments.stream().noneMatch(segment -> segment.path().equals(path)));
+
+        List<Chunk> chunks = new ArrayList<>();
+        for(Segment segment : segments) {
+            if(segment.day() != null && !matcher.mayContainDay(segment.day())) {
+                continue;
+            }
+            if(segment.compressed()) {
+                chunks.add(new CompressedChunk(segment.path()));
+            } else {
+                addMappedChunks(segment.path(), matcher, chunks);
+            }
+        }
+
+        return chunks.parallelStream().flatMap(chunk -> {
+            try {
+                return chunk.scan(matcher).stream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Lists the log segments in a directory, oldest first, with the active {@code aegis.log} last.
+     */
+    private static List<Segment> listSegments(Path directory) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        if(!Files.isDirectory(directory)) {
+            return segments;
+        }
+
+        try(DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for(Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                Matcher name = SEGMENT_NAME.matcher(fileName);
+                if(name.matches()) {
+                    segments.add(new Segment(entry, LocalDate.parse(name.group(1)), Integer.parseInt(name.group(2)), name.group(3) != null));
+                } else if(fileName.equals(AEGISRollingFileHandler.ACTIVE_FILE_NAME)) {
+                    segments.add(new Segment(entry, null, Integer.MAX_VALUE, false));
+                }
+            }
+        }
+        segments.sort(Comparator.comparing(Segment::day, Comparator.nullsLast(Comparator.naturalOrder())).thenComparingInt(Segment::sequence));
+        return segments;
+    }
+
+    /**
+     * Narrows a plain segment to the byte range that can hold records of the queried time range, using its sparse index,
+     * and splits that range into chunks.
+     */
+    private static void addMappedChunks(Path path, RecordMatcher matcher, List<Chunk> chunks) throws IOException {
+        SegmentIndex index = indexFor(path);
+        long start = 0;
+        long end = index.size();
+        for(int i = 0; i < index.stamps().length; i++) {
+            if(index.stamps()[i] < matcher.fromStamp) {
+                start = index.offsets()[i];
+            } else if(index.stamps()[i] > matcher.toStamp) {
+                end = index.offsets()[i];
+                break;
+            }
+        }
+
+        for(long chunkStart = start; chunkStart < end; chunkStart += CHUNK_BYTES) {
+            chunks.add(new MappedChunk(path, index.size(), chunkStart, Math.min(end, chunkStart + CHUNK_BYTES), chunkStart == start));
+        }
+    }
+
+    /**
+     * Provides the cached sparse index of a plain segment, rebuilding it if the file changed since it was built.
+     */
+    private static SegmentIndex indexFor(Path path) throws IOException {
+        long size = Files.size(path);
+        long modifiedMillis = Files.getLastModifiedTime(path).toMillis();
+        SegmentIndex cached = indexes.get(path);
+        if(cached != null && cached.size() == size && cached.modifiedMillis() == modifiedMillis) {
+            return cached;
+        }
+
+        long[] offsets = new long[(int) (size / INDEX_STRIDE) + 1];
+        long[] stamps = new long[offsets.length];
+        int entries = 0;
+        ByteBuffer probe = ByteBuffer.allocate(INDEX_PROBE_BYTES);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for(long position = 0; position < size; position += INDEX_STRIDE) {
+                probe.clear();
+                channel.read(probe, position);
+                int limit = probe.position();
+                int record = isRecordStart(probe, 0, limit) && position == 0 ? 0 : nextRecordStart(probe, 0, limit);
+                if(record + HEADER_BYTES > limit) {
+                    continue;
+                }
+                long offset = position + record;
+                if(entries == 0 || offset > offsets[entries - 1]) {
+                    offsets[entries] = offset;
+                    stamps[entries] = stamp(probe, record);
+                    entries++;
+                }
+            }
+        }
+
+        SegmentIndex index = new SegmentIndex(size, modifiedMillis, Arrays.copyOf(offsets, entries), Arrays.copyOf(stamps, entries));
+        indexes.put(path, index);
+        return index;
+    }
+
+    /**
+     * Checks whether a record header starts at {@code position}: {@code [yyyy-MM-dd HH:mm:ss] [}.
+     */
+    private static boolean isRecordStart(ByteBuffer buffer, int position, int limit) {
+        if(position + HEADER_BYTES > limit || buffer.get(position) != '[') {
+            return false;
+        }
+        for(int i = 1; i < 20; i++) {
+            byte b = buffer.get(position + i);
+            boolean separator = switch(i) {
+                case 5, 8 -> b == '-';
+                case 11 -> b == ' ';
+                case 14, 17 -> b == ':';
+                default -> b >= '0' && b <= '9';
+            };
+            if(!separator) {
+                return false;
+            }
+        }
+        return buffer.get(position + 20) == ']' && buffer.get(position + 21) == ' ' && buffer.get(position + 22) == '[';
+    }
+
+    /**
+     * Finds the next record header that starts a line at or after {@code from}.
+     *
+     * @return the header position; {@code limit} if there is none
+     */
+    private static int nextRecordStart(ByteBuffer buffer, int from, int limit) {
+        for(int i = from; i < limit; i++) {
+            if(buffer.get(i) == '\n' && isRecordStart(buffer, i + 1, limit)) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Reads the timestamp of a record header as the number {@code yyyyMMddHHmmss}, which orders like the time itself.
+     */
+    private static long stamp(ByteBuffer buffer, int position) {
+        long stamp = 0;
+        for(int i = 1; i < 20; i++) {
+            byte b = buffer.get(position + i);
+            if(b >= '0' && b <= '9') {
+                stamp = stamp * 10 + (b - '0');
+            }
+        }
+        return stamp;
+    }
+
+    private static long stamp(LocalDateTime time) {
+        return ((((time.getYear() * 100L + time.getMonthValue()) * 100 + time.getDayOfMonth()) * 100 + time.getHour()) * 100
+                + time.getMinute()) * 100 + time.getSecond();
+    }
+
+    private static LocalDateTime time(long stamp) {
+        return LocalDateTime.of((int) (stamp / 10_000_000_000L), (int) (stamp / 100_000_000 % 100), (int) (stamp / 1_000_000 % 100),
+                (int) (stamp / 10_000 % 100), (int) (stamp / 100 % 100), (int) (stamp % 100));
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for(Enum<?> value : values) {
+            names[value.ordinal()] = value.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    /**
+     * Reads a bracketed header field ({@code NAME]}) and returns the ordinal of the matching name, or -1.
+     */
+    private static int field(ByteBuffer buffer, int position, int limit, byte[][] names) {
+        for(int ordinal = 0; ordinal < names.length; ordinal++) {
+            byte[] name = names[ordinal];
+            if(position + name.length < limit && buffer.get(position + name.length) == ']' && regionEquals(buffer, position, name)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(ByteBuffer buffer, int position, byte[] bytes) {
+        for(int i = 0; i < bytes.length; i++) {
+            if(buffer.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The query compiled to byte comparisons.
+     */
+    private static final class RecordMatcher {
+
+        private final AEGISLogQuery query;
+        private final long fromStamp;
+        private final long toStamp;
+        private final long exactFromStamp;
+        private final long exactToStamp;
+        private final byte[] text;
+
+        private RecordMatcher(AEGISLogQuery query) {
+            this.query = query;
+            // One second of slack: records are written in order, but their timestamps may lag behind by a few milliseconds.
+            this.fromStamp = query.from() != null ? stamp(query.from().minusSeconds(1)) : Long.MIN_VALUE;
+            this.toStamp = query.to() != null ? stamp(query.to().plusSeconds(1)) : Long.MAX_VALUE;
+            this.exactFromStamp = query.from() != null ? stamp(query.from()) : Long.MIN_VALUE;
+            this.exactToStamp = query.to() != null ? stamp(query.to()) : Long.MAX_VALUE;
+            this.text = lowerCaseAscii(query.text().getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Checks whether a rotated segment started on {@code day} may hold records of the queried time range. Segments
+         * rotate when the day changes, so a segment only holds records of its own day, give or take a day of slack.
+         */
+        private boolean mayContainDay(LocalDate day) {
+            return (query.from() == null || !day.isBefore(query.from().toLocalDate().minusDays(1)))
+                    && (query.to() == null || !day.isAfter(query.to().toLocalDate().plusDays(1)));
+        }
+
+        /**
+         * Checks the record in {@code [start, end)} and decodes it if it matches.
+         *
+         * @return the match; Null if the record does not match
+         */
+        private AEGISLogMatch match(Path segment, long segmentOffset, ByteBuffer buffer, int start, int end) {
+            long stamp = stamp(buffer, start);
+            if(stamp < exactFromStamp || stamp > exactToStamp) {
+                return null;
+            }
+
+            int key = field(buffer, start + HEADER_BYTES, end, KEY_NAMES);
+            if(key < 0 || query.key() != null && key != query.key().ordinal()) {
+                return null;
+            }
+            int levelStart = start + HEADER_BYTES + KEY_NAMES[key].length + 3;
+            int level = levelStart < end ? field(buffer, levelStart, end, LEVEL_NAMES) : -1;
+            if(level < query.minLevel().ordinal()) {
+                return null;
+            }
+            if(text.length > 0 && !containsIgnoringAsciiCase(buffer, start, end)) {
+                return null;
+            }
+
+            int textEnd = end;
+            while(textEnd > start && (buffer.get(textEnd - 1) == '\n' || buffer.get(textEnd - 1) == '\r')) {
+                textEnd--;
+            }
+            byte[] bytes = new byte[textEnd - start];
+            buffer.get(start, bytes);
+            return new AEGISLogMatch(segment, segmentOffset + start, time(stamp), AEGISLogger.AEGISLogKey.values()[key],
+                    AEGISLogger.AEGISLogLevel.values()[level], new String(bytes, StandardCharsets.UTF_8).replace("\r\n", "\n"));
+        }
+
+        private boolean containsIgnoringAsciiCase(ByteBuffer buffer, int start, int end) {
+            byte first = text[0];
+            int last = end - text.length;
+            for(int i = start; i <= last; i++) {
+                if(lowerCaseAscii(buffer.get(i)) != first) {
+                    continue;
+                }
+                int j = 1;
+                while(j < text.length && lowerCaseAscii(buffer.get(i + j)) == text[j]) {
+                    j++;
+                }
+                if(j == text.length) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static byte lowerCaseAscii(byte b) {
+            return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+        }
+
+        private static byte[] lowerCaseAscii(byte[] bytes) {
+            for(int i = 0; i < bytes.length; i++) {
+                bytes[i] = lowerCaseAscii(bytes[i]);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * A part of a segment that is scanned as one unit of parallel work.
+     */
+    private sealed interface Chunk permits MappedChunk, CompressedChunk {
+
+        /**
+         * Scans the records of this chunk.
+         *
+         * @param matcher the compiled query
+         * @return the matches, in file order
+         * @throws IOException if the segment cannot be read
+         */
+        List<AEGISLogMatch> scan(RecordMatcher matcher) throws IOException;
+    }
+
+    /**
+     * The records of a plain segment that start in {@code [start, end)}. The chunk is mapped with up to
+     * {@value #MAX_RECORD_TAIL} bytes beyond its end, so the last record can be read to its end; a record is scanned by
+     * the chunk it starts in.
+     */
+    private record MappedChunk(Path path, long size, long start, long end, boolean first) implements Chunk {
+
+        @Override
+        public List<AEGISLogMatch> scan(RecordMatcher matcher) throws IOException {
+            // Later chunks map the byte before their start, so a record starting right at the chunk start is recognized
+            // by the line break in front of it.
+            long mapStart = first ? start : start - 1;
+            long mapEnd = Math.min(size, end + MAX_RECORD_TAIL);
+            ByteBuffer buffer;
+            try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+            }
+
+            int limit = (int) (mapEnd - mapStart);
+            int recordsEnd = (int) (end - mapStart);
+            int position = first && isRecordStart(buffer, 0, limit) ? 0 : nextRecordStart(buffer, 0, limit);
+
+            List<AEGISLogMatch> matches = new ArrayList<>();
+            while(position < recordsEnd) {
+                int recordEnd = nextRecordStart(buffer, position, limit);
+                AEGISLogMatch match = matcher.match(path, mapStart, buffer, position, recordEnd);
+                if(match != null) {
+                    matches.add(match);
+                }
+                position = recordEnd;
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * A complete gzip-compressed segment, decompressed as a stream and scanned one record at a time.
+     */
+    private record CompressedChunk(Path path) implements Chunk {
+
+        @Override
+        public List<AEGISLogMatch> scan(RecordMatcher matcher) throws IOException {
+            List<AEGISLogMatch> matches = new ArrayList<>();
+            byte[] record = new byte[8192];
+            int recordLength = 0;
+            long recordOffset = 0;
+            byte[] block = new byte[64 * 1024];
+
+            try(InputStream in = new GZIPInputStream(Files.newInputStream(path), block.length)) {
+                int lineStart = 0;
+                int read;
+                while((read = in.read(block)) > 0) {
+                    for(int i = 0; i < read; i++) {
+                        if(recordLength == record.length) {
+                            record = Arrays.copyOf(record, record.length * 2);
+                        }
+                        record[recordLength++] = block[i];
+                        if(block[i] != '\n') {
+                            continue;
+                        }
+
+                        // A complete line ends at recordLength; if it starts a new record, the bytes before it are the previous record.
+                        ByteBuffer view = ByteBuffer.wrap(record, 0, recordLength);
+                        if(lineStart > 0 && isRecordStart(view, lineStart, recordLength)) {
+                            addMatch(matcher, matches, view, recordOffset, lineStart);
+                            recordOffset += lineStart;
+                            recordLength -= lineStart;
+                            System.arraycopy(record, lineStart, record, 0, recordLength);
+                        }
+                        lineStart = recordLength;
+                    }
+                }
+
+                // The last line may lack a line break, so it has not been checked for a record header yet.
+                ByteBuffer view = ByteBuffer.wrap(record, 0, recordLength);
+                if(lineStart > 0 && lineStart < recordLength && isRecordStart(view, lineStart, recordLength)) {
+                    addMatch(matcher, matches, view, recordOffset, lineStart);
+                    recordOffset += lineStart;
+                    recordLength -= lineStart;
+                    System.arraycopy(record, lineStart, record, 0, recordLength);
+                }
+            }
+            addMatch(matcher, matches, ByteBuffer.wrap(record, 0, recordLength), recordOffset, recordLength);
+            return matches;
+        }
+
+        private void addMatch(RecordMatcher matcher, List<AEGISLogMatch> matches, ByteBuffer record, long recordOffset, int length) {
+            if(length > 0 && isRecordStart(record, 0, length)) {
+                AEGISLogMatch match = matcher.match(path, recordOffset, record, 0, length);
+                if(match != null) {
+                    matches.add(match);
+                }
+            }
+        }
+    }
+}
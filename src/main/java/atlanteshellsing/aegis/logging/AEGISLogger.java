@@ -1,13 +1,38 @@
 package atlanteshellsing.aegis.logging;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import atlanteshellsing.aegis.metrics.AEGISCounter;
+import atlanteshellsing.aegis.metrics.AEGISLogRecordEvent;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.logging.*;
 
 public class AEGISLogger {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final java.util.logging.Logger AEGIS_LOGGER = Logger.getLogger("AEGIS LOG");
+    private static final AEGISConsoleHandler CONSOLE_HANDLER = new AEGISConsoleHandler(new AEGISLogFormatter(true));
+    private static final long SHUTDOWN_DRAIN_MILLIS = 5000;
+    private static final long MAX_SEGMENT_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_SEGMENTS = 30;
+    private static final long MAX_TOTAL_BYTES = 200L * 1024 * 1024;
+    private static final int LOG_BUFFER_CAPACITY = 1 << 20;
+    private static final AEGISLogBuffer LOG_BUFFER = new AEGISLogBuffer(LOG_BUFFER_CAPACITY);
+    private static final Duration DEFAULT_REPEAT_WINDOW = Duration.ofSeconds(10);
+    private static final AEGISRepeatSuppressor REPEAT_SUPPRESSOR = new AEGISRepeatSuppressor(DEFAULT_REPEAT_WINDOW.toNanos());
+    private static final AEGISCounter SUPPRESSED_COUNTER = AEGISMetrics.counter("log.suppressed");
+    private static final long REPEAT_FLUSH_MILLIS = 1000;
+    private static final AtomicBoolean REPEAT_FLUSHER_STARTED = new AtomicBoolean();
+
+    private static volatile AEGISAsyncLogDispatcher asyncDispatcher;
+    private static AEGISRollingFileHandler fileHandler;
 
     public enum LogColor {
         CYAN("\u001B[36m"),
@@ -24,7 +49,10 @@ public class AEGISLogger {
     }
 
     public enum AEGISLogKey {
-        AEGIS_MAIN, AEGIS_TOOL
+        AEGIS_MAIN, AEGIS_TOOL;
+
+        /** Lowest level logged for this key; read on every log call, so it is the only shared state the guard touches. */
+        private volatile AEGISLogLevel threshold = AEGISLogLevel.FINE;
     }
 
     public enum AEGISLogLevel {
@@ -39,102 +67,170 @@ public class AEGISLogger {
         }
     }
 
-    static {
-        AEGIS_LOGGER.setUseParentHandlers(false);
+    /**
+     * What the asynchronous pipeline does when callers publish faster than the consumer can write.
+     */
+    public enum AEGISLogBackpressure {
+        /** Callers wait until the consumer frees a slot; no record is ever lost. */
+        BLOCK,
+        /** Once the buffer is three quarters full, FINE and INFO records are discarded; WARNING and SEVERE still wait for a slot. */
+        DROP_LOW_LEVELS,
+        /** Like {@link #DROP_LOW_LEVELS}, but one in every ten FINE and INFO records is still kept. */
+        SAMPLE
+    }
 
-        ConsoleHandler handler = new ConsoleHandler();
-        handler.setFormatter(new SimpleFormatter() {
-            /**
-             * Formats a LogRecord into a colorized, timestamped log line and appends any attached throwable stack trace.
-             *
-             * <p>The formatted line contains an ANSI color code, timestamp, log source key (defaults to AEGIS_MAIN if not provided
-             * via record parameters), the record's level name, the message, and a reset color code. If the LogRecord has a thrown
-             * Throwable, its stack trace and nested causes are appended after the main line.</p>
-             *
-             * @param logRec the LogRecord to format; may carry optional parameters where index 0 is an AEGISLogKey and index 1 is
-             *               an AEGISLogLevel that determines the color
-             * @return a single string containing the complete formatted log entry (including newline), with ANSI color codes and
-             *         any appended stack trace for an attached Throwable
-             */
-            @Override
-            public synchronized String format(LogRecord logRec) {
-                StringBuilder builder = new StringBuilder();
-
-                String timestamp = LocalDateTime.now().format(FORMATTER);
-                AEGISLogKey key = AEGISLogKey.AEGIS_MAIN;
-                AEGISLogLevel aegisLevel = null;
-
-                Object[] params = logRec.getParameters();
-                if (params != null) {
-                    if (params.length > 0 && params[0] instanceof AEGISLogKey logKey) {
-                        key = logKey;
-                    }
-                    if (params.length > 1 && params[1] instanceof AEGISLogLevel logLevel) {
-                        aegisLevel = logLevel;
-                    }
-                }
-
-                String color = aegisLevel != null ? aegisLevel.color.code : LogColor.RESET.code;
-
-                builder.append(String.format("%s[%s] [%s] [%s] %s%s%n",
-                        color,
-                        timestamp,
-                        key.name(),
-                        logRec.getLevel().getName(),
-                        logRec.getMessage(),
-                        LogColor.RESET.code
-                ));
-
-                //print throwables
-                if(logRec.getThrown() != null) {
-                    Throwable thrown = logRec.getThrown();
-                    printThrowable(builder, thrown);
-                }
-
-                return builder.toString();
-            }
+    private static final AEGISCounter[][] RECORD_COUNTERS = new AEGISCounter[AEGISLogKey.values().length][AEGISLogLevel.values().length];
 
-            /**
-             * Appends a colorized, multiline representation of the given throwable and its nested causes to the supplied StringBuilder.
-             *
-             * The appended text includes an exception header for each throwable and its stack trace lines; nested causes are processed recursively.
-             *
-             * @param builder the destination buffer to which the formatted throwable text will be appended
-             * @param thrown  the throwable to format (may contain a cause chain) 
-             */
-            private void printThrowable(StringBuilder builder, Throwable thrown) {
-
-                  String grey = "\u001B[90m";
-                  String red = "\u001B[31m";
-
-                // Print Exception Header In Red
-                builder.append(red)
-                        .append("Caused by: ")
-                        .append(thrown.toString())
-                        .append(LogColor.RESET.code)
-                        .append(System.lineSeparator());
-
-                // Print Stack Trace In Grey
-                for(StackTraceElement element : thrown.getStackTrace()) {
-                    builder.append(grey)
-                            .append("\tat ")
-                            .append(element.toString())
-                            .append(LogColor.RESET.code)
-                            .append(System.lineSeparator());
-                }
-
-                //Handle Nested Exceptions
-                Throwable cause = thrown.getCause();
-                if(cause != null)
-                    printThrowable(builder, cause);
+    static {
+        for(AEGISLogKey key : AEGISLogKey.values()) {
+            for(AEGISLogLevel level : AEGISLogLevel.values()) {
+                RECORD_COUNTERS[key.ordinal()][level.ordinal()] = AEGISMetrics.counter("log.records." + key.name() + "." + level.name());
             }
-        });
+        }
+        AEGISMetrics.gauge("log.dropped", AEGISLogger::getDroppedRecordCount);
+
+        AEGIS_LOGGER.setUseParentHandlers(false);
 
-        handler.setLevel(Level.ALL);
-        AEGIS_LOGGER.addHandler(handler);
+        CONSOLE_HANDLER.setLevel(Level.ALL);
+        AEGIS_LOGGER.addHandler(CONSOLE_HANDLER);
+        AEGIS_LOGGER.addHandler(new AEGISLogBufferHandler(LOG_BUFFER));
         AEGIS_LOGGER.setLevel(Level.ALL);
     }
 
+    /**
+     * Switches the logger to asynchronous mode.
+     *
+     * <p>From now on {@code log} calls only copy their arguments into a preallocated ring buffer; a background consumer
+     * formats and writes the records in batches. Calling this method while asynchronous mode is already active has no effect.
+     * A JVM shutdown hook guarantees that queued records are drained on exit, but {@link #shutdown()} should still be called
+     * on orderly application shutdown.</p>
+     *
+     * @param capacity     the minimum number of records the ring buffer can hold (rounded up to a power of two)
+     * @param backpressure the policy applied when the ring buffer fills up
+     */
+    public static synchronized void enableAsync(int capacity, AEGISLogBackpressure backpressure) {
+        if(asyncDispatcher != null) {
+            return;
+        }
+
+        CONSOLE_HANDLER.setAutoFlush(false);
+        asyncDispatcher = new AEGISAsyncLogDispatcher(AEGIS_LOGGER, capacity, backpressure);
+        Runtime.getRuntime().addShutdownHook(new Thread(AEGISLogger::shutdown, "AEGIS-LogShutdown"));
+    }
+
+    /**
+     * Starts writing plain-text log files into the given directory in addition to the console.
+     *
+     * <p>The active file is rotated when it reaches 10 MB or when the day changes; rotated segments are gzip-compressed in
+     * the background and the oldest are deleted once more than 30 segments or 200 MB are kept. Calling this method while
+     * file logging is already active has no effect. If the directory cannot be opened, a severe error is logged to the console.</p>
+     *
+     * @param directory the directory receiving the log files, typically {@code <appdata>/Aegis/Logs}
+     */
+    public static synchronized void enableFileLogging(Path directory) {
+        if(fileHandler != null) {
+            return;
+        }
+
+        try {
+            fileHandler = new AEGISRollingFileHandler(directory, MAX_SEGMENT_BYTES, MAX_SEGMENTS, MAX_TOTAL_BYTES);
+            AEGIS_LOGGER.addHandler(fileHandler);
+        } catch (IOException e) {
+            log(AEGISLogKey.AEGIS_MAIN, AEGISLogLevel.SEVERE, "Log Files Could Not Be Opened In " + directory, e);
+        }
+    }
+
+    /**
+     * Drains every record queued in asynchronous mode, flushes the handlers and returns to synchronous logging.
+     * Safe to call more than once and when asynchronous mode was never enabled.
+     */
+    public static synchronized void shutdown() {
+        for(AEGISRepeatSuppressor.Summary summary : REPEAT_SUPPRESSOR.drainPending()) {
+            dispatch(summary.key(), summary.level(), repeatSummary(summary.repeated(), summary.description()), null);
+        }
+
+        AEGISAsyncLogDispatcher dispatcher = asyncDispatcher;
+        if(dispatcher != null) {
+            asyncDispatcher = null;
+            dispatcher.shutdown(SHUTDOWN_DRAIN_MILLIS);
+            CONSOLE_HANDLER.setAutoFlush(true);
+        }
+
+        for(Handler handler : AEGIS_LOGGER.getHandlers()) {
+            handler.flush();
+        }
+    }
+
+    /**
+     * Provides the number of records discarded by the asynchronous backpressure policy.
+     *
+     * @return the dropped record count, or 0 if asynchronous mode is not active
+     */
+    public static long getDroppedRecordCount() {
+        AEGISAsyncLogDispatcher dispatcher = asyncDispatcher;
+        return dispatcher != null ? dispatcher.getDroppedCount() : 0;
+    }
+
+    /**
+     * Provides the in-memory ring of the most recent records (up to about one million), which backs the log viewer.
+     * Records appear in it once they have been handed to the handlers, so in asynchronous mode slightly after the log call.
+     *
+     * @return the application's log buffer
+     */
+    public static AEGISLogBuffer getBuffer() { return LOG_BUFFER; }
+
+    /**
+     * Sets how long repeats of a logged exception are suppressed. A record is a repeat if its exception has the same type
+     * and the same top stack frames as one logged within the window. The number of repeats that were dropped is logged
+     * about a second after the window ends, or right before the next repeat if that comes first, which is then logged
+     * again. The default window is 10 seconds.
+     *
+     * @param window the suppression window; zero disables suppression
+     */
+    public static void setRepeatWindow(Duration window) {
+        if(window.isNegative()) {
+            throw new IllegalArgumentException("Negative Repeat Window: " + window);
+        }
+        REPEAT_SUPPRESSOR.setWindowNanos(window.toNanos());
+    }
+
+    /**
+     * Provides how long repeats of a logged exception are suppressed.
+     *
+     * @return the suppression window; zero if suppression is disabled
+     */
+    public static Duration getRepeatWindow() { return Duration.ofNanos(REPEAT_SUPPRESSOR.getWindowNanos()); }
+
+    /**
+     * Sets the lowest level that is logged for a key. Takes effect immediately on every thread.
+     *
+     * @param key       the source whose threshold is changed
+     * @param threshold the lowest level still logged; FINE logs everything
+     */
+    public static void setThreshold(AEGISLogKey key, AEGISLogLevel threshold) {
+        key.threshold = Objects.requireNonNull(threshold);
+    }
+
+    /**
+     * Provides the lowest level that is logged for a key.
+     *
+     * @param key the source to query
+     * @return the current threshold; FINE unless changed
+     */
+    public static AEGISLogLevel getThreshold(AEGISLogKey key) { return key.threshold; }
+
+    /**
+     * Checks whether a record of the given level would be logged for a key. Costs a single volatile read, so callers
+     * may use it to guard expensive message construction.
+     *
+     * @param key   the source of the log entry
+     * @param level the severity of the log entry
+     * @return true if the level is at or above the key's threshold
+     */
+    public static boolean isEnabled(AEGISLogKey key, AEGISLogLevel level) {
+        return level.ordinal() >= key.threshold.ordinal();
+    }
+
     /**
      * Log a message with the specified AEGIS log key and level.
      *
@@ -143,9 +239,7 @@ public class AEGISLogger {
      * @param message the message text to record
      */
     public static void log(AEGISLogKey key, AEGISLogLevel level, String message) {
-        LogRecord logRec = new LogRecord(level.level, message);
-        logRec.setParameters(new Object[]{key, level});
-        AEGIS_LOGGER.log(logRec);
+        publish(key, level, message, null);
     }
 
     /**
@@ -157,9 +251,152 @@ public class AEGISLogger {
      * @param e       an exception to include with the log entry; may be null
      */
     public static void log(AEGISLogKey key, AEGISLogLevel level, String message, Exception e) {
+        publish(key, level, message, e);
+    }
+
+    /**
+     * Logs a lazily built message. The supplier is only invoked if the level is enabled for the key.
+     *
+     * @param key             the source of the log entry (e.g., AEGIS_MAIN, AEGIS_TOOL)
+     * @param level           the AEGISLogLevel that determines severity and console color
+     * @param messageSupplier builds the log message text
+     */
+    public static void log(AEGISLogKey key, AEGISLogLevel level, Supplier<String> messageSupplier) {
+        if(isEnabled(key, level)) {
+            publish(key, level, messageSupplier.get(), null);
+        }
+    }
+
+    /**
+     * Logs a message template whose {@code {}} placeholders are replaced by the arguments, in order. The message is only
+     * formatted if the level is enabled for the key. If the last argument is a Throwable that no placeholder consumes,
+     * it is attached to the entry like the exception of {@link #log(AEGISLogKey, AEGISLogLevel, String, Exception)}.
+     *
+     * <p>The argument array is still created by the caller; hot paths logging below the usual threshold should guard the
+     * call with {@link #isEnabled(AEGISLogKey, AEGISLogLevel)}.</p>
+     *
+     * @param key      the source of the log entry (e.g., AEGIS_MAIN, AEGIS_TOOL)
+     * @param level    the AEGISLogLevel that determines severity and console color
+     * @param template the message text containing {@code {}} placeholders
+     * @param args     the placeholder values; rendered with {@link String#valueOf(Object)}
+     */
+    public static void log(AEGISLogKey key, AEGISLogLevel level, String template, Object... args) {
+        if(!isEnabled(key, level)) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder(template.length() + 16 * args.length);
+        int used = 0;
+        int from = 0;
+        int placeholder;
+        while(used < args.length && (placeholder = template.indexOf("{}", from)) >= 0) {
+            message.append(template, from, placeholder).append(args[used++]);
+            from = placeholder + 2;
+        }
+        message.append(template, from, template.length());
+
+        Throwable thrown = used < args.length && args[args.length - 1] instanceof Throwable t ? t : null;
+        publish(key, level, message.toString(), thrown);
+    }
+
+    /**
+     * Drops records below the key's threshold and repeats of a recently logged exception, then dispatches the rest.
+     * Every enabled record is reported to the flight recorder while a recording runs.
+     */
+    private static void publish(AEGISLogKey key, AEGISLogLevel level, String message, Throwable thrown) {
+        if(!isEnabled(key, level)) {
+            return;
+        }
+
+        AEGISLogRecordEvent event = new AEGISLogRecordEvent();
+        event.begin();
+
+        boolean suppressed = false;
+        if(thrown != null) {
+            long repeated = REPEAT_SUPPRESSOR.admit(key, level, thrown, System.nanoTime());
+            if(repeated < 0) {
+                SUPPRESSED_COUNTER.increment();
+                suppressed = true;
+                startRepeatFlusher();
+            } else if(repeated > 0) {
+                dispatch(key, level, repeatSummary(repeated, thrown.toString()), null);
+            }
+        }
+
+        if(!suppressed) {
+            dispatch(key, level, message, thrown);
+        }
+
+        if(event.shouldCommit()) {
+            event.key = key.name();
+            event.level = level.name();
+            event.messageLength = message.length();
+            event.hasThrowable = thrown != null;
+            event.suppressed = suppressed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts the daemon thread reporting repeats whose suppression window ended without a further repeat, once the first
+     * repeat is suppressed. Without it, a burst of failures that stops would only be summarized on shutdown.
+     */
+    private static void startRepeatFlusher() {
+        if(REPEAT_FLUSHER_STARTED.get() || !REPEAT_FLUSHER_STARTED.compareAndSet(false, true)) {
+            return;
+        }
+
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "AEGIS-LogRepeats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(AEGISLogger::flushRepeats, REPEAT_FLUSH_MILLIS, REPEAT_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Logs the summaries of the suppression windows that have ended. Runs on the repeat flusher thread.
+     */
+    private static void flushRepeats() {
+        for(AEGISRepeatSuppressor.Summary summary : REPEAT_SUPPRESSOR.drainExpired(System.nanoTime())) {
+            dispatch(summary.key(), summary.level(), repeatSummary(summary.repeated(), summary.description()), null);
+        }
+    }
+
+    /**
+     * Routes a record to the asynchronous ring buffer when active, otherwise logs it on the calling thread.
+     */
+    private static void dispatch(AEGISLogKey key, AEGISLogLevel level, String message, Throwable thrown) {
+        RECORD_COUNTERS[key.ordinal()][level.ordinal()].increment();
+
+        AEGISAsyncLogDispatcher dispatcher = asyncDispatcher;
+        if(dispatcher != null && dispatcher.publish(key, level, message, thrown)) {
+            return;
+        }
+
+        AEGIS_LOGGER.log(createRecord(key, level, message, thrown));
+    }
+
+    /**
+     * Builds the message reporting suppressed repeats, e.g. {@code Suppressed 42 Repeats Of java.io.IOException: Disk Full}.
+     */
+    private static String repeatSummary(long repeated, String description) {
+        return "Suppressed " + repeated + (repeated == 1 ? " Repeat Of " : " Repeats Of ") + description;
+    }
+
+    /**
+     * Builds the LogRecord understood by the AEGIS formatter, carrying the key and level as parameters.
+     *
+     * @param key     the source of the log entry
+     * @param level   the severity of the log entry
+     * @param message the log message text
+     * @param thrown  a throwable to attach; may be null
+     * @return the new LogRecord
+     */
+    static LogRecord createRecord(AEGISLogKey key, AEGISLogLevel level, String message, Throwable thrown) {
         LogRecord logRec = new LogRecord(level.level, message);
         logRec.setParameters(new Object[]{key, level});
-        logRec.setThrown(e);
-        AEGIS_LOGGER.log(logRec);
+        logRec.setThrown(thrown);
+        return logRec;
     }
-}
\ No newline at end of file
+}
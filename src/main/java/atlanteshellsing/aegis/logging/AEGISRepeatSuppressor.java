@@ -0,0 +1,182 @@
+package atlanteshellsing.aegis.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Suppresses records whose exception repeats one already logged within a time window.
+ *
+ * <p>Exceptions are fingerprinted by their type and their top {@value #FINGERPRINT_FRAMES} stack frames, so a tool failing
+ * in a loop produces one complete record per window instead of thousands. The first record after a window ends is logged
+ * again, preceded by a summary of how many repeats were suppressed. Summaries of windows that end without a further repeat
+ * are collected by {@link #drainExpired(long)}, which the logger polls periodically, and by {@link #drainPending()} on
+ * shutdown.</p>
+ */
+final class AEGISRepeatSuppressor {
+
+    static final int FINGERPRINT_FRAMES = 5;
+    private static final int MAX_TRACKED = 1024;
+
+    private final ConcurrentHashMap<Fingerprint, Window> windows = new ConcurrentHashMap<>();
+    private volatile long windowNanos;
+
+    /**
+     * Identifies repeats of an exception: the same type thrown from the same place.
+     *
+     * @param type      the exception class name
+     * @param topFrames up to {@value #FINGERPRINT_FRAMES} innermost stack frames
+     */
+    private record Fingerprint(String type, List<StackTraceElement> topFrames) {
+
+        static Fingerprint of(Throwable thrown) {
+            StackTraceElement[] trace = thrown.getStackTrace();
+            return new Fingerprint(thrown.getClass().getName(), List.of(Arrays.copyOf(trace, Math.min(trace.length, FINGERPRINT_FRAMES))));
+        }
+    }
+
+    /** The suppression state of one fingerprint; guarded by its own monitor. */
+    private static final class Window {
+        long startNanos;
+        long suppressed;
+        AEGISLogger.AEGISLogKey key;
+        AEGISLogger.AEGISLogLevel level;
+        String description;
+
+        Window(long startNanos, AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level, String description) {
+            this.startNanos = startNanos;
+            this.key = key;
+            this.level = level;
+            this.description = description;
+        }
+    }
+
+    /**
+     * A summary of repeats that were not logged.
+     *
+     * @param key         the source of the first record of the window
+     * @param level       the severity of the first record of the window
+     * @param description the exception of the first record of the window, as returned by {@link Throwable#toString()}
+     * @param repeated    the number of suppressed records
+     */
+    record Summary(AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level, String description, long repeated) {}
+
+    /**
+     * Creates a suppressor.
+     *
+     * @param windowNanos the suppression window in nanoseconds; 0 disables suppression
+     */
+    AEGISRepeatSuppressor(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Changes the suppression window. Windows already open keep their start time.
+     *
+     * @param windowNanos the suppression window in nanoseconds; 0 disables suppression
+     */
+    void setWindowNanos(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Provides the suppression window.
+     *
+     * @return the window in nanoseconds; 0 if suppression is disabled
+     */
+    long getWindowNanos() { return windowNanos; }
+
+    /**
+     * Decides whether a record carrying the given exception is logged.
+     *
+     * @param key       the source of the record
+     * @param level     the severity of the record
+     * @param thrown    the exception attached to the record
+     * @param nowNanos  the current {@link System#nanoTime()}
+     * @return -1 if the record is a repeat and must be dropped; otherwise the number of repeats suppressed in the window
+     *         that just ended, which the caller reports before logging the record
+     */
+    long admit(AEGISLogger.AEGISLogKey key, AEGISLogger.AEGISLogLevel level, Throwable thrown, long nowNanos) {
+        long window = windowNanos;
+        if(window <= 0) {
+            return 0;
+        }
+
+        Fingerprint fingerprint = Fingerprint.of(thrown);
+        Window state = windows.get(fingerprint);
+        if(state == null) {
+            state = windows.putIfAbsent(fingerprint, new Window(nowNanos, key, level, thrown.toString()));
+            if(state == null) {
+                if(windows.size() > MAX_TRACKED) {
+                    forgetIdle(nowNanos, window);
+                }
+                return 0;
+            }
+        }
+
+        synchronized(state) {
+            if(nowNanos - state.startNanos < window) {
+                state.suppressed++;
+                return -1;
+            }
+
+            long repeated = state.suppressed;
+            state.startNanos = nowNanos;
+            state.suppressed = 0;
+            state.key = key;
+            state.level = level;
+            state.description = thrown.toString();
+            return repeated;
+        }
+    }
+
+    /**
+     * Removes the summaries of every window that has ended and suppressed at least one record, resetting their counts.
+     * The next repeat of such an exception is logged in full without a summary, since its repeats were already reported.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return the summaries of the ended windows
+     */
+    List<Summary> drainExpired(long nowNanos) {
+        return drain(nowNanos, false);
+    }
+
+    /**
+     * Removes the summaries of every window that suppressed at least one record, resetting their counts.
+     *
+     * @return the pending summaries
+     */
+    List<Summary> drainPending() {
+        return drain(0, true);
+    }
+
+    /**
+     * Removes the summaries of the windows that suppressed at least one record and have ended, or of all of them.
+     */
+    private List<Summary> drain(long nowNanos, boolean all) {
+        long window = windowNanos;
+        List<Summary> pending = new ArrayList<>();
+        for(Window state : windows.values()) {
+            synchronized(state) {
+                if(state.suppressed > 0 && (all || nowNanos - state.startNanos >= window)) {
+                    pending.add(new Summary(state.key, state.level, state.description, state.suppressed));
+                    state.suppressed = 0;
+                }
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Stops tracking fingerprints whose window has ended without a suppressed repeat, bounding the memory held for
+     * exceptions that are never seen again.
+     */
+    private void forgetIdle(long nowNanos, long window) {
+        windows.values().removeIf(state -> {
+            synchronized(state) {
+                return state.suppressed == 0 && nowNanos - state.startNanos >= window;
+            }
+        });
+    }
+}
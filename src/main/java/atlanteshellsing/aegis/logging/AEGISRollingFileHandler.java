@@ -0,0 +1,328 @@
+package atlanteshellsing.aegis.logging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes plain-text log records into a directory, rotating the active file by size and by day.
+ *
+ * <p>The active segment is always {@code aegis.log}. Formatted records are collected in a direct buffer and written to
+ * the file channel only when the buffer fills up, when a WARNING or SEVERE record arrives, when {@link #flush()} is
+ * called (once per batch in asynchronous mode) or when a second has passed since the last write. That last check also
+ * runs every second on the background thread, so the tail of a burst reaches the file even if no further record
+ * arrives. On rotation the segment is renamed to {@code aegis-yyyy-MM-dd.N.log}, gzip-compressed on the background
+ * thread and the oldest archives are deleted until both the segment count and the total size limits are met.</p>
+ */
+class AEGISRollingFileHandler extends Handler {
+
+    static final String ACTIVE_FILE_NAME = "aegis.log";
+    static final String SEGMENT_PREFIX = "aegis-";
+
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final Path directory;
+    private final Path activeFile;
+    private final long maxSegmentBytes;
+    private final int maxSegments;
+    private final long maxTotalBytes;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+    private final ScheduledExecutorService archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AEGIS-LogArchiver");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private FileChannel channel;
+    private long segmentBytes;
+    private LocalDate segmentDay;
+    private long lastWrite;
+
+    /**
+     * Opens (or continues) the active segment in {@code directory} and archives segments left over from earlier runs.
+     *
+     * @param directory       the directory receiving the log files; created if missing
+     * @param maxSegmentBytes the size at which the active segment is rotated
+     * @param maxSegments     the maximum number of archived segments kept
+     * @param maxTotalBytes   the maximum combined size of all archived segments
+     * @throws IOException if the directory or the active segment cannot be opened
+     */
+    AEGISRollingFileHandler(Path directory, long maxSegmentBytes, int maxSegments, long maxTotalBytes) throws IOException {
+        this.directory = directory;
+        this.activeFile = directory.resolve(ACTIVE_FILE_NAME);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegments = maxSegments;
+        this.maxTotalBytes = maxTotalBytes;
+
+        setFormatter(new AEGISLogFormatter(false));
+        setLevel(Level.ALL);
+
+        Files.createDirectories(directory);
+        if(Files.exists(activeFile)) {
+            LocalDate lastModified = toDay(Files.getLastModifiedTime(activeFile).toMillis());
+            if(!lastModified.equals(LocalDate.now())) {
+                archiveActiveSegment(lastModified);
+            }
+        }
+        openActiveSegment();
+        archiver.execute(this::archiveLeftovers);
+        archiver.scheduleWithFixedDelay(this::flushIfStale, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void publish(LogRecord logRec) {
+        if(channel == null || !isLoggable(logRec)) {
+            return;
+        }
+
+        String formatted;
+        try {
+            formatted = getFormatter().format(logRec);
+        } catch (RuntimeException e) {
+            reportError("Could not format log record", e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+
+        try {
+            long timestamp = logRec.getInstant().toEpochMilli();
+            LocalDate day = toDay(timestamp);
+            if(day.isAfter(segmentDay) || segmentBytes >= maxSegmentBytes) {
+                rotate();
+            }
+
+            byte[] bytes = formatted.getBytes(StandardCharsets.UTF_8);
+            if(bytes.length > buffer.remaining()) {
+                writeBuffer();
+            }
+            if(bytes.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+            segmentBytes += bytes.length;
+
+            if(logRec.getLevel().intValue() >= Level.WARNING.intValue() || System.currentTimeMillis() - lastWrite >= FLUSH_INTERVAL_MILLIS) {
+                writeBuffer();
+            }
+        } catch (IOException e) {
+            reportError("Could not write log file", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if(channel == null) {
+            return;
+        }
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            reportError("Could not flush log file", e, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            if(channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            reportError("Could not close log file", e, ErrorManager.CLOSE_FAILURE);
+        }
+        channel = null;
+        archiver.shutdown();
+    }
+
+    /**
+     * Writes buffered records that have waited for a second or more. Runs periodically on the archiver thread.
+     */
+    private synchronized void flushIfStale() {
+        if(channel == null || buffer.position() == 0 || System.currentTimeMillis() - lastWrite < FLUSH_INTERVAL_MILLIS) {
+            return;
+        }
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            reportError("Could not flush log file", e, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    /**
+     * Closes the active segment, hands it to the archiver and opens a fresh one.
+     */
+    private void rotate() throws IOException {
+        writeBuffer();
+        channel.close();
+        channel = null;
+        archiveActiveSegment(segmentDay);
+        openActiveSegment();
+    }
+
+    /**
+     * Renames {@code aegis.log} to the next free {@code aegis-<day>.N.log} name and queues it for compression.
+     */
+    private void archiveActiveSegment(LocalDate day) throws IOException {
+        Path target;
+        int index = 0;
+        do {
+            target = directory.resolve(SEGMENT_PREFIX + day + "." + index++ + ".log");
+        } while(Files.exists(target) || Files.exists(target.resolveSibling(target.getFileName() + ".gz")));
+
+        Files.move(activeFile, target, StandardCopyOption.ATOMIC_MOVE);
+        Path segment = target;
+        archiver.execute(() -> {
+            compress(segment);
+            enforceRetention();
+        });
+    }
+
+    private void openActiveSegment() throws IOException {
+        channel = FileChannel.open(activeFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentBytes = channel.size();
+        segmentDay = LocalDate.now();
+        lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes everything collected in the buffer to the channel with as few syscalls as possible.
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+        lastWrite = System.currentTimeMillis();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while(source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    /**
+     * Compresses rotated segments that a previous run did not get to, then applies retention. Runs on the archiver thread.
+     */
+    private void archiveLeftovers() {
+        for(Path segment : listSegments()) {
+            if(segment.getFileName().toString().endsWith(".log")) {
+                compress(segment);
+            }
+        }
+        enforceRetention();
+    }
+
+    /**
+     * Gzips a rotated segment into {@code <segment>.gz} and deletes the original. Runs on the archiver thread.
+     */
+    private void compress(Path segment) {
+        if(!Files.exists(segment)) {
+            return;
+        }
+
+        Path compressed = segment.resolveSibling(segment.getFileName() + ".gz");
+        Path partial = segment.resolveSibling(segment.getFileName() + ".gz.part");
+        try(InputStream in = Files.newInputStream(segment);
+            OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), BUFFER_CAPACITY)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            reportError("Could not compress log segment " + segment, e, ErrorManager.WRITE_FAILURE);
+            return;
+        }
+
+        try {
+            Files.move(partial, compressed, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (IOException e) {
+            reportError("Could not replace log segment " + segment, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * Deletes the oldest archived segments until at most {@code maxSegments} remain and they fit in {@code maxTotalBytes}.
+     * Runs on the archiver thread.
+     */
+    private void enforceRetention() {
+        List<Path> segments = listSegments();
+        segments.sort(Comparator.comparing(AEGISRollingFileHandler::lastModified));
+
+        long totalBytes = 0;
+        for(Path segment : segments) {
+            totalBytes += size(segment);
+        }
+
+        int remaining = segments.size();
+        for(Path segment : segments) {
+            if(remaining <= maxSegments && totalBytes <= maxTotalBytes) {
+                break;
+            }
+            long bytes = size(segment);
+            try {
+                Files.deleteIfExists(segment);
+                totalBytes -= bytes;
+                remaining--;
+            } catch (IOException e) {
+                reportError("Could not delete log segment " + segment, e, ErrorManager.GENERIC_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Lists the rotated segments ({@code aegis-*.log} and {@code aegis-*.log.gz}) in the log directory.
+     */
+    private List<Path> listSegments() {
+        List<Path> segments = new ArrayList<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*.{log,log.gz}")) {
+            stream.forEach(segments::add);
+        } catch (IOException e) {
+            reportError("Could not list log directory", e, ErrorManager.GENERIC_FAILURE);
+        }
+        return segments;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static LocalDate toDay(long epochMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,31 @@
+package atlanteshellsing.aegis.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one create, load, parse or write of the configuration file.
+ */
+@Name("aegis.ConfigFile")
+@Label("Configuration File")
+@Category({"AEGIS", "Configuration"})
+@Description("Creating, loading, parsing or writing configuration.aegis")
+public final class AEGISConfigFileEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("From Snapshot")
+    @Description("True if a load was served from the binary snapshot instead of the XML")
+    public boolean fromSnapshot;
+}
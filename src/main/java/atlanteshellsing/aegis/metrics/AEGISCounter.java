@@ -0,0 +1,38 @@
+package atlanteshellsing.aegis.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic event counter on striped {@link LongAdder} cells, so concurrent increments never contend on one cache line.
+ */
+public final class AEGISCounter implements AEGISMetric {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    AEGISCounter(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String name() { return name; }
+
+    /**
+     * Adds one to the counter.
+     */
+    public void increment() { count.increment(); }
+
+    /**
+     * Adds the given amount to the counter.
+     *
+     * @param amount the amount to add
+     */
+    public void add(long amount) { count.add(amount); }
+
+    /**
+     * Provides the current count. Concurrent updates may or may not be included.
+     *
+     * @return the sum of all increments
+     */
+    public long get() { return count.sum(); }
+}
@@ -0,0 +1,23 @@
+package atlanteshellsing.aegis.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for constructing one of the hardened XML factories, which includes the JAXP service lookup.
+ */
+@Name("aegis.SecureFactory")
+@Label("Secure Factory Construction")
+@Category({"AEGIS", "XML"})
+@Description("Constructing and hardening a secure XML factory")
+public final class AEGISFactoryEvent extends jdk.jfr.Event {
+
+    @Label("Factory")
+    public String factory;
+
+    @Label("Configured")
+    @Description("False if the hardening settings could not be applied")
+    public boolean configured;
+}
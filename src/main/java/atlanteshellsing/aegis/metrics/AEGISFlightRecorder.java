@@ -0,0 +1,101 @@
+package atlanteshellsing.aegis.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Starts and dumps a Java Flight Recorder recording on demand.
+ *
+ * <p>The recording uses the JDK's low-overhead {@code default} settings and keeps the AEGIS events ({@code aegis.*}),
+ * which cost nothing but a branch while no recording runs. Dumps are written as {@code aegis-<timestamp>.jfr} and can be
+ * opened with JDK Mission Control or {@code jfr print}. Startup phases happen before the menu can be used; to capture them
+ * start the JVM with {@code -XX:StartFlightRecording}.</p>
+ */
+public final class AEGISFlightRecorder {
+
+    private static final String RECORDING_NAME = "AEGIS";
+    private static final String SETTINGS = "default";
+    private static final long MAX_RECORDING_BYTES = 100L * 1024 * 1024;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final List<Class<? extends jdk.jfr.Event>> EVENT_TYPES = List.of(AEGISConfigFileEvent.class, AEGISThemeEvent.class,
+            AEGISFactoryEvent.class, AEGISTabEvent.class, AEGISLogRecordEvent.class, AEGISStartupPhaseEvent.class);
+
+    private static Recording recording;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISFlightRecorder() {}
+
+    /**
+     * Starts the recording unless it already runs. Older data is discarded once the recording exceeds 100 MB.
+     *
+     * @throws IOException if the recording settings cannot be read
+     */
+    public static synchronized void start() throws IOException {
+        if(recording != null) {
+            return;
+        }
+
+        Configuration settings;
+        try {
+            settings = Configuration.getConfiguration(SETTINGS);
+        } catch (ParseException e) {
+            throw new IOException("Flight recorder settings '" + SETTINGS + "' could not be read", e);
+        }
+
+        Recording started = new Recording(settings);
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxSize(MAX_RECORDING_BYTES);
+        for(Class<? extends jdk.jfr.Event> type : EVENT_TYPES) {
+            started.enable(type).withoutThreshold();
+        }
+        started.start();
+        recording = started;
+    }
+
+    /**
+     * Checks whether the recording runs.
+     *
+     * @return true between {@link #start()} and {@link #stop()}
+     */
+    public static synchronized boolean isRecording() { return recording != null; }
+
+    /**
+     * Writes everything recorded so far into a new file; the recording keeps running.
+     *
+     * @param directory the directory receiving the file; created if missing
+     * @return the written file
+     * @throws IOException           if the file cannot be written
+     * @throws IllegalStateException if no recording runs
+     */
+    public static synchronized Path dump(Path directory) throws IOException {
+        if(recording == null) {
+            throw new IllegalStateException("No flight recording is running");
+        }
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve("aegis-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    /**
+     * Stops and discards the recording. Safe to call when no recording runs.
+     */
+    public static synchronized void stop() {
+        if(recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
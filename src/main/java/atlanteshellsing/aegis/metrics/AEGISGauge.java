@@ -0,0 +1,27 @@
+package atlanteshellsing.aegis.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Point-in-time value sampled from a supplier whenever it is read, e.g. an open tab count or a pool's idle size.
+ */
+public final class AEGISGauge implements AEGISMetric {
+
+    private final String name;
+    private final LongSupplier value;
+
+    AEGISGauge(String name, LongSupplier value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    @Override
+    public String name() { return name; }
+
+    /**
+     * Samples the current value.
+     *
+     * @return the value reported by the gauge's supplier
+     */
+    public long get() { return value.getAsLong(); }
+}
@@ -0,0 +1,99 @@
+package atlanteshellsing.aegis.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets.
+ *
+ * <p>Bucket {@code i} counts samples in {@code [2^(i-1), 2^i)} nanoseconds, so recording is a leading-zero count and a
+ * {@link LongAdder} increment. Percentiles are reported as the upper bound of the bucket that contains them, which is
+ * accurate to within a factor of two and needs no allocation to compute.</p>
+ */
+public final class AEGISLatencyHistogram implements AEGISMetric {
+
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    AEGISLatencyHistogram(String name) {
+        this.name = name;
+        for(int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public String name() { return name; }
+
+    /**
+     * Records one sample.
+     *
+     * @param nanos the measured duration in nanoseconds; negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        long sample = Math.max(0, nanos);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(sample))].increment();
+        count.increment();
+        totalNanos.add(sample);
+        maxNanos.accumulate(sample);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, as returned by an earlier {@link System#nanoTime()} call.
+     *
+     * @param startNanos the start of the measured operation
+     */
+    public void recordSince(long startNanos) { record(System.nanoTime() - startNanos); }
+
+    /**
+     * Provides the number of recorded samples.
+     *
+     * @return the sample count
+     */
+    public long count() { return count.sum(); }
+
+    /**
+     * Provides the mean of all recorded samples.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public long meanNanos() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : totalNanos.sum() / samples;
+    }
+
+    /**
+     * Provides the largest recorded sample.
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long maxNanos() { return maxNanos.get(); }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket containing it.
+     *
+     * @param percentile the percentile in {@code (0, 100]}, e.g. 50 or 99
+     * @return the estimated latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentileNanos(double percentile) {
+        long samples = count.sum();
+        if(samples == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(samples * percentile / 100.0));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if(seen >= target) {
+                return Math.min(i == 0 ? 0 : 1L << Math.min(i, 62), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+}
@@ -0,0 +1,35 @@
+package atlanteshellsing.aegis.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for publishing one log record, from the log call until the record was queued or written.
+ * Stack traces are off, since the event can fire thousands of times per second.
+ */
+@Name("aegis.LogRecord")
+@Label("Log Record")
+@Category({"AEGIS", "Logging"})
+@Description("Publishing a log record on the calling thread")
+@StackTrace(false)
+public final class AEGISLogRecordEvent extends jdk.jfr.Event {
+
+    @Label("Key")
+    public String key;
+
+    @Label("Level")
+    public String level;
+
+    @Label("Message Length")
+    public int messageLength;
+
+    @Label("Has Throwable")
+    public boolean hasThrowable;
+
+    @Label("Suppressed")
+    @Description("True if the record repeated a recent exception and was dropped")
+    public boolean suppressed;
+}
@@ -0,0 +1,14 @@
+package atlanteshellsing.aegis.metrics;
+
+/**
+ * A named runtime measurement held by {@link AEGISMetrics}.
+ */
+public sealed interface AEGISMetric permits AEGISCounter, AEGISGauge, AEGISLatencyHistogram {
+
+    /**
+     * Provides the unique, dot-separated name of this metric (e.g. {@code config.parse}).
+     *
+     * @return the metric name
+     */
+    String name();
+}
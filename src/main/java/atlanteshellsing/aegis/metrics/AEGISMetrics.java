@@ -0,0 +1,90 @@
+package atlanteshellsing.aegis.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide registry of runtime metrics.
+ *
+ * <p>Metrics are created on first lookup and live for the rest of the process. Lookups go through a concurrent map, so
+ * instrumented code should keep the returned metric in a field instead of looking it up on every event; updating a
+ * metric itself is lock-free.</p>
+ */
+public final class AEGISMetrics {
+
+    private static final ConcurrentSkipListMap<String, AEGISMetric> REGISTRY = new ConcurrentSkipListMap<>();
+    private static final AtomicInteger REGISTRATIONS = new AtomicInteger();
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISMetrics() {}
+
+    /**
+     * Provides the counter registered under {@code name}, creating it if necessary.
+     *
+     * @param name the metric name
+     * @return the counter
+     * @throws IllegalArgumentException if a different kind of metric is registered under {@code name}
+     */
+    public static AEGISCounter counter(String name) {
+        return register(name, AEGISCounter.class, () -> new AEGISCounter(name));
+    }
+
+    /**
+     * Registers a gauge sampling {@code value}, or returns the gauge already registered under {@code name}.
+     *
+     * @param name  the metric name
+     * @param value supplies the gauge's current value; must be cheap and thread-safe
+     * @return the gauge
+     * @throws IllegalArgumentException if a different kind of metric is registered under {@code name}
+     */
+    public static AEGISGauge gauge(String name, LongSupplier value) {
+        return register(name, AEGISGauge.class, () -> new AEGISGauge(name, value));
+    }
+
+    /**
+     * Provides the latency histogram registered under {@code name}, creating it if necessary.
+     *
+     * @param name the metric name
+     * @return the histogram
+     * @throws IllegalArgumentException if a different kind of metric is registered under {@code name}
+     */
+    public static AEGISLatencyHistogram histogram(String name) {
+        return register(name, AEGISLatencyHistogram.class, () -> new AEGISLatencyHistogram(name));
+    }
+
+    /**
+     * Provides a live, read-only view of every registered metric, sorted by name.
+     *
+     * @return the registered metrics
+     */
+    public static Collection<AEGISMetric> all() { return Collections.unmodifiableCollection(REGISTRY.values()); }
+
+    /**
+     * Provides the number of metrics registered so far. Constant-time, so it can be polled to detect new metrics cheaply.
+     *
+     * @return the registered metric count
+     */
+    public static int registrationCount() { return REGISTRATIONS.get(); }
+
+    private static <T extends AEGISMetric> T register(String name, Class<T> type, Supplier<T> factory) {
+        AEGISMetric metric = REGISTRY.get(name);
+        if(metric == null) {
+            T created = factory.get();
+            metric = REGISTRY.putIfAbsent(name, created);
+            if(metric == null) {
+                REGISTRATIONS.incrementAndGet();
+                metric = created;
+            }
+        }
+        if(!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,72 @@
+package atlanteshellsing.aegis.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reports process-level startup time and memory, so the cost of the GUI and headless entry points can be compared.
+ */
+public final class AEGISProcessStats {
+
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+    private static final String RSS_FIELD = "VmRSS:";
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISProcessStats() {}
+
+    /**
+     * Measures the time since the operating system started this process, which includes JVM startup.
+     *
+     * @return the elapsed milliseconds; from JVM start if the process start time is unknown
+     */
+    public static long millisSinceProcessStart() {
+        Instant start = ProcessHandle.current().info().startInstant()
+                .orElseGet(() -> Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime()));
+        return Duration.between(start, Instant.now()).toMillis();
+    }
+
+    /**
+     * Measures the resident set size of this process.
+     *
+     * <p>Read from {@code /proc/self/status} where available. Other systems fall back to the memory committed for the
+     * heap and the non-heap areas, which underestimates the resident size by the JVM's native allocations.</p>
+     *
+     * @return the resident size in bytes
+     */
+    public static long residentBytes() {
+        if(Files.isReadable(PROC_STATUS)) {
+            try {
+                List<String> lines = Files.readAllLines(PROC_STATUS);
+                for(String line : lines) {
+                    if(line.startsWith(RSS_FIELD)) {
+                        // e.g. "VmRSS:     123456 kB"
+                        String kilobytes = line.substring(RSS_FIELD.length()).trim();
+                        return Long.parseLong(kilobytes.substring(0, kilobytes.indexOf(' '))) * 1024;
+                    }
+                }
+            } catch (IOException | RuntimeException ignored) {
+                // Fall back to the committed JVM memory
+            }
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return memory.getHeapMemoryUsage().getCommitted() + memory.getNonHeapMemoryUsage().getCommitted();
+    }
+
+    /**
+     * Formats the startup report logged by every entry point.
+     *
+     * @return e.g. {@code 412 ms after process start, RSS 87 MB}
+     */
+    public static String startupReport() {
+        return millisSinceProcessStart() + " ms after process start, RSS " + residentBytes() / (1024 * 1024) + " MB";
+    }
+}
@@ -0,0 +1,19 @@
+package atlanteshellsing.aegis.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one phase of the application startup, such as the config load or the scene graph.
+ */
+@Name("aegis.StartupPhase")
+@Label("Startup Phase")
+@Category({"AEGIS", "Startup"})
+@StackTrace(false)
+public final class AEGISStartupPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    public String phase;
+}
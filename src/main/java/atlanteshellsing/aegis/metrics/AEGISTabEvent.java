@@ -0,0 +1,24 @@
+package atlanteshellsing.aegis.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for adding or removing a tab of the main tab pane, or for building the content of a lazily
+ * created tab when it is first selected.
+ */
+@Name("aegis.Tab")
+@Label("Tab")
+@Category({"AEGIS", "GUI"})
+public final class AEGISTabEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Open Tabs")
+    public int openTabs;
+}
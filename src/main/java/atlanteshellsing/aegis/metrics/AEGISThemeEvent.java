@@ -0,0 +1,26 @@
+package atlanteshellsing.aegis.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for applying, loading or saving the theme.
+ */
+@Name("aegis.Theme")
+@Label("Theme")
+@Category({"AEGIS", "Theme"})
+@Description("Applying, loading or saving the application theme")
+public final class AEGISThemeEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Theme")
+    public String theme;
+
+    @Label("Scene Changed")
+    @Description("True if an apply replaced stylesheets or the root style, or a save changed the stored preference")
+    public boolean changed;
+}
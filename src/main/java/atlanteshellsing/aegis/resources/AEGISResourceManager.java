@@ -0,0 +1,342 @@
+package atlanteshellsing.aegis.resources;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISCounter;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared access to the application's bundled resources and the images decoded from them.
+ *
+ * <p>Resource paths are resolved once and remembered. If a path does not exist with the exact spelling it was requested
+ * with, it is looked up ignoring case, so a path written as {@code /images/AEGIS.png} still finds {@code /Images/AEGIS.png}
+ * on case-sensitive file systems and inside jars.</p>
+ *
+ * <p>Images are decoded in the background by {@link Image}'s own loader and cached by resource and requested size. The
+ * most recently used images are kept strongly up to a byte budget ({@value #DEFAULT_IMAGE_BUDGET_BYTES} bytes unless
+ * changed with {@link #setImageBudget(long)}), estimated as four bytes per decoded pixel; images beyond the budget stay
+ * cached through soft references until the garbage collector needs the memory. All methods may be called from any thread.</p>
+ */
+public final class AEGISResourceManager {
+
+    /** Icon sizes handed to the window system, so it can pick an exact size instead of rescaling. */
+    public static final List<Integer> ICON_SIZES = List.of(16, 24, 32, 48, 64, 128, 256);
+
+    private static final long DEFAULT_IMAGE_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private static final AEGISCounter IMAGE_HITS = AEGISMetrics.counter("resources.images.hits");
+    private static final AEGISCounter IMAGE_MISSES = AEGISMetrics.counter("resources.images.misses");
+
+    private static final Map<String, Optional<URL>> resolved = new ConcurrentHashMap<>();
+    private static final Map<ImageKey, SoftReference<Image>> images = new HashMap<>();
+    private static final LinkedHashMap<ImageKey, Image> retained = new LinkedHashMap<>(16, 0.75f, true);
+    private static long retainedBytes;
+    private static long imageBudgetBytes = DEFAULT_IMAGE_BUDGET_BYTES;
+
+    static {
+        AEGISMetrics.gauge("resources.images.retainedBytes", AEGISResourceManager::getRetainedBytes);
+    }
+
+    /**
+     * Cache key of a decoded image.
+     *
+     * @param url    the external form of the resolved resource URL
+     * @param width  the requested width; 0 for the natural size
+     * @param height the requested height; 0 for the natural size
+     */
+    private record ImageKey(String url, double width, double height) {}
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISResourceManager() {}
+
+    /**
+     * Resolves a bundled resource, ignoring the case of the path if it does not exist as written.
+     *
+     * @param path the absolute resource path (e.g. {@code /Images/AEGIS.png})
+     * @return the resource URL; Null if no resource matches the path
+     */
+    public static URL resolve(String path) {
+        return resolved.computeIfAbsent(path, AEGISResourceManager::lookup).orElse(null);
+    }
+
+    /**
+     * Provides an image at its natural size, decoding it in the background if it is not cached.
+     *
+     * @param path the absolute resource path of the image
+     * @return the image, possibly still loading; Null if the resource does not exist
+     * @see #getImage(String, double, double)
+     */
+    public static Image getImage(String path) { return getImage(path, 0, 0); }
+
+    /**
+     * Provides an image decoded at the requested size, preserving its aspect ratio. If the image is not cached, decoding
+     * starts in the background and the returned image fills in once done, so it can be shown right away. A failed decode
+     * is logged and not cached.
+     *
+     * @param path   the absolute resource path of the image
+     * @param width  the width to decode to; 0 for the natural width
+     * @param height the height to decode to; 0 for the natural height
+     * @return the image, possibly still loading; Null if the resource does not exist
+     */
+    public static Image getImage(String path, double width, double height) {
+        URL url = resolve(path);
+        if(url == null) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Image Resource Not Found: {}", path);
+            return null;
+        }
+
+        ImageKey key = new ImageKey(url.toExternalForm(), width, height);
+        Image image;
+        synchronized(AEGISResourceManager.class) {
+            SoftReference<Image> reference = images.get(key);
+            image = reference != null ? reference.get() : null;
+            if(image != null) {
+                IMAGE_HITS.increment();
+                if(retained.get(key) == null && image.getProgress() >= 1) {
+                    retain(key, image);
+                }
+                return image;
+            }
+
+            IMAGE_MISSES.increment();
+            image = new Image(key.url(), width, height, true, true, true);
+            images.put(key, new SoftReference<>(image));
+        }
+
+        Image loading = image;
+        whenLoaded(image).whenComplete((loaded, error) -> {
+            synchronized(AEGISResourceManager.class) {
+                if(error != null) {
+                    images.remove(key);
+                } else if(images.get(key) != null && images.get(key).get() == loaded) {
+                    retain(key, loaded);
+                }
+            }
+            if(error != null) {
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Image {} Could Not Be Decoded", key.url(),
+                        loading.getException() != null ? loading.getException() : error);
+            }
+        });
+        return image;
+    }
+
+    /**
+     * Decodes an image in the background and completes once it is ready.
+     *
+     * @param path   the absolute resource path of the image
+     * @param width  the width to decode to; 0 for the natural width
+     * @param height the height to decode to; 0 for the natural height
+     * @return a future completed with the decoded image, or failed if the resource is missing or cannot be decoded
+     */
+    public static CompletableFuture<Image> loadImage(String path, double width, double height) {
+        Image image = getImage(path, width, height);
+        if(image == null) {
+            return CompletableFuture.failedFuture(new IOException("Image resource not found: " + path));
+        }
+        return whenLoaded(image);
+    }
+
+    /**
+     * Decodes an icon in every size of {@link #ICON_SIZES}, for {@code Stage.getIcons()}.
+     *
+     * @param path the absolute resource path of the icon; ideally at least as large as the largest icon size
+     * @return a future completed with the icons, smallest first, once all are decoded
+     */
+    public static CompletableFuture<List<Image>> loadIcons(String path) {
+        List<CompletableFuture<Image>> icons = new ArrayList<>(ICON_SIZES.size());
+        for(int size : ICON_SIZES) {
+            icons.add(loadImage(path, size, size));
+        }
+        return CompletableFuture.allOf(icons.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> icons.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Sets how many bytes of decoded images are kept strongly reachable. Images beyond the budget remain cached only
+     * softly and are decoded again if the garbage collector reclaimed them.
+     *
+     * @param bytes the budget in bytes; 0 keeps every image only softly reachable
+     */
+    public static synchronized void setImageBudget(long bytes) {
+        if(bytes < 0) {
+            throw new IllegalArgumentException("Image budget must not be negative: " + bytes);
+        }
+        imageBudgetBytes = bytes;
+        trimRetained();
+    }
+
+    /**
+     * Provides the estimated size of the images currently kept strongly reachable.
+     *
+     * @return the retained bytes, at four bytes per pixel
+     */
+    public static synchronized long getRetainedBytes() { return retainedBytes; }
+
+    /**
+     * Adds a decoded image to the strongly reachable images and evicts the least recently used ones beyond the budget.
+     */
+    private static void retain(ImageKey key, Image image) {
+        Image previous = retained.put(key, image);
+        if(previous != null) {
+            retainedBytes -= estimateBytes(previous);
+        }
+        retainedBytes += estimateBytes(image);
+        trimRetained();
+    }
+
+    private static void trimRetained() {
+        Iterator<Image> eldest = retained.values().iterator();
+        while(retainedBytes > imageBudgetBytes && eldest.hasNext()) {
+            retainedBytes -= estimateBytes(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    private static long estimateBytes(Image image) {
+        return 4L * (long) Math.ceil(image.getWidth()) * (long) Math.ceil(image.getHeight());
+    }
+
+    /**
+     * Completes once a background-loaded image has finished decoding. Image progress is reported on the FX thread, so
+     * the listeners are registered there and the returned future always completes on the FX thread.
+     */
+    private static CompletableFuture<Image> whenLoaded(Image image) {
+        CompletableFuture<Image> loaded = new CompletableFuture<>();
+        InvalidationListener check = new InvalidationListener() {
+            @Override
+            public void invalidated(Observable observable) {
+                if(image.isError()) {
+                    loaded.completeExceptionally(image.getException() != null ? image.getException() : new IOException("Image could not be decoded: " + image.getUrl()));
+                } else if(image.getProgress() >= 1) {
+                    loaded.complete(image);
+                } else {
+                    return;
+                }
+                image.progressProperty().removeListener(this);
+                image.errorProperty().removeListener(this);
+            }
+        };
+        Runnable register = () -> {
+            image.progressProperty().addListener(check);
+            image.errorProperty().addListener(check);
+            check.invalidated(null);
+        };
+        if(Platform.isFxApplicationThread()) {
+            register.run();
+        } else {
+            Platform.runLater(register);
+        }
+        return loaded;
+    }
+
+    /**
+     * Looks a resource up as written, then ignoring case, segment by segment, below the root this class was loaded from.
+     */
+    private static Optional<URL> lookup(String path) {
+        String absolute = path.startsWith("/") ? path : "/" + path;
+        URL exact = AEGISResourceManager.class.getResource(absolute);
+        if(exact != null) {
+            return Optional.of(exact);
+        }
+
+        try {
+            URL match = lookupIgnoringCase(absolute);
+            if(match != null) {
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.FINE, "Resource {} resolved as {}", path, match);
+            }
+            return Optional.ofNullable(match);
+        } catch (URISyntaxException | IOException | FileSystemNotFoundException | ProviderNotFoundException | IllegalArgumentException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Resource " + path + " Could Not Be Resolved", e);
+            return Optional.empty();
+        }
+    }
+
+    private static URL lookupIgnoringCase(String absolute) throws URISyntaxException, IOException {
+        String classFile = "/" + AEGISResourceManager.class.getName().replace('.', '/') + ".class";
+        URL anchor = AEGISResourceManager.class.getResource(classFile);
+        if(anchor == null) {
+            return null;
+        }
+        URI anchorUri = anchor.toURI();
+
+        if(!"jar".equals(anchorUri.getScheme())) {
+            Path root = Path.of(anchorUri);
+            for(int depth = classFile.split("/").length - 1; depth > 0 && root != null; depth--) {
+                root = root.getParent();
+            }
+            Path match = root != null ? walkIgnoringCase(root, absolute) : null;
+            return match != null ? match.toUri().toURL() : null;
+        }
+
+        FileSystem jarFileSystem;
+        boolean opened = false;
+        try {
+            jarFileSystem = FileSystems.newFileSystem(anchorUri, Map.of());
+            opened = true;
+        } catch (FileSystemAlreadyExistsException e) {
+            jarFileSystem = FileSystems.getFileSystem(anchorUri);
+        }
+        try {
+            Path match = walkIgnoringCase(jarFileSystem.getPath("/"), absolute);
+            return match != null ? AEGISResourceManager.class.getResource(match.toString()) : null;
+        } finally {
+            if(opened) {
+                jarFileSystem.close();
+            }
+        }
+    }
+
+    private static Path walkIgnoringCase(Path root, String absolute) throws IOException {
+        Path current = root;
+        for(String segment : absolute.substring(1).split("/")) {
+            Path next = null;
+            if(Files.isDirectory(current)) {
+                try(DirectoryStream<Path> entries = Files.newDirectoryStream(current)) {
+                    for(Path entry : entries) {
+                        String name = entry.getFileName().toString();
+                        if(name.endsWith("/")) {
+                            name = name.substring(0, name.length() - 1);
+                        }
+                        if(name.equalsIgnoreCase(segment)) {
+                            next = entry;
+                            break;
+                        }
+                    }
+                }
+            }
+            if(next == null) {
+                return null;
+            }
+            current = next;
+        }
+        return Files.isRegularFile(current) ? current : null;
+    }
+}
@@ -0,0 +1,359 @@
+package atlanteshellsing.aegis.structure;
+
+import atlanteshellsing.aegis.custom.factories.AEGISSecureXMLStreamFactory;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader and writer for the {@code aegisConfig} file format.
+ *
+ * <p>Reading walks the file with a hardened {@link XMLStreamReader} and only materializes the requested preference
+ * sections (the direct children of {@code <preferences>}); every other element is skipped by depth counting without
+ * building any nodes, and reading stops as soon as all requested sections have been seen. Writing emits the
+ * {@link AEGISPreferences} snapshot straight to an {@link XMLStreamWriter} without an intermediate DOM.
+ * {@link #readValidated(InputStream)} additionally validates the document against the schema of its declared
+ * {@code schemaVersion} in the same pass.</p>
+ */
+public final class AEGISConfigurationCodec {
+
+    public static final int CURRENT_SCHEMA_VERSION = 2;
+
+    static final String ROOT_ELEMENT = "aegisConfig";
+    static final String PREFERENCES_ELEMENT = "preferences";
+    static final String SCHEMA_VERSION_ATTRIBUTE = "schemaVersion";
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String[] INDENTS = new String[16];
+    private static final String NAME_START_CHARS = "A-Z_a-z\\u00C0-\\u00D6\\u00D8-\\u00F6\\u00F8-\\u02FF\\u0370-\\u037D\\u037F-\\u1FFF\\u200C-\\u200D"
+            + "\\u2070-\\u218F\\u2C00-\\u2FEF\\u3001-\\uD7FF\\uF900-\\uFDCF\\uFDF0-\\uFFFD\\x{10000}-\\x{EFFFF}";
+    /** An XML name without a colon (NCName), as every segment of a preference key becomes an element name. */
+    private static final Pattern ELEMENT_NAME = Pattern.compile("[" + NAME_START_CHARS + "][" + NAME_START_CHARS + "\\-.0-9\\u00B7\\u0300-\\u036F\\u203F-\\u2040]*");
+
+    static {
+        for(int i = 0; i < INDENTS.length; i++) {
+            INDENTS[i] = "\n" + "    ".repeat(i);
+        }
+    }
+
+    /**
+     * A fully read configuration document.
+     *
+     * @param schemaVersion the {@code schemaVersion} declared by the document
+     * @param preferences   the preferences stored in the document, as written in that schema version
+     */
+    public record Document(int schemaVersion, AEGISPreferences preferences) {}
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISConfigurationCodec() {}
+
+    /**
+     * Reads every preference stored in a configuration file.
+     *
+     * @param configFile the configuration file to read
+     * @return the preferences stored in the file
+     * @throws IOException        if the file cannot be read
+     * @throws XMLStreamException if the file is not a well-formed {@code aegisConfig} document or declares a DOCTYPE
+     */
+    public static AEGISPreferences read(Path configFile) throws IOException, XMLStreamException {
+        return read(configFile, null);
+    }
+
+    /**
+     * Reads the requested preference sections of a configuration file.
+     *
+     * @param configFile the configuration file to read
+     * @param sections   the names of the {@code <preferences>} children to read (e.g. {@code theme}), or {@code null} for all
+     * @return the preferences of the requested sections
+     * @throws IOException        if the file cannot be read
+     * @throws XMLStreamException if the file is not a well-formed {@code aegisConfig} document or declares a DOCTYPE
+     */
+    public static AEGISPreferences read(Path configFile, Set<String> sections) throws IOException, XMLStreamException {
+        try(InputStream in = new BufferedInputStream(Files.newInputStream(configFile), READ_BUFFER_SIZE)) {
+            return read(in, sections);
+        }
+    }
+
+    /**
+     * Reads the requested preference sections from a configuration stream. The stream is not closed.
+     *
+     * @param in       the configuration XML
+     * @param sections the names of the {@code <preferences>} children to read, or {@code null} for all
+     * @return the preferences of the requested sections
+     * @throws XMLStreamException if the input is not a well-formed {@code aegisConfig} document or declares a DOCTYPE
+     */
+    public static AEGISPreferences read(InputStream in, Set<String> sections) throws XMLStreamException {
+        XMLStreamReader reader = AEGISSecureXMLStreamFactory.getShared().createReader(in);
+        try {
+            moveToRoot(reader);
+            return new AEGISPreferences(readRoot(reader, sections));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads a complete configuration stream and validates it against the schema of its declared {@code schemaVersion}
+     * while reading. The stream is not closed.
+     *
+     * <p>Validation does not need a second walk over the document: the first violation aborts the read at the
+     * offending element, so malformed files fail fast.</p>
+     *
+     * @param in the configuration XML
+     * @return the schema version and preferences of the document
+     * @throws XMLStreamException if the input is not well-formed, declares a DOCTYPE, declares an unsupported schema
+     *                            version or does not match its schema
+     */
+    public static Document readValidated(InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = AEGISSecureXMLStreamFactory.getShared().createReader(in);
+        try {
+            moveToRoot(reader);
+            int version = readSchemaVersion(reader);
+
+            XMLStreamReader validating = new AEGISSchemaValidatingReader(reader, AEGISConfigurationSchemas.forVersion(version));
+            TreeMap<String, String> values = readRoot(validating, null);
+            while(validating.hasNext()) {
+                // Forward the rest of the document, so constraints checked at its end are validated as well.
+                validating.next();
+            }
+            return new Document(version, new AEGISPreferences(values));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes a complete, indented configuration document for the given preferences. The stream is flushed but not closed.
+     *
+     * @param out         the destination stream
+     * @param preferences the preferences to write
+     * @throws XMLStreamException if the document cannot be written
+     */
+    public static void write(OutputStream out, AEGISPreferences preferences) throws XMLStreamException {
+        XMLStreamWriter writer = AEGISSecureXMLStreamFactory.getShared().createWriter(out);
+        try {
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeCharacters(INDENTS[0]);
+            writer.writeStartElement(ROOT_ELEMENT);
+            writer.writeAttribute(SCHEMA_VERSION_ATTRIBUTE, String.valueOf(CURRENT_SCHEMA_VERSION));
+            writer.writeCharacters(INDENTS[1]);
+            writer.writeStartElement(PREFERENCES_ELEMENT);
+
+            // Keys are sorted, so every group of keys sharing a path prefix is contiguous.
+            List<String> open = new ArrayList<>();
+            for(Map.Entry<String, String> entry : preferences.values().entrySet()) {
+                String[] segments = entry.getKey().split("\\.");
+
+                int common = 0;
+                while(common < open.size() && common < segments.length - 1 && open.get(common).equals(segments[common])) {
+                    common++;
+                }
+                while(open.size() > common) {
+                    open.remove(open.size() - 1);
+                    writer.writeCharacters(indent(2 + open.size()));
+                    writer.writeEndElement();
+                }
+                for(int i = common; i < segments.length - 1; i++) {
+                    writer.writeCharacters(indent(2 + open.size()));
+                    writer.writeStartElement(segments[i]);
+                    open.add(segments[i]);
+                }
+
+                writer.writeCharacters(indent(2 + open.size()));
+                writer.writeStartElement(segments[segments.length - 1]);
+                writer.writeCharacters(entry.getValue());
+                writer.writeEndElement();
+            }
+            while(!open.isEmpty()) {
+                open.remove(open.size() - 1);
+                writer.writeCharacters(indent(2 + open.size()));
+                writer.writeEndElement();
+            }
+
+            writer.writeCharacters(INDENTS[1]);
+            writer.writeEndElement();
+            writer.writeCharacters(INDENTS[0]);
+            writer.writeEndElement();
+            writer.writeCharacters(INDENTS[0]);
+            writer.writeEndDocument();
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Checks that preferences can be stored without losing them: every segment of every key must be an XML name
+     * without a colon, and the document {@link #write(OutputStream, AEGISPreferences)} produces must match the current
+     * schema and read back as the same preferences. The document is only written to memory.
+     *
+     * @param preferences the preferences about to be stored
+     * @throws XMLStreamException describing the first key or value that cannot be stored
+     */
+    public static void checkWritable(AEGISPreferences preferences) throws XMLStreamException {
+        for(String key : preferences.values().keySet()) {
+            for(String segment : key.split("\\.", -1)) {
+                if(!ELEMENT_NAME.matcher(segment).matches()) {
+                    throw new XMLStreamException("Key '" + key + "' is not a dotted path of XML element names");
+                }
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, preferences);
+        Document written = readValidated(new ByteArrayInputStream(out.toByteArray()));
+        if(!written.preferences().equals(preferences)) {
+            throw new XMLStreamException("Preferences would read back as " + written.preferences().values() + ", not as written");
+        }
+    }
+
+    /**
+     * Advances the reader to the root element and checks its name.
+     */
+    private static void moveToRoot(XMLStreamReader reader) throws XMLStreamException {
+        while(reader.next() != XMLStreamConstants.START_ELEMENT) {
+            // Skip prolog, comments and processing instructions.
+        }
+        if(!ROOT_ELEMENT.equals(reader.getLocalName())) {
+            throw new XMLStreamException("Expected <" + ROOT_ELEMENT + "> but found <" + reader.getLocalName() + ">", reader.getLocation());
+        }
+    }
+
+    /**
+     * Parses the {@code schemaVersion} attribute of the root element the reader is positioned on.
+     */
+    private static int readSchemaVersion(XMLStreamReader reader) throws XMLStreamException {
+        String value = reader.getAttributeValue(null, SCHEMA_VERSION_ATTRIBUTE);
+        int version;
+        try {
+            version = value == null ? -1 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            version = -1;
+        }
+        if(version < 1 || version > CURRENT_SCHEMA_VERSION) {
+            throw new XMLStreamException("Unsupported " + SCHEMA_VERSION_ATTRIBUTE + " '" + value + "'; expected 1 to " + CURRENT_SCHEMA_VERSION, reader.getLocation());
+        }
+        return version;
+    }
+
+    /**
+     * Reads the root element's children up to and including {@code <preferences>}, skipping anything else.
+     */
+    private static TreeMap<String, String> readRoot(XMLStreamReader reader, Set<String> sections) throws XMLStreamException {
+        TreeMap<String, String> values = new TreeMap<>();
+        while(true) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.END_ELEMENT) {
+                return values;
+            }
+            if(event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            if(PREFERENCES_ELEMENT.equals(reader.getLocalName())) {
+                readPreferences(reader, sections, values);
+                return values;
+            }
+            skipElement(reader);
+        }
+    }
+
+    /**
+     * Reads the children of {@code <preferences>}, materializing requested sections and skipping the rest.
+     * Returns early once every requested section has been read.
+     */
+    private static void readPreferences(XMLStreamReader reader, Set<String> sections, Map<String, String> values) throws XMLStreamException {
+        int found = 0;
+        while(true) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.END_ELEMENT) {
+                return;
+            }
+            if(event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if(sections == null || sections.contains(name)) {
+                readElement(reader, name, values);
+                if(sections != null && ++found == sections.size()) {
+                    return;
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    /**
+     * Reads the element the reader is positioned on. Leaf elements store their trimmed text under {@code path};
+     * elements with child elements recurse, extending the dotted path.
+     */
+    private static void readElement(XMLStreamReader reader, String path, Map<String, String> values) throws XMLStreamException {
+        StringBuilder text = null;
+        boolean group = false;
+
+        while(true) {
+            switch(reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    group = true;
+                    readElement(reader, path + "." + reader.getLocalName(), values);
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    if(!group) {
+                        if(text == null) {
+                            text = new StringBuilder();
+                        }
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if(!group) {
+                        values.put(path, text == null ? "" : text.toString().trim());
+                    }
+                    return;
+                }
+                default -> {
+                    // Comments and processing instructions carry no preference data.
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips the element the reader is positioned on, including all of its descendants, without materializing anything.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while(depth > 0) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if(event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String indent(int level) {
+        return level < INDENTS.length ? INDENTS[level] : "\n" + "    ".repeat(level);
+    }
+}
@@ -1,31 +1,70 @@
 package atlanteshellsing.aegis.structure;
 
-import atlanteshellsing.aegis.custom.factories.AEGISSecureDocumentBuilderFactory;
-import atlanteshellsing.aegis.custom.factories.AEGISSecureTransformerFactory;
 import atlanteshellsing.aegis.logging.AEGISLogger;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import atlanteshellsing.aegis.metrics.AEGISConfigFileEvent;
+import atlanteshellsing.aegis.metrics.AEGISLatencyHistogram;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
 public class AEGISConfigurationManager {
 
     public static final Path userAppDataDir = getUserAppDataPath();
     public static final Path configurationDir = userAppDataDir.resolve("Configuration");
     public static final Path userConfigFile = configurationDir.resolve("configuration.aegis");
+    public static final Path logsDir = userAppDataDir.resolve("Logs");
+    public static final Path themesDir = userAppDataDir.resolve("Themes");
+    public static final Path recordingsDir = userAppDataDir.resolve("Recordings");
+    static final Path userConfigSnapshotFile = configurationDir.resolve("configuration.aegis.snap");
+
+    private static final long WRITE_DEBOUNCE_MILLIS = 250;
+    private static final long WATCH_DEBOUNCE_MILLIS = 200;
+    private static final long NO_KNOWN_CONTENT = Long.MIN_VALUE;
+    private static final String REPEAT_WINDOW_SECONDS = "repeatWindowSeconds";
+    private static final long DEFAULT_REPEAT_WINDOW_SECONDS = 10;
+    private static final AEGISLatencyHistogram PARSE_LATENCY = AEGISMetrics.histogram("config.parse");
+    private static final AEGISLatencyHistogram SAVE_LATENCY = AEGISMetrics.histogram("config.save");
+    private static final AEGISLatencyHistogram SNAPSHOT_LOAD_LATENCY = AEGISMetrics.histogram("config.load.snapshot");
+    private static final AEGISLatencyHistogram XML_LOAD_LATENCY = AEGISMetrics.histogram("config.load.xml");
+
+    private static final AtomicReference<AEGISPreferences> preferences = new AtomicReference<>(AEGISPreferences.defaults());
+    private static final AEGISConfigurationWriter writer = new AEGISConfigurationWriter(WRITE_DEBOUNCE_MILLIS);
+    private static final AEGISConfigurationWatcher watcher = new AEGISConfigurationWatcher(userConfigFile, WATCH_DEBOUNCE_MILLIS,
+            () -> writer.execute(AEGISConfigurationManager::reloadIfChanged));
+    private static final List<AEGISPreferencesListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** CRC32C of the configuration file contents last loaded or written by the application. */
+    private static volatile long knownContentCrc = NO_KNOWN_CONTENT;
+
+    /** True while the configuration file failed validation and could not be backed up, so it must not be overwritten. */
+    private static volatile boolean keepInvalidFile;
+
+    /**
+     * One replacement of the in-memory preferences.
+     *
+     * @param previous the snapshot that was replaced
+     * @param next     the snapshot now held
+     */
+    private record Change(AEGISPreferences previous, AEGISPreferences next) {}
 
     /**
  * Prevents instantiation of AEGISConfigurationManager.
@@ -48,66 +87,466 @@ private AEGISConfigurationManager() {}
 
     /**
      * Initializes the user's configuration storage by ensuring the configuration directory
-     * and a "Logs" subdirectory exist, and by creating the default configuration file if missing.
+     * and a "Logs" subdirectory exist, by starting file logging into the "Logs" directory, by creating
+     * the default configuration file if missing, and by loading the stored preferences into memory.
      *
-     * <p>On I/O failure, a severe error is logged and initialization stops.</p>
+     * <p>On I/O failure, a severe error is logged and initialization stops; the in-memory defaults stay in effect.</p>
      */
     public static void initUserConfig() {
+        if(initDirectories()) {
+            initConfiguration();
+        }
+    }
+
+    /**
+     * Ensures the configuration and "Logs" directories exist and starts file logging into the "Logs" directory.
+     * This is the file-system phase of {@link #initUserConfig()} and may run on any thread.
+     *
+     * @return true if the directories exist; false if they could not be created (a severe error is logged)
+     */
+    public static boolean initDirectories() {
         try {
                 Files.createDirectories(configurationDir);
-                Files.createDirectories(userAppDataDir.resolve("Logs"));
-
-                createConfigFile();
+                Files.createDirectories(logsDir);
+                AEGISLogger.enableFileLogging(logsDir);
+                return true;
 
         } catch (IOException e) {
             AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Configuration Files Could Not Be Created", e);
+            return false;
         }
     }
 
+    /**
+     * Creates the default configuration file if missing and loads the stored preferences into memory.
+     * This is the configuration phase of {@link #initUserConfig()}; it requires {@link #initDirectories()} to have
+     * succeeded and may run on any thread.
+     */
+    public static void initConfiguration() {
+        createConfigFile();
+        loadPreferences();
+    }
+
     /**
      * Creates the default user configuration file at the configured path if it does not already exist.
      *
-     * The created file is an XML configuration with a root element `aegisConfig` (attribute `schemaVersion="1"`)
+     * The created file is an XML configuration with a root element `aegisConfig` (attribute `schemaVersion` set to the current schema version)
      * and a `preferences` child containing a `theme` element set to `LightTheme`.
      * If the configuration file already exists, the method returns without modifying it.
      */
     private static void createConfigFile() {
+        if(Files.exists(userConfigFile)) {
+            return;
+        }
+
+        writeConfiguration(AEGISPreferences.defaults(), "create");
+    }
+
+    /**
+     * Loads the configuration file once and replaces the in-memory preference model with its contents.
+     *
+     * <p>The file is read once and fingerprinted. If the binary snapshot next to it was derived from exactly these
+     * contents, the preferences are taken from the memory-mapped snapshot; otherwise the XML is parsed and validated
+     * against the schema of its version in one pass, files of an older schema version are migrated and written back,
+     * and the snapshot is regenerated on the writer thread. The load time of either path is logged and recorded in the
+     * {@code config.load.snapshot} or {@code config.load.xml} metric. If the file cannot be read, is malformed or does
+     * not match its schema, a severe error is logged as soon as the problem is found and the defaults are used instead.
+     * A malformed or invalid file is backed up first, see {@link #backUpInvalidFile(byte[])}, so the next preference
+     * write cannot lose it.</p>
+     *
+     * @return the preferences now held in memory
+     */
+    public static AEGISPreferences loadPreferences() {
+        long start = System.nanoTime();
+        AEGISConfigFileEvent event = new AEGISConfigFileEvent();
+        event.begin();
+        long size = 0;
+        boolean fromSnapshot = false;
+        byte[] xml = null;
+        AEGISPreferences loaded;
+        try {
+            long modifiedMillis = Files.getLastModifiedTime(userConfigFile).toMillis();
+            xml = Files.readAllBytes(userConfigFile);
+            size = xml.length;
+            AEGISConfigurationSnapshot.Fingerprint fingerprint = AEGISConfigurationSnapshot.Fingerprint.of(xml, modifiedMillis);
+            knownContentCrc = fingerprint.crc();
+
+            loaded = AEGISConfigurationSnapshot.read(userConfigSnapshotFile, fingerprint);
+            if(loaded != null) {
+                fromSnapshot = true;
+                SNAPSHOT_LOAD_LATENCY.recordSince(start);
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Configuration loaded from snapshot in {} ms", formatMillisSince(start));
+            } else {
+                AEGISConfigurationCodec.Document document = readConfiguration(xml);
+                loaded = upgrade(document, fingerprint);
+                XML_LOAD_LATENCY.recordSince(start);
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Configuration loaded from XML in {} ms", formatMillisSince(start));
+            }
+            keepInvalidFile = false;
+        } catch (IOException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Configuration File Could Not Be Read", e);
+            loaded = AEGISPreferences.defaults();
+        } catch (XMLStreamException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Configuration File Could Not Be Read", e);
+            if(xml != null) {
+                backUpInvalidFile(xml);
+            }
+            loaded = AEGISPreferences.defaults();
+        }
+
+        preferences.set(loaded);
+        applyLoggingPreferences(loaded);
+        commitFileEvent(event, "load", size, fromSnapshot);
+        return loaded;
+    }
+
+    /**
+     * Starts watching the configuration file for edits made outside the application, e.g. by hand or by deployment
+     * scripts. Bursts of file events are debounced; the file is then re-read only if its content hash differs from the
+     * content the application last loaded or wrote itself, and registered {@link AEGISPreferencesListener}s are told
+     * which preferences changed. Calling this method again has no effect.
+     */
+    public static void startWatching() {
         try {
+            watcher.start();
+        } catch (IOException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Configuration File Changes Will Not Be Picked Up", e);
+        }
+    }
+
+    /**
+     * Registers a listener notified when an edited configuration file has been reloaded.
+     *
+     * @param listener the listener; called on the configuration writer thread
+     */
+    public static void addPreferencesListener(AEGISPreferencesListener listener) { listeners.add(listener); }
+
+    /**
+     * Removes a listener registered with {@link #addPreferencesListener(AEGISPreferencesListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public static void removePreferencesListener(AEGISPreferencesListener listener) { listeners.remove(listener); }
+
+    /**
+     * Re-reads the configuration file after the watcher saw it change.
+     *
+     * <p>Files whose content hash matches what the application last loaded or wrote (its own saves, or a touch without
+     * changes) are ignored. Otherwise the preferences are replaced, the snapshot is regenerated, changed log thresholds
+     * take effect, and the listeners receive only the changed preference paths. If the edited file cannot be parsed,
+     * a warning is logged, the current preferences stay in effect and the edited file is backed up before a later
+     * preference write replaces it.</p>
+     *
+     * <p>Runs on the writer thread, so it never overlaps a write. A change made in the application before the reload
+     * whose write is still pending is superseded by the edited file: the writer skips snapshots that are no longer the
+     * current preferences, so it cannot overwrite the edit with a state the edit never saw.</p>
+     */
+    static void reloadIfChanged() {
+        long start = System.nanoTime();
+        try {
+            long modifiedMillis = Files.getLastModifiedTime(userConfigFile).toMillis();
+            byte[] xml = Files.readAllBytes(userConfigFile);
+            AEGISConfigurationSnapshot.Fingerprint fingerprint = AEGISConfigurationSnapshot.Fingerprint.of(xml, modifiedMillis);
+            if(fingerprint.crc() == knownContentCrc) {
+                return;
+            }
 
-            if(Files.exists(userConfigFile)) {
+            AEGISConfigurationCodec.Document document;
+            try {
+                document = readConfiguration(xml);
+            } catch (XMLStreamException e) {
+                knownContentCrc = fingerprint.crc();
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Edited Configuration File Could Not Be Read; Keeping Current Settings", e);
+                backUpInvalidFile(xml);
                 return;
             }
+            knownContentCrc = fingerprint.crc();
+            keepInvalidFile = false;
+            AEGISPreferences reloaded = upgrade(document, fingerprint);
+            AEGISPreferences previous = change(current -> reloaded).previous();
+
+            Set<String> changed = previous.diff(reloaded);
+            if(changed.isEmpty()) {
+                return;
+            }
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Configuration reloaded in {} ms; changed: {}",
+                    formatMillisSince(start), changed);
+
+            applyLoggingPreferences(reloaded);
+            for(AEGISPreferencesListener listener : listeners) {
+                try {
+                    listener.preferencesChanged(previous, reloaded, changed);
+                } catch (RuntimeException e) {
+                    AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Preferences Listener Failed", e);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Replaced non-atomically; the event for the new file follows.
+        } catch (IOException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Edited Configuration File Could Not Be Read; Keeping Current Settings", e);
+        }
+    }
+
+    /**
+     * Provides the current in-memory preferences. Never touches the disk.
+     *
+     * @return the current preference snapshot
+     */
+    public static AEGISPreferences getPreferences() { return preferences.get(); }
+
+    /**
+     * Atomically updates the in-memory preferences and schedules the result to be persisted in the background.
+     *
+     * <p>The update function may be invoked more than once under contention and must therefore be side-effect free.
+     * If it returns the unchanged snapshot, nothing is written.</p>
+     *
+     * @param update function deriving the new snapshot from the current one
+     * @return the preferences now held in memory
+     */
+    public static AEGISPreferences updatePreferences(UnaryOperator<AEGISPreferences> update) {
+        Change change = change(update);
+        if(!change.next().equals(change.previous())) {
+            applyLoggingPreferences(change.next());
+            writer.submit(change.next());
+        }
+        return change.next();
+    }
+
+    /**
+     * Checks whether a snapshot is still the one held in memory. The writer only persists current snapshots; one
+     * replaced by a reload of the edited file is dropped.
+     *
+     * @param snapshot a snapshot returned by {@link #updatePreferences(UnaryOperator)}
+     * @return true if no later update or reload replaced it
+     */
+    static boolean isCurrent(AEGISPreferences snapshot) { return preferences.get() == snapshot; }
+
+    /**
+     * Replaces the in-memory preferences by applying an update to the current snapshot, retrying under contention.
+     *
+     * @param update function deriving the new snapshot from the current one
+     * @return the replaced and the new snapshot
+     */
+    private static Change change(UnaryOperator<AEGISPreferences> update) {
+        AEGISPreferences previous;
+        AEGISPreferences next;
+        do {
+            previous = preferences.get();
+            next = update.apply(previous);
+        } while (!preferences.compareAndSet(previous, next));
+        return new Change(previous, next);
+    }
+
+    /**
+     * Applies the per-key log thresholds stored under {@code logging.<KEY>} (e.g. {@code <logging><AEGIS_TOOL>FINE</AEGIS_TOOL></logging>})
+     * and the exception repeat window stored under {@code logging.repeatWindowSeconds}.
+     * Keys without a stored threshold log everything; unknown level names are reported as a warning and ignored.
+     * Without a stored window, repeats are suppressed for 10 seconds.
+     *
+     * @param snapshot the preferences holding the logging settings
+     */
+    private static void applyLoggingPreferences(AEGISPreferences snapshot) {
+        for(AEGISLogger.AEGISLogKey key : AEGISLogger.AEGISLogKey.values()) {
+            String value = snapshot.get(AEGISPreferences.LOGGING + "." + key.name());
+            if(value == null) {
+                AEGISLogger.setThreshold(key, AEGISLogger.AEGISLogLevel.FINE);
+                continue;
+            }
+
+            try {
+                AEGISLogger.setThreshold(key, AEGISLogger.AEGISLogLevel.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Unknown Log Level '{}' For {}", value, key);
+            }
+        }
+
+        String window = snapshot.get(AEGISPreferences.LOGGING + "." + REPEAT_WINDOW_SECONDS);
+        try {
+            AEGISLogger.setRepeatWindow(Duration.ofSeconds(window == null ? DEFAULT_REPEAT_WINDOW_SECONDS : Long.parseLong(window.trim())));
+        } catch (IllegalArgumentException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Invalid Log Repeat Window '{}'", window);
+        }
+    }
+
+    /**
+     * Blocks until every pending preference change has been written to disk.
+     */
+    public static void flush() { writer.flush(); }
+
+    /**
+     * Stops watching the configuration file, writes any pending preference change and stops the background writer.
+     * Intended to be called once on application shutdown.
+     */
+    public static void shutdown() {
+        watcher.close();
+        writer.shutdown();
+    }
+
+    /**
+     * Parses configuration XML, validating it against the schema of its declared version in the same pass.
+     *
+     * @param xml the configuration XML
+     * @return the schema version and preferences stored in the XML
+     * @throws XMLStreamException if the input is not a well-formed, valid configuration document
+     */
+    static AEGISConfigurationCodec.Document readConfiguration(byte[] xml) throws XMLStreamException {
+        long start = System.nanoTime();
+        AEGISConfigFileEvent event = new AEGISConfigFileEvent();
+        event.begin();
+        try {
+            return AEGISConfigurationCodec.readValidated(new ByteArrayInputStream(xml));
+        } finally {
+            PARSE_LATENCY.recordSince(start);
+            commitFileEvent(event, "parse", xml.length, false);
+        }
+    }
+
+    /**
+     * Copies configuration file contents that failed to parse or validate next to the file, as
+     * {@code configuration.aegis.<crc>.invalid}, so that the next preference write, which replaces the file, does not
+     * lose a hand edit. Copies of the same contents share a name and are written once. If no copy can be made, the file
+     * is kept and preference changes are only held in memory until a valid file is loaded.
+     *
+     * @param xml the contents read from the configuration file
+     */
+    private static void backUpInvalidFile(byte[] xml) {
+        CRC32C crc = new CRC32C();
+        crc.update(xml);
+        Path backup = userConfigFile.resolveSibling(String.format(Locale.ROOT, "%s.%08x.invalid", userConfigFile.getFileName(), crc.getValue()));
+        try {
+            if(!Files.exists(backup)) {
+                Path tempFile = backup.resolveSibling(backup.getFileName() + ".tmp");
+                Files.write(tempFile, xml);
+                moveIntoPlace(tempFile, backup);
+            }
+            keepInvalidFile = false;
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Invalid Configuration File Backed Up To {}", backup);
+        } catch (IOException e) {
+            keepInvalidFile = true;
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Invalid Configuration File Could Not Be Backed Up; It Will Not Be Overwritten", e);
+        }
+    }
 
-            DocumentBuilderFactory factory = new AEGISSecureDocumentBuilderFactory().getSecureFactory();
-            DocumentBuilder builder = factory.newDocumentBuilder();
+    /**
+     * Serializes a preference snapshot into the user configuration file.
+     *
+     * <p>The document is streamed to a temporary file in the configuration directory first and then moved over the
+     * existing file, so readers never observe a partially written configuration. The binary snapshot is then refreshed
+     * from the checksum computed while writing. Failures are logged as severe.</p>
+     *
+     * @param snapshot the preferences to write
+     */
+    static void writeConfiguration(AEGISPreferences snapshot) {
+        writeConfiguration(snapshot, "write");
+    }
 
-            Document doc = builder.newDocument();
+    /**
+     * Serializes a preference snapshot into the user configuration file, reporting it to the flight recorder as the given operation.
+     *
+     * @param snapshot  the preferences to write
+     * @param operation the operation name of the flight recorder event, {@code create} or {@code write}
+     */
+    private static void writeConfiguration(AEGISPreferences snapshot, String operation) {
+        if(keepInvalidFile) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Configuration File Not Written; It Holds Invalid Contents That Could Not Be Backed Up");
+            return;
+        }
 
-            Element root = doc.createElement("aegisConfig");
-            root.setAttribute("schemaVersion", "1");
-            doc.appendChild(root);
+        Path tempFile = userConfigFile.resolveSibling(userConfigFile.getFileName() + ".tmp");
+        long start = System.nanoTime();
+        AEGISConfigFileEvent event = new AEGISConfigFileEvent();
+        event.begin();
+        long size = 0;
+        try {
+            CRC32C crc = new CRC32C();
+            try(OutputStream out = new BufferedOutputStream(new CheckedOutputStream(Files.newOutputStream(tempFile), crc))) {
+                AEGISConfigurationCodec.write(out, snapshot);
+            }
+            size = Files.size(tempFile);
+            knownContentCrc = (int) crc.getValue();
+            moveIntoPlace(tempFile, userConfigFile);
 
-            Element pref = doc.createElement("preferences");
-            Element theme = doc.createElement("theme");
-            theme.appendChild(doc.createTextNode("LightTheme"));
-            pref.appendChild(theme);
+            long modifiedMillis = Files.getLastModifiedTime(userConfigFile).toMillis();
+            writeSnapshot(new AEGISConfigurationSnapshot.Fingerprint(size, modifiedMillis, (int) crc.getValue()), snapshot);
 
-            root.appendChild(pref);
+        } catch (XMLStreamException | IOException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Could not write Configuration File", e);
+        } finally {
+            SAVE_LATENCY.recordSince(start);
+            commitFileEvent(event, operation, size, false);
+        }
+    }
 
-            TransformerFactory transformerFactory = new AEGISSecureTransformerFactory().getSecureFactory();
-            transformerFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+    /**
+     * Completes a configuration file event. Costs a single check while no flight recording runs.
+     *
+     * @param event        the event begun when the operation started
+     * @param operation    the operation name, e.g. {@code load}
+     * @param bytes        the size of the configuration XML
+     * @param fromSnapshot true if a load was served from the binary snapshot
+     */
+    private static void commitFileEvent(AEGISConfigFileEvent event, String operation, long bytes, boolean fromSnapshot) {
+        if(event.shouldCommit()) {
+            event.operation = operation;
+            event.path = userConfigFile.toString();
+            event.bytes = bytes;
+            event.fromSnapshot = fromSnapshot;
+            event.commit();
+        }
+    }
 
-            DOMSource source = new DOMSource(doc);
-            StreamResult result = new StreamResult(AEGISConfigurationManager.userConfigFile.toFile());
+    /**
+     * Brings a parsed document up to the current schema version. Current documents only get their snapshot regenerated
+     * on the writer thread; older ones are migrated and the upgraded file is written back atomically, which also
+     * refreshes the snapshot.
+     *
+     * @param document    the parsed document
+     * @param fingerprint the fingerprint of the file the document was read from
+     * @return the preferences in the current schema version
+     */
+    private static AEGISPreferences upgrade(AEGISConfigurationCodec.Document document, AEGISConfigurationSnapshot.Fingerprint fingerprint) {
+        if(document.schemaVersion() == AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION) {
+            writer.execute(() -> writeSnapshot(fingerprint, document.preferences()));
+            return document.preferences();
+        }
 
-            transformer.transform(source, result);
+        AEGISPreferences migrated = AEGISConfigurationMigrations.migrate(document.schemaVersion(), document.preferences());
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "Migrating configuration from schema version {} to {}",
+                document.schemaVersion(), AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION);
+        writer.execute(() -> writeConfiguration(migrated));
+        return migrated;
+    }
 
-        } catch (ParserConfigurationException | TransformerException e) {
-            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Could not make Configuration File", e);
+    /**
+     * Refreshes the binary snapshot. A failure only costs the next start an XML parse, so it is logged as a warning.
+     *
+     * @param source   the fingerprint of the XML file holding {@code snapshot}
+     * @param snapshot the preferences to store
+     */
+    private static void writeSnapshot(AEGISConfigurationSnapshot.Fingerprint source, AEGISPreferences snapshot) {
+        try {
+            AEGISConfigurationSnapshot.write(userConfigSnapshotFile, source, snapshot);
+        } catch (IOException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Configuration Snapshot Could Not Be Written", e);
         }
+    }
 
+    private static String formatMillisSince(long startNanos) {
+        return String.format(Locale.ROOT, "%.2f", (System.nanoTime() - startNanos) / 1_000_000.0);
+    }
 
+    /**
+     * Replaces {@code target} with {@code source}, atomically where the file system supports it.
+     *
+     * @param source the fully written temporary file
+     * @param target the file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
-}
\ No newline at end of file
+}
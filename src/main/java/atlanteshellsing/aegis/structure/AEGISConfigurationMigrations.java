@@ -0,0 +1,48 @@
+package atlanteshellsing.aegis.structure;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Upgrades preferences read from an older {@code aegisConfig} schema version to {@link AEGISConfigurationCodec#CURRENT_SCHEMA_VERSION}.
+ *
+ * <p>The migrator at index {@code i} upgrades version {@code i + 1} to version {@code i + 2}; a file is upgraded by
+ * applying every migrator from its declared version onwards. Migrators work on the already parsed (and validated)
+ * preferences, so upgrading costs the one streaming read of the old file plus one streaming write of the new one.
+ * Adding a schema version means adding its {@code /schema/aegis-v<version>.xsd}, appending a migrator here and
+ * increasing the current version.</p>
+ */
+final class AEGISConfigurationMigrations {
+
+    private static final List<UnaryOperator<AEGISPreferences>> MIGRATORS = List.of(
+            // v1 -> v2: v1 only allowed the theme; v2 opens <preferences> to further sections such as <logging>.
+            // Existing values keep their paths and meaning.
+            preferences -> preferences
+    );
+
+    static {
+        if(MIGRATORS.size() != AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION - 1) {
+            throw new IllegalStateException("Expected a migrator for every schema version below " + AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION);
+        }
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISConfigurationMigrations() {}
+
+    /**
+     * Upgrades preferences to the current schema version.
+     *
+     * @param fromVersion the schema version the preferences were read from; at least 1
+     * @param preferences the preferences as read
+     * @return the upgraded preferences; {@code preferences} itself if it is already current
+     */
+    static AEGISPreferences migrate(int fromVersion, AEGISPreferences preferences) {
+        AEGISPreferences migrated = preferences;
+        for(int version = fromVersion; version < AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION; version++) {
+            migrated = MIGRATORS.get(version - 1).apply(migrated);
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,71 @@
+package atlanteshellsing.aegis.structure;
+
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled XML schemas of every {@code aegisConfig} schema version, loaded from {@code /schema/aegis-v<version>.xsd}.
+ *
+ * <p>Each schema is compiled once, on first use, and cached for the rest of the process. A compiled {@link Schema} is
+ * immutable and thread-safe; only the validators created from it are not, so every read creates its own.</p>
+ */
+final class AEGISConfigurationSchemas {
+
+    private static final Map<Integer, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISConfigurationSchemas() {}
+
+    /**
+     * Provides the compiled schema of a schema version.
+     *
+     * @param version the {@code schemaVersion} declared by a configuration file
+     * @return the cached schema
+     * @throws XMLStreamException if no schema exists for the version or it cannot be compiled
+     */
+    static Schema forVersion(int version) throws XMLStreamException {
+        Schema schema = SCHEMAS.get(version);
+        if(schema != null) {
+            return schema;
+        }
+
+        synchronized(SCHEMAS) {
+            schema = SCHEMAS.get(version);
+            if(schema == null) {
+                schema = compile(version);
+                SCHEMAS.put(version, schema);
+            }
+            return schema;
+        }
+    }
+
+    /**
+     * Compiles a schema with a hardened factory that may not resolve external schemas or DTDs. SchemaFactory is not
+     * thread-safe, so callers hold the cache lock.
+     */
+    private static Schema compile(int version) throws XMLStreamException {
+        URL source = AEGISConfigurationSchemas.class.getResource("/schema/aegis-v" + version + ".xsd");
+        if(source == null) {
+            throw new XMLStreamException("Unsupported configuration schema version " + version);
+        }
+
+        try {
+            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+            return factory.newSchema(source);
+        } catch (SAXException e) {
+            throw new XMLStreamException("Configuration schema version " + version + " could not be compiled", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package atlanteshellsing.aegis.structure;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary copy of the preferences stored in {@code configuration.aegis}, used to skip XML parsing on startup.
+ *
+ * <p>The snapshot records the size, modification time and CRC32C of the XML file it was derived from and is only
+ * trusted while all three still match; the XML file always remains the source of truth. The file is laid out as</p>
+ * <pre>
+ * int  magic ("AEGS")      int  format version
+ * long XML size            long XML modification time (ms)
+ * int  XML CRC32C          int  entry count
+ * entry count x { int key length, UTF-8 key, int value length, UTF-8 value }
+ * int  CRC32C of everything above
+ * </pre>
+ * <p>and is memory-mapped when read, so loading costs a single pass over the mapped bytes.</p>
+ */
+final class AEGISConfigurationSnapshot {
+
+    private static final int MAGIC = 0x41454753;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4;
+    private static final int TRAILER_BYTES = 4;
+
+    /**
+     * Identifies one exact version of the XML configuration file.
+     *
+     * @param size           the file size in bytes
+     * @param modifiedMillis the last modification time in milliseconds since the epoch
+     * @param crc            the CRC32C of the file contents
+     */
+    record Fingerprint(long size, long modifiedMillis, int crc) {
+
+        /**
+         * Computes the fingerprint of XML contents that were read from a file with the given modification time.
+         *
+         * @param xml            the complete file contents
+         * @param modifiedMillis the file's modification time, taken before the contents were read
+         * @return the fingerprint
+         */
+        static Fingerprint of(byte[] xml, long modifiedMillis) {
+            CRC32C crc = new CRC32C();
+            crc.update(xml);
+            return new Fingerprint(xml.length, modifiedMillis, (int) crc.getValue());
+        }
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISConfigurationSnapshot() {}
+
+    /**
+     * Reads the snapshot if it was derived from the XML file identified by {@code expected}.
+     *
+     * @param snapshotFile the snapshot file
+     * @param expected     the fingerprint of the current XML file
+     * @return the stored preferences; Null if the snapshot is missing, stale or damaged (the reason is logged as FINE)
+     */
+    static AEGISPreferences read(Path snapshotFile, Fingerprint expected) {
+        try(FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                return reject(snapshotFile, "unexpected size " + size);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int payloadLength = (int) size - TRAILER_BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, payloadLength));
+            if((int) crc.getValue() != buffer.getInt(payloadLength)) {
+                return reject(snapshotFile, "checksum mismatch");
+            }
+
+            if(buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return reject(snapshotFile, "unknown format");
+            }
+            Fingerprint stored = new Fingerprint(buffer.getLong(), buffer.getLong(), buffer.getInt());
+            if(!stored.equals(expected)) {
+                return reject(snapshotFile, "configuration file changed");
+            }
+
+            int entries = buffer.getInt();
+            buffer.limit(payloadLength);
+            TreeMap<String, String> values = new TreeMap<>();
+            for(int i = 0; i < entries; i++) {
+                values.put(readString(buffer), readString(buffer));
+            }
+            return new AEGISPreferences(values);
+
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return reject(snapshotFile, e.toString());
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given preferences, derived from the XML file identified by {@code source}. The snapshot is
+     * written to a temporary file and moved into place, so a crash never leaves a partially written snapshot behind.
+     *
+     * @param snapshotFile the snapshot file to replace
+     * @param source       the fingerprint of the XML file holding the same preferences
+     * @param preferences  the preferences to store
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(Path snapshotFile, Fingerprint source, AEGISPreferences preferences) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + 64 * preferences.values().size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(source.size());
+        out.writeLong(source.modifiedMillis());
+        out.writeInt(source.crc());
+        out.writeInt(preferences.values().size());
+        for(Map.Entry<String, String> entry : preferences.values().entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try(OutputStream file = Files.newOutputStream(tempFile)) {
+            bytes.writeTo(file);
+        }
+        AEGISConfigurationManager.moveIntoPlace(tempFile, snapshotFile);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if(length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static AEGISPreferences reject(Path snapshotFile, String reason) {
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.FINE, "Ignoring Configuration Snapshot {}: {}", snapshotFile, reason);
+        return null;
+    }
+}
@@ -0,0 +1,119 @@
+package atlanteshellsing.aegis.structure;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the configuration directory for changes to the configuration file.
+ *
+ * <p>Editors and deployment scripts often produce a burst of events for a single save (truncate, write, rename), so
+ * after the first relevant event the watcher waits until the directory has been quiet for the debounce delay and then
+ * runs the change callback once. Events for other files in the directory, such as the snapshot or temporary files, are ignored.</p>
+ */
+class AEGISConfigurationWatcher {
+
+    private final Path directory;
+    private final Path fileName;
+    private final long debounceMillis;
+    private final Runnable onChange;
+
+    private WatchService watchService;
+
+    /**
+     * Creates a watcher; nothing is watched until {@link #start()} is called.
+     *
+     * @param file           the file to watch; its parent directory is registered with the watch service
+     * @param debounceMillis quiet period after the last event before {@code onChange} runs
+     * @param onChange       runs on the watcher thread after a burst of changes to {@code file}
+     */
+    AEGISConfigurationWatcher(Path file, long debounceMillis, Runnable onChange) {
+        this.directory = file.getParent();
+        this.fileName = file.getFileName();
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Registers the directory and starts the daemon watcher thread. Calling this method again has no effect.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    synchronized void start() throws IOException {
+        if(watchService != null) {
+            return;
+        }
+
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(this::watch, "AEGIS-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the watcher thread. Safe to call when the watcher was never started.
+     */
+    synchronized void close() {
+        if(watchService == null) {
+            return;
+        }
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Configuration Watcher Could Not Be Closed", e);
+        }
+    }
+
+    /**
+     * Watcher thread body: waits for a relevant event, debounces the burst it starts, then runs the callback.
+     */
+    private void watch() {
+        try {
+            while(true) {
+                boolean relevant = drain(watchService.take());
+                WatchKey next;
+                while((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(next);
+                }
+
+                if(relevant) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Configuration Reload Failed", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed on shutdown.
+        }
+    }
+
+    /**
+     * Consumes the events of a key and re-arms it.
+     *
+     * @return true if any event concerns the watched file, or events were lost
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for(WatchEvent<?> event : key.pollEvents()) {
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                relevant = true;
+            }
+        }
+        if(!key.reset()) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Configuration Directory {} Is No Longer Watched", directory);
+        }
+        return relevant;
+    }
+}
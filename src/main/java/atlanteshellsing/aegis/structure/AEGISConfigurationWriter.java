@@ -0,0 +1,115 @@
+package atlanteshellsing.aegis.structure;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Background write-behind for the user configuration file.
+ *
+ * <p>Callers hand over the latest preference snapshot and return immediately. The first snapshot of a burst
+ * schedules a write after the debounce delay; every snapshot submitted before that write runs simply replaces
+ * the pending one, so a burst of changes results in a single atomic file write on the writer thread. A pending
+ * snapshot that is no longer the current preferences when its write runs, because the edited file was reloaded since,
+ * is dropped.</p>
+ */
+class AEGISConfigurationWriter {
+
+    private final long debounceMillis;
+    private final AtomicReference<AEGISPreferences> pending = new AtomicReference<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AEGIS-ConfigWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScheduledFuture<?> scheduledWrite;
+
+    /**
+     * Creates a writer that coalesces snapshots submitted within {@code debounceMillis} into a single write.
+     *
+     * @param debounceMillis delay between the first change of a burst and the resulting write
+     */
+    AEGISConfigurationWriter(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Queues a snapshot to be written, replacing any snapshot that has not been written yet.
+     *
+     * @param preferences the snapshot to persist
+     */
+    synchronized void submit(AEGISPreferences preferences) {
+        pending.set(preferences);
+
+        if(executor.isShutdown()) {
+            return;
+        }
+        if(scheduledWrite == null || scheduledWrite.isDone()) {
+            scheduledWrite = executor.schedule(this::writePending, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs a background task on the writer thread, after any write already queued there. Ignored once the writer has
+     * been shut down.
+     *
+     * @param task the task to run; failures must be handled by the task itself
+     */
+    synchronized void execute(Runnable task) {
+        if(!executor.isShutdown()) {
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Writes any pending snapshot immediately and waits for the write to complete.
+     *
+     * <p>If the writer has already been shut down, the pending snapshot is written on the calling thread.</p>
+     */
+    void flush() {
+        synchronized(this) {
+            if(scheduledWrite != null) {
+                scheduledWrite.cancel(false);
+                scheduledWrite = null;
+            }
+            if(executor.isShutdown()) {
+                writePending();
+                return;
+            }
+        }
+
+        try {
+            executor.submit(this::writePending).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Configuration Could Not Be Flushed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Flushes any pending snapshot and stops the writer thread.
+     */
+    void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+
+    /**
+     * Writes the most recently submitted snapshot, if any and if it was not superseded by a reload. Runs on the writer
+     * thread.
+     */
+    private void writePending() {
+        AEGISPreferences snapshot = pending.getAndSet(null);
+        if(snapshot != null && AEGISConfigurationManager.isCurrent(snapshot)) {
+            AEGISConfigurationManager.writeConfiguration(snapshot);
+        }
+    }
+}
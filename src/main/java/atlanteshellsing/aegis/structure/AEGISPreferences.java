@@ -0,0 +1,119 @@
+package atlanteshellsing.aegis.structure;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable, in-memory view of the {@code <preferences>} section of {@code configuration.aegis}.
+ *
+ * <p>Every leaf element below {@code <preferences>} is stored under its dotted element path, so
+ * {@code <preferences><theme>DarkTheme</theme></preferences>} becomes {@code theme=DarkTheme} and
+ * {@code <preferences><tools><scanner><depth>3</depth></scanner></tools></preferences>} becomes
+ * {@code tools.scanner.depth=3}. Updates never mutate an instance; they return a modified copy so readers
+ * on any thread always observe a consistent snapshot.</p>
+ *
+ * @param values the preference values keyed by dotted element path
+ */
+public record AEGISPreferences(SortedMap<String, String> values) {
+
+    public static final String THEME = "theme";
+    public static final String DEFAULT_THEME = "LightTheme";
+    public static final String LOGGING = "logging";
+
+    private static final AEGISPreferences DEFAULTS = new AEGISPreferences(new TreeMap<>(Map.of(THEME, DEFAULT_THEME)));
+
+    /**
+     * Creates a preference snapshot from the given values, copying them into an unmodifiable sorted map.
+     *
+     * @param values the preference values keyed by dotted element path
+     */
+    public AEGISPreferences {
+        values = Collections.unmodifiableSortedMap(new TreeMap<>(Objects.requireNonNull(values)));
+    }
+
+    /**
+     * Provides the preferences written into a freshly created configuration file.
+     *
+     * @return the default preference snapshot
+     */
+    public static AEGISPreferences defaults() { return DEFAULTS; }
+
+    /**
+     * Looks up a preference value.
+     *
+     * @param key the dotted preference path
+     * @return the stored value, or {@code null} if the preference is not set
+     */
+    public String get(String key) { return values.get(key); }
+
+    /**
+     * Looks up a preference value, falling back to a default when it is not set.
+     *
+     * @param key          the dotted preference path
+     * @param defaultValue the value returned when the preference is not set
+     * @return the stored value, or {@code defaultValue} if the preference is not set
+     */
+    public String get(String key, String defaultValue) { return values.getOrDefault(key, defaultValue); }
+
+    /**
+     * Provides the stored theme name (e.g. {@code LightTheme} or {@code DarkTheme}).
+     *
+     * @return the stored theme name, or {@link #DEFAULT_THEME} if none is stored
+     */
+    public String getTheme() { return get(THEME, DEFAULT_THEME); }
+
+    /**
+     * Returns a copy of these preferences with one value replaced.
+     *
+     * @param key   the dotted preference path
+     * @param value the new value; {@code null} removes the preference
+     * @return this instance if nothing changed, otherwise a new snapshot containing the change
+     */
+    public AEGISPreferences with(String key, String value) {
+        if(Objects.equals(values.get(key), value)) {
+            return this;
+        }
+
+        TreeMap<String, String> copy = new TreeMap<>(values);
+        if(value == null) {
+            copy.remove(key);
+        } else {
+            copy.put(key, value);
+        }
+        return new AEGISPreferences(copy);
+    }
+
+    /**
+     * Returns a copy of these preferences with the theme replaced.
+     *
+     * @param theme the theme name to store
+     * @return a snapshot whose {@link #getTheme()} is {@code theme}
+     */
+    public AEGISPreferences withTheme(String theme) { return with(THEME, theme); }
+
+    /**
+     * Computes the preference paths whose values differ between this snapshot and another one.
+     *
+     * @param other the snapshot to compare against
+     * @return the sorted set of added, removed or changed preference paths
+     */
+    public Set<String> diff(AEGISPreferences other) {
+        Set<String> changed = new TreeSet<>();
+        for(Map.Entry<String, String> entry : values.entrySet()) {
+            if(!Objects.equals(entry.getValue(), other.values.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for(String key : other.values.keySet()) {
+            if(!values.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,23 @@
+package atlanteshellsing.aegis.structure;
+
+import java.util.Set;
+
+/**
+ * Receives preference changes made outside the application, i.e. edits of {@code configuration.aegis} picked up by
+ * {@link AEGISConfigurationManager#startWatching()}.
+ *
+ * <p>Listeners are called on the configuration writer thread, which reloads the edited file; GUI listeners must hand
+ * their work to the FX thread.</p>
+ */
+@FunctionalInterface
+public interface AEGISPreferencesListener {
+
+    /**
+     * Called after the in-memory preferences have been replaced by the contents of the edited configuration file.
+     *
+     * @param previous    the preferences before the reload
+     * @param current     the preferences now held in memory
+     * @param changedKeys the dotted preference paths whose values were added, removed or changed; never empty
+     */
+    void preferencesChanged(AEGISPreferences previous, AEGISPreferences current, Set<String> changedKeys);
+}
@@ -0,0 +1,91 @@
+package atlanteshellsing.aegis.structure;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+/**
+ * Reader wrapper that validates a document against a schema while it is being read.
+ *
+ * <p>Every event returned by {@link #next()} is also forwarded to a {@link ValidatorHandler}, so parsing and validation
+ * share one pass over the input and the first violation aborts the read at the offending element. Only {@code next()}
+ * forwards events; callers must not use {@code nextTag()} or {@code getElementText()}. The document must be read
+ * until {@code END_DOCUMENT} for end-of-document constraints to be checked.</p>
+ */
+class AEGISSchemaValidatingReader extends StreamReaderDelegate {
+
+    private final ValidatorHandler validator;
+
+    /**
+     * Wraps a reader positioned on the root start element; the document start and that element are validated immediately.
+     *
+     * @param reader the reader, positioned on the root {@code START_ELEMENT}
+     * @param schema the schema to validate against
+     * @throws XMLStreamException if the root element violates the schema
+     */
+    AEGISSchemaValidatingReader(XMLStreamReader reader, Schema schema) throws XMLStreamException {
+        super(reader);
+        validator = schema.newValidatorHandler();
+        try {
+            validator.startDocument();
+        } catch (SAXException e) {
+            throw invalid(e);
+        }
+        forward(START_ELEMENT);
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        int event = super.next();
+        forward(event);
+        return event;
+    }
+
+    private void forward(int event) throws XMLStreamException {
+        try {
+            switch(event) {
+                case START_ELEMENT -> {
+                    for(int i = 0; i < getNamespaceCount(); i++) {
+                        validator.startPrefixMapping(nullToEmpty(getNamespacePrefix(i)), nullToEmpty(getNamespaceURI(i)));
+                    }
+                    AttributesImpl attributes = new AttributesImpl();
+                    for(int i = 0; i < getAttributeCount(); i++) {
+                        attributes.addAttribute(nullToEmpty(getAttributeNamespace(i)), getAttributeLocalName(i),
+                                qualifiedName(getAttributePrefix(i), getAttributeLocalName(i)), getAttributeType(i), getAttributeValue(i));
+                    }
+                    validator.startElement(nullToEmpty(getNamespaceURI()), getLocalName(), qualifiedName(getPrefix(), getLocalName()), attributes);
+                }
+                case END_ELEMENT -> {
+                    validator.endElement(nullToEmpty(getNamespaceURI()), getLocalName(), qualifiedName(getPrefix(), getLocalName()));
+                    for(int i = 0; i < getNamespaceCount(); i++) {
+                        validator.endPrefixMapping(nullToEmpty(getNamespacePrefix(i)));
+                    }
+                }
+                case CHARACTERS, CDATA, SPACE -> validator.characters(getTextCharacters(), getTextStart(), getTextLength());
+                case END_DOCUMENT -> validator.endDocument();
+                default -> {
+                    // Comments and processing instructions are not subject to validation.
+                }
+            }
+        } catch (SAXException e) {
+            throw invalid(e);
+        }
+    }
+
+    private XMLStreamException invalid(SAXException e) {
+        return new XMLStreamException("Configuration does not match its schema: " + e.getMessage(), getLocation(), e);
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
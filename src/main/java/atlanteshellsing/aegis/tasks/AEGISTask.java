@@ -0,0 +1,20 @@
+package atlanteshellsing.aegis.tasks;
+
+/**
+ * A unit of tool work run by the {@link AEGISTaskScheduler} on its own virtual thread.
+ *
+ * @param <T> the result type
+ */
+@FunctionalInterface
+public interface AEGISTask<T> {
+
+    /**
+     * Performs the work. Long-running tasks should check {@link AEGISTaskContext#isCancelled()} regularly; blocking
+     * calls are additionally interrupted when the task is cancelled.
+     *
+     * @param context reports progress and cancellation
+     * @return the task result; may be null
+     * @throws Exception if the task fails
+     */
+    T run(AEGISTaskContext context) throws Exception;
+}
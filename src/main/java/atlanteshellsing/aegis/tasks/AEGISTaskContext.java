@@ -0,0 +1,36 @@
+package atlanteshellsing.aegis.tasks;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * The view a running {@link AEGISTask} has of itself.
+ */
+public interface AEGISTaskContext {
+
+    /**
+     * Checks whether the task was cancelled, e.g. because the tab owning it was closed.
+     *
+     * @return true if the task should stop as soon as possible
+     */
+    boolean isCancelled();
+
+    /**
+     * Stops the task by throwing if it was cancelled.
+     *
+     * @throws CancellationException if the task was cancelled
+     */
+    default void throwIfCancelled() {
+        if(isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Reports progress. Updates are coalesced: observers only see the most recent progress that was reported before
+     * their thread got around to handling it, so tasks may report as often as they like.
+     *
+     * @param fraction the completed fraction between 0 and 1, or a negative value if unknown
+     * @param message  a short description of the current step; may be null
+     */
+    void updateProgress(double fraction, String message);
+}
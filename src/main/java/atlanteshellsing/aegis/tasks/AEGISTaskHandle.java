@@ -0,0 +1,129 @@
+package atlanteshellsing.aegis.tasks;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A task submitted to the {@link AEGISTaskScheduler}, used to follow and cancel it.
+ *
+ * @param <T> the result type
+ */
+public final class AEGISTaskHandle<T> {
+
+    private final Class<?> toolClass;
+    private final String name;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final AEGISTaskContext context = new AEGISTaskContext() {
+        @Override
+        public boolean isCancelled() { return AEGISTaskHandle.this.isCancelled(); }
+
+        @Override
+        public void updateProgress(double fraction, String message) { progressReporter.report(fraction, message); }
+    };
+
+    private ProgressReporter progressReporter;
+    private Runnable onCancel;
+    private Thread runner;
+
+    /**
+     * Receives progress reported by the running task.
+     */
+    @FunctionalInterface
+    interface ProgressReporter {
+        void report(double fraction, String message);
+    }
+
+    AEGISTaskHandle(Class<?> toolClass, String name) {
+        this.toolClass = toolClass;
+        this.name = name;
+    }
+
+    /**
+     * Provides the tool class whose concurrency limit the task counts against.
+     *
+     * @return the tool class
+     */
+    public Class<?> getToolClass() { return toolClass; }
+
+    /**
+     * Provides the task name used in log entries.
+     *
+     * @return the task name
+     */
+    public String getName() { return name; }
+
+    /**
+     * Provides the eventual result. The stage completes exceptionally with a {@link CancellationException} if the task
+     * is cancelled, or with the task's exception if it fails.
+     *
+     * @return the result stage
+     */
+    public CompletionStage<T> getResult() { return result.minimalCompletionStage(); }
+
+    /**
+     * Checks whether the task was cancelled.
+     *
+     * @return true if {@link #cancel()} took effect before the task completed
+     */
+    public boolean isCancelled() { return result.isCancelled(); }
+
+    /**
+     * Checks whether the task has completed, failed or been cancelled.
+     *
+     * @return true if the task is no longer pending or running
+     */
+    public boolean isDone() { return result.isDone(); }
+
+    /**
+     * Cancels the task if it has not completed yet. A queued task never starts; a running task sees
+     * {@link AEGISTaskContext#isCancelled()} turn true and is interrupted, and its result is discarded.
+     * Calling this method on a completed task has no effect.
+     */
+    public void cancel() {
+        if(!result.cancel(false)) {
+            return;
+        }
+
+        synchronized(this) {
+            if(runner != null) {
+                runner.interrupt();
+            }
+        }
+        onCancel.run();
+    }
+
+    AEGISTaskContext context() { return context; }
+
+    /**
+     * Connects the handle to the scheduler before the task is started.
+     *
+     * @param progressReporter receives progress reported by the task
+     * @param onCancel         runs once if the task is cancelled
+     */
+    void bind(ProgressReporter progressReporter, Runnable onCancel) {
+        this.progressReporter = progressReporter;
+        this.onCancel = onCancel;
+    }
+
+    /**
+     * Binds the handle to the thread running the task, so cancellation can interrupt it.
+     *
+     * @return false if the task was cancelled before it started
+     */
+    synchronized boolean attach(Thread thread) {
+        runner = thread;
+        return !isCancelled();
+    }
+
+    /**
+     * Unbinds the running thread, so a late cancellation cannot interrupt it after the task finished.
+     */
+    synchronized void detach() {
+        runner = null;
+    }
+
+    boolean complete(T value) { return result.complete(value); }
+
+    boolean fail(Throwable error) { return result.completeExceptionally(error); }
+}
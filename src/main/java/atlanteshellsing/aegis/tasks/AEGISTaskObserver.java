@@ -0,0 +1,37 @@
+package atlanteshellsing.aegis.tasks;
+
+/**
+ * Receives progress and the outcome of a task. All methods are called on the scheduler's update executor, which is
+ * the FX thread in the GUI, and exactly one of the outcome methods is called once per task.
+ *
+ * @param <T> the task result type
+ */
+public interface AEGISTaskObserver<T> {
+
+    /**
+     * Receives the latest reported progress.
+     *
+     * @param fraction the completed fraction between 0 and 1, or a negative value if unknown
+     * @param message  a short description of the current step; may be null
+     */
+    default void progress(double fraction, String message) {}
+
+    /**
+     * Receives the result of a task that completed normally.
+     *
+     * @param result the task result; may be null
+     */
+    default void succeeded(T result) {}
+
+    /**
+     * Receives the failure of a task.
+     *
+     * @param error the exception thrown by the task
+     */
+    default void failed(Throwable error) {}
+
+    /**
+     * Called when the task was cancelled before it completed.
+     */
+    default void cancelled() {}
+}
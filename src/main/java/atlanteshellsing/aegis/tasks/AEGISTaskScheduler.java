@@ -0,0 +1,196 @@
+package atlanteshellsing.aegis.tasks;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISLatencyHistogram;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tool work off the FX thread.
+ *
+ * <p>Every task gets its own virtual thread, so blocking I/O in a tool costs no platform thread. How many tasks of one
+ * tool class run at the same time is bounded by a fair semaphore per tool class ({@link #DEFAULT_CONCURRENCY} unless
+ * changed with {@link #setConcurrencyLimit(Class, int)}); further tasks wait in submission order. Progress and outcomes
+ * are handed to the update executor through an {@link AEGISUpdateCoalescer}, so a chatty task never floods the FX thread;
+ * only progress reports replace each other, the outcome of a task is never replaced and no progress follows it.
+ * Each task is logged under {@link AEGISLogger.AEGISLogKey#AEGIS_TOOL} with its queue and run time, which are also
+ * recorded in the {@code tasks.queue} and {@code tasks.run} metrics.</p>
+ */
+public class AEGISTaskScheduler {
+
+    public static final int DEFAULT_CONCURRENCY = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static final AEGISLatencyHistogram QUEUE_LATENCY = AEGISMetrics.histogram("tasks.queue");
+    private static final AEGISLatencyHistogram RUN_LATENCY = AEGISMetrics.histogram("tasks.run");
+    private static final AtomicInteger ACTIVE_TASKS = new AtomicInteger();
+
+    static {
+        AEGISMetrics.gauge("tasks.active", ACTIVE_TASKS::get);
+    }
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("AEGIS-Tool-", 0).factory());
+    private final AEGISUpdateCoalescer updates;
+    private final Map<Class<?>, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Set<AEGISTaskHandle<?>> activeTasks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a scheduler delivering task updates on the given executor.
+     *
+     * @param updateExecutor runs observer callbacks; {@code Platform::runLater} in the GUI
+     */
+    public AEGISTaskScheduler(Executor updateExecutor) {
+        this.updates = new AEGISUpdateCoalescer(updateExecutor);
+    }
+
+    /**
+     * Sets how many tasks of a tool class may run at the same time. Applies to tasks submitted afterwards.
+     *
+     * @param toolClass the tool class
+     * @param limit     the maximum number of concurrently running tasks; at least 1
+     */
+    public void setConcurrencyLimit(Class<?> toolClass, int limit) {
+        if(limit < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1: " + limit);
+        }
+        permits.put(toolClass, new Semaphore(limit, true));
+    }
+
+    /**
+     * Submits a task whose outcome is only observed through its handle.
+     *
+     * @param toolClass the tool class the task belongs to; its concurrency limit applies
+     * @param name      the task name used in log entries
+     * @param task      the work to run
+     * @param <T>       the result type
+     * @return the handle to follow or cancel the task
+     */
+    public <T> AEGISTaskHandle<T> submit(Class<?> toolClass, String name, AEGISTask<T> task) {
+        return submit(toolClass, name, task, new AEGISTaskObserver<>() {});
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param toolClass the tool class the task belongs to; its concurrency limit applies
+     * @param name      the task name used in log entries
+     * @param task      the work to run
+     * @param observer  receives coalesced progress and the outcome on the update executor
+     * @param <T>       the result type
+     * @return the handle to follow or cancel the task
+     */
+    public <T> AEGISTaskHandle<T> submit(Class<?> toolClass, String name, AEGISTask<T> task, AEGISTaskObserver<? super T> observer) {
+        long submittedNanos = System.nanoTime();
+        Semaphore semaphore = permits.computeIfAbsent(toolClass, key -> new Semaphore(DEFAULT_CONCURRENCY, true));
+
+        // Progress is coalesced under its own key: sharing the handle's key would let a late progress report replace
+        // the queued outcome. Progress is dropped once the task is done, even if it was queued before.
+        AEGISTaskHandle<T> handle = new AEGISTaskHandle<>(toolClass, name);
+        Object progressKey = new Object();
+        handle.bind(
+                (fraction, message) -> {
+                    if(!handle.isDone()) {
+                        updates.submit(progressKey, () -> {
+                            if(!handle.isDone()) {
+                                observer.progress(fraction, message);
+                            }
+                        });
+                    }
+                },
+                () -> updates.submit(handle, observer::cancelled));
+
+        activeTasks.add(handle);
+        ACTIVE_TASKS.incrementAndGet();
+        executor.execute(() -> run(handle, semaphore, task, observer, submittedNanos));
+        return handle;
+    }
+
+    /**
+     * Cancels every queued and running task and stops accepting new ones.
+     */
+    public void shutdown() {
+        for(AEGISTaskHandle<?> handle : activeTasks) {
+            handle.cancel();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Task thread body: waits for a permit of the task's tool class, runs the task and reports its outcome.
+     */
+    private <T> void run(AEGISTaskHandle<T> handle, Semaphore semaphore, AEGISTask<T> task, AEGISTaskObserver<? super T> observer, long submittedNanos) {
+        boolean acquired = false;
+        long startedNanos = 0;
+        try {
+            if(!handle.attach(Thread.currentThread())) {
+                logOutcome(handle, "cancelled", AEGISLogger.AEGISLogLevel.INFO, submittedNanos, startedNanos);
+                return;
+            }
+            semaphore.acquire();
+            acquired = true;
+
+            startedNanos = System.nanoTime();
+            QUEUE_LATENCY.record(startedNanos - submittedNanos);
+            handle.context().throwIfCancelled();
+
+            T value = task.run(handle.context());
+            if(handle.complete(value)) {
+                updates.submit(handle, () -> observer.succeeded(value));
+                logOutcome(handle, "finished", AEGISLogger.AEGISLogLevel.FINE, submittedNanos, startedNanos);
+            } else {
+                logOutcome(handle, "cancelled", AEGISLogger.AEGISLogLevel.INFO, submittedNanos, startedNanos);
+            }
+        } catch (InterruptedException | CancellationException e) {
+            if(handle.isCancelled()) {
+                logOutcome(handle, "cancelled", AEGISLogger.AEGISLogLevel.INFO, submittedNanos, startedNanos);
+            } else {
+                fail(handle, observer, e, submittedNanos, startedNanos);
+            }
+        } catch (Throwable e) {
+            fail(handle, observer, e, submittedNanos, startedNanos);
+        } finally {
+            handle.detach();
+            if(acquired) {
+                semaphore.release();
+            }
+            activeTasks.remove(handle);
+            ACTIVE_TASKS.decrementAndGet();
+        }
+    }
+
+    private <T> void fail(AEGISTaskHandle<T> handle, AEGISTaskObserver<? super T> observer, Throwable error, long submittedNanos, long startedNanos) {
+        if(!handle.fail(error)) {
+            return;
+        }
+
+        updates.submit(handle, () -> observer.failed(error));
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.SEVERE,
+                "Task " + handle.getName() + " (" + handle.getToolClass().getSimpleName() + ") failed after " + recordTimes(submittedNanos, startedNanos),
+                error instanceof Exception exception ? exception : new RuntimeException(error));
+    }
+
+    private static void logOutcome(AEGISTaskHandle<?> handle, String outcome, AEGISLogger.AEGISLogLevel level, long submittedNanos, long startedNanos) {
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_TOOL, level, "Task {} ({}) {} after {}",
+                handle.getName(), handle.getToolClass().getSimpleName(), outcome, recordTimes(submittedNanos, startedNanos));
+    }
+
+    /**
+     * Records the run time in the {@code tasks.run} metric, if the task started, and describes queue and run time for the log.
+     */
+    private static String recordTimes(long submittedNanos, long startedNanos) {
+        long now = System.nanoTime();
+        if(startedNanos == 0) {
+            return (now - submittedNanos) / 1_000_000 + " ms queued, never started";
+        }
+        RUN_LATENCY.record(now - startedNanos);
+        return (startedNanos - submittedNanos) / 1_000_000 + " ms queued, " + (now - startedNanos) / 1_000_000 + " ms running";
+    }
+}
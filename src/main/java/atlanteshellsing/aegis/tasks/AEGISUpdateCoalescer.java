@@ -0,0 +1,63 @@
+package atlanteshellsing.aegis.tasks;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands updates from background threads to a target executor, such as {@code Platform::runLater}, without flooding it.
+ *
+ * <p>Every update is submitted under a key; an update that has not been delivered yet is replaced by a newer one with
+ * the same key. At most one drain is queued on the target executor at a time, and it delivers the latest update of
+ * every key at once, so a busy producer costs the target thread one hand-off per turn instead of one per event.</p>
+ */
+public final class AEGISUpdateCoalescer {
+
+    private final Executor target;
+    private final Map<Object, Runnable> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    /**
+     * Creates a coalescer delivering updates on the given executor.
+     *
+     * @param target the executor running the updates, e.g. {@code Platform::runLater}
+     */
+    public AEGISUpdateCoalescer(Executor target) {
+        this.target = target;
+    }
+
+    /**
+     * Queues an update, replacing the undelivered update with the same key, if any.
+     *
+     * @param key    identifies what the update is about, e.g. a task
+     * @param update runs on the target executor
+     */
+    public void submit(Object key, Runnable update) {
+        pending.put(key, update);
+        if(drainQueued.compareAndSet(false, true)) {
+            target.execute(this::drain);
+        }
+    }
+
+    /**
+     * Delivers the latest update of every key. Runs on the target executor.
+     */
+    private void drain() {
+        drainQueued.set(false);
+        for(Object key : pending.keySet()) {
+            Runnable update = pending.remove(key);
+            if(update == null) {
+                continue;
+            }
+
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.SEVERE, "Task Update Failed", e);
+            }
+        }
+    }
+}
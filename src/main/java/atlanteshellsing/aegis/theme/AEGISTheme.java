@@ -0,0 +1,38 @@
+package atlanteshellsing.aegis.theme;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A theme known to the {@link AEGISThemeRegistry}, with everything needed to apply it already resolved.
+ *
+ * <p>Stylesheet themes carry the external form of their CSS file and an empty root style. Color themes reuse the
+ * stylesheets of the theme they extend and only add looked-up color overrides (e.g. {@code -fx-base}) as an inline
+ * {@code .root} style, so switching between themes sharing the same stylesheets recomputes colors without reparsing CSS.</p>
+ *
+ * @param name        the theme name stored in the configuration (e.g. {@code DarkTheme})
+ * @param stylesheets the resolved stylesheet URLs, in the order they are added to the scene
+ * @param rootStyle   the inline style applied to the scene root; empty for pure stylesheet themes
+ */
+public record AEGISTheme(String name, List<String> stylesheets, String rootStyle) {
+
+    /**
+     * Creates a theme, copying the stylesheet list into an unmodifiable list.
+     *
+     * @param name        the theme name
+     * @param stylesheets the resolved stylesheet URLs
+     * @param rootStyle   the inline root style; may be empty but not null
+     */
+    public AEGISTheme {
+        Objects.requireNonNull(name);
+        stylesheets = List.copyOf(stylesheets);
+        Objects.requireNonNull(rootStyle);
+    }
+
+    /**
+     * Checks whether this theme only overrides looked-up colors on top of another theme's stylesheets.
+     *
+     * @return true if the theme applies an inline root style
+     */
+    public boolean isColorTheme() { return !rootStyle.isEmpty(); }
+}
@@ -1,31 +1,37 @@
 package atlanteshellsing.aegis.theme;
 
-import atlanteshellsing.aegis.custom.factories.AEGISSecureDocumentBuilderFactory;
-import atlanteshellsing.aegis.custom.factories.AEGISSecureTransformerFactory;
 import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.metrics.AEGISLatencyHistogram;
+import atlanteshellsing.aegis.metrics.AEGISMetrics;
+import atlanteshellsing.aegis.metrics.AEGISThemeEvent;
 import atlanteshellsing.aegis.structure.AEGISConfigurationManager;
+import atlanteshellsing.aegis.structure.AEGISPreferences;
+import javafx.application.Platform;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.SAXException;
-
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.*;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.File;
-import java.io.IOException;
-import java.util.Objects;
 
 public class AEGISThemeManager {
 
-    public static final String DARK_THEME = "/themes/DarkTheme.css";
-    public static final String LIGHT_THEME = "/themes/LightTheme.css";
+    public static final String DARK_THEME = "DarkTheme";
+    public static final String LIGHT_THEME = "LightTheme";
 
-    private static String currentTheme = LIGHT_THEME;
+    private static final AEGISLatencyHistogram APPLY_LATENCY = AEGISMetrics.histogram("theme.apply");
+    private static final AEGISLatencyHistogram RESTYLE_LATENCY = AEGISMetrics.histogram("theme.restyle");
+
+    private static volatile String currentTheme = LIGHT_THEME;
+    private static Scene themedScene;
+
+    static {
+        AEGISConfigurationManager.addPreferencesListener((previous, current, changedKeys) -> {
+            if(changedKeys.contains(AEGISPreferences.THEME)) {
+                Platform.runLater(() -> {
+                    if(themedScene != null && !current.getTheme().equals(currentTheme)) {
+                        showTheme(themedScene, current.getTheme());
+                    }
+                });
+            }
+        });
+    }
 
     /**
      * Prevents instantiation of this utility class.
@@ -37,135 +43,150 @@ public class AEGISThemeManager {
     }
 
     /**
-     * Apply the specified theme stylesheet to the given Scene and persist the selection.
+     * Apply the named theme from the {@link AEGISThemeRegistry} to the given Scene and persist the selection.
      *
-     * Clears any existing stylesheets on the scene, sets the manager's current theme to the provided
-     * theme path (typically AEGISThemeManager.LIGHT_THEME or AEGISThemeManager.DARK_THEME), and adds
-     * the corresponding stylesheet resource to the scene.
+     * Unknown names are shown as {@link #LIGHT_THEME} but not persisted, see {@link #showTheme(Scene, String)}.
      *
-     * @param scene the JavaFX Scene to update
-     * @param theme the classpath resource path to the theme CSS (e.g. AEGISThemeManager.LIGHT_THEME)
+     * @param scene     the JavaFX Scene to update
+     * @param themeName the registered theme name (e.g. AEGISThemeManager.LIGHT_THEME)
      */
-    public static void applyTheme(Scene scene, String theme) {
-        scene.getStylesheets().clear();
-        currentTheme = theme;
-        saveTheme();
-        scene.getStylesheets().add(Objects.requireNonNull(AEGISThemeManager.class.getResource(theme)).toExternalForm());
+    public static void applyTheme(Scene scene, String themeName) {
+        if(showTheme(scene, themeName)) {
+            saveTheme();
+        }
+    }
+
+    /**
+     * Shows the named theme from the {@link AEGISThemeRegistry} in the given Scene without persisting it.
+     *
+     * The scene's stylesheets are replaced in a single {@code setAll}, and only if the theme uses different stylesheets
+     * than the ones already installed; color themes additionally set their looked-up colors as the root's inline style.
+     * Switching between themes that share stylesheets therefore only recomputes colors. Unknown names, e.g. a typo or
+     * a theme of a newer build, fall back to {@link #LIGHT_THEME} for display only, so the stored preference survives.
+     * The time until the restyled scene has been laid out is recorded in the {@code theme.restyle} metric.
+     *
+     * @param scene     the JavaFX Scene to update
+     * @param themeName the registered theme name
+     * @return true if the named theme was shown; false if a fallback was shown instead, or nothing
+     */
+    private static boolean showTheme(Scene scene, String themeName) {
+        long start = System.nanoTime();
+        AEGISThemeEvent event = new AEGISThemeEvent();
+        event.begin();
+        AEGISTheme theme = AEGISThemeRegistry.get(themeName);
+        boolean found = theme != null;
+        if(!found) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Unknown Theme {}; Using {}", themeName, LIGHT_THEME);
+            theme = AEGISThemeRegistry.get(LIGHT_THEME);
+            if(theme == null) {
+                commitThemeEvent(event, "apply", themeName, false);
+                return false;
+            }
+        }
+
+        boolean changed = false;
+        if(!scene.getStylesheets().equals(theme.stylesheets())) {
+            scene.getStylesheets().setAll(theme.stylesheets());
+            changed = true;
+        }
+        Parent root = scene.getRoot();
+        if(!theme.rootStyle().equals(root.getStyle())) {
+            root.setStyle(theme.rootStyle());
+            changed = true;
+        }
+
+        currentTheme = theme.name();
+        APPLY_LATENCY.recordSince(start);
+        commitThemeEvent(event, "apply", theme.name(), changed);
+
+        if(changed) {
+            measureRestyle(scene, theme.name(), start);
+        }
+        return found;
     }
 
     /**
      * Toggle the application's theme between light and dark, apply the new theme to the provided scene, and persist the change.
+     * Any theme other than the dark theme toggles to the dark theme.
      *
      * @param scene the JavaFX Scene to which the new theme will be applied
      */
     public static void toggleTheme(Scene scene) {
-        if (currentTheme.equals(LIGHT_THEME)) {
-            applyTheme(scene, DARK_THEME);
-        } else {
-            applyTheme(scene, LIGHT_THEME);
-        }
+        applyTheme(scene, DARK_THEME.equals(currentTheme) ? LIGHT_THEME : DARK_THEME);
     }
 
     /**
-     * Loads the user's theme preference from the application config and applies that theme to the provided scene.
+     * Applies the user's theme preference from the in-memory configuration model to the provided scene.
      *
-     * If no theme preference exists in the config, the light theme is used. Errors encountered while reading
-     * the config are logged and do not propagate.
+     * If no theme preference exists in the config, or it names an unknown theme, the light theme is shown and the
+     * preference is left as it is. The configuration file itself is read once by
+     * {@link AEGISConfigurationManager#initUserConfig()}; this method never touches the disk. The scene also follows
+     * later theme changes made by editing the configuration file while the application runs.
      *
      * @param scene the JavaFX Scene to which the loaded theme will be applied
      */
     public static void loadTheme(Scene scene) {
-
-        try {
-            File configFile = AEGISConfigurationManager.userConfigFile.toFile();
-
-            DocumentBuilderFactory factory = new AEGISSecureDocumentBuilderFactory().getSecureFactory();
-
-
-            DocumentBuilder builder = factory.newDocumentBuilder();
-
-            Document doc = builder.parse(configFile);
-
-            Element root = doc.getDocumentElement();
-            Element preferences = (Element) root.getElementsByTagName("preferences").item(0);
-            Element themeElement = preferences != null ? (Element) preferences.getElementsByTagName("theme").item(0) : null;
-
-            if (themeElement == null) {
-                currentTheme = LIGHT_THEME;
-            } else {
-                String storedTheme = themeElement.getTextContent();
-                currentTheme = "LightTheme".equals(storedTheme) ? LIGHT_THEME : DARK_THEME;
-            }
-
-            applyTheme(scene, currentTheme);
-
-
-        } catch (ParserConfigurationException | SAXException | IOException e) {
-            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Something Went Wrong When Loading Theme", e);
-            currentTheme = LIGHT_THEME;
-            scene.getStylesheets().setAll(
-                    Objects.requireNonNull(AEGISThemeManager.class.getResource(LIGHT_THEME)).toExternalForm()
-            );
-        }
+        AEGISThemeEvent event = new AEGISThemeEvent();
+        event.begin();
+        themedScene = scene;
+        String theme = AEGISConfigurationManager.getPreferences().getTheme();
+        showTheme(scene, theme);
+        commitThemeEvent(event, "load", theme, false);
     }
 
     /**
-     * Persists the currently selected theme into the user's configuration XML file.
+     * Records the currently selected theme name in the in-memory configuration model.
      *
-     * Ensures a <preferences> element and a nested <theme> element exist in the config,
-     * sets the <theme> text to either "LightTheme" or "DarkTheme" based on the current theme,
-     * and writes the updated document back to the config file using secure XML transformers.
-     *
-     * Any parse, I/O, or transform failures are caught and logged as severe via AEGISLogger.
+     * The configuration manager persists the change to the config file on its background writer, so the FX thread
+     * only performs an in-memory update and never blocks on XML I/O.
      */
     private static void saveTheme() {
+        AEGISThemeEvent event = new AEGISThemeEvent();
+        event.begin();
+        String theme = currentTheme;
+        AEGISPreferences previous = AEGISConfigurationManager.getPreferences();
+        AEGISPreferences saved = AEGISConfigurationManager.updatePreferences(preferences -> preferences.withTheme(theme));
+        commitThemeEvent(event, "save", theme, saved != previous);
+    }
 
-        try {
-
-            File configFile = AEGISConfigurationManager.userConfigFile.toFile();
-
-            DocumentBuilderFactory factory = new AEGISSecureDocumentBuilderFactory().getSecureFactory();
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            factory.setNamespaceAware(true);
-
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(configFile);
+    /**
+     * Completes a theme event. Costs a single check while no flight recording runs.
+     *
+     * @param event     the event begun when the operation started
+     * @param operation the operation name: {@code apply}, {@code load} or {@code save}
+     * @param theme     the theme name
+     * @param changed   whether the operation changed the scene or the stored preference
+     */
+    private static void commitThemeEvent(AEGISThemeEvent event, String operation, String theme, boolean changed) {
+        if(event.shouldCommit()) {
+            event.operation = operation;
+            event.theme = theme;
+            event.changed = changed;
+            event.commit();
+        }
+    }
 
-            Element root = doc.getDocumentElement();
-            Element preferences = (Element) root.getElementsByTagName("preferences").item(0);
-            if (preferences == null) {
-                preferences = doc.createElement("preferences");
-                root.appendChild(preferences);
-            }
-            Element themeElement = (Element) preferences.getElementsByTagName("theme").item(0);
-            if (themeElement == null) {
-                themeElement = doc.createElement("theme");
-                preferences.appendChild(themeElement);
+    /**
+     * Records how long the scene took to restyle and lay out after a theme switch, measured at the end of the next layout pass.
+     */
+    private static void measureRestyle(Scene scene, String themeName, long startNanos) {
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                RESTYLE_LATENCY.recordSince(startNanos);
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.FINE, "Theme {} restyled in {} ms",
+                        themeName, (System.nanoTime() - startNanos) / 1_000_000);
             }
-
-            String theme = getCurrentTheme().equals(LIGHT_THEME) ? "LightTheme" : "DarkTheme";
-            themeElement.setTextContent(theme);
-
-            TransformerFactory transformerFactory = new AEGISSecureTransformerFactory().getSecureFactory();
-            transformerFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "no");
-
-            DOMSource source = new DOMSource(doc);
-            StreamResult result = new StreamResult(configFile);
-            transformer.transform(source, result);
-
-        } catch (ParserConfigurationException | SAXException | IOException | TransformerException e) {
-            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.SEVERE, "Something Went Wrong When Saving Theme", e);
-        }
+        });
     }
 
     /**
-     * Retrieve the stylesheet path for the currently active theme.
+     * Retrieve the name of the currently active theme.
      *
-     * @return the current theme stylesheet path; one of {@link #LIGHT_THEME} or {@link #DARK_THEME}
+     * @return the current theme name, as registered in the {@link AEGISThemeRegistry}
      */
     public static String getCurrentTheme() {
         return currentTheme;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,258 @@
+package atlanteshellsing.aegis.theme;
+
+import atlanteshellsing.aegis.logging.AEGISLogger;
+import atlanteshellsing.aegis.structure.AEGISConfigurationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Discovers and caches every theme available to the application.
+ *
+ * <p>Themes come from two places: the {@code /themes} resource directory shipped with the application and the user's
+ * {@code <appdata>/Aegis/Themes} directory, where a user theme replaces a built-in theme of the same name. A theme is either
+ * </p>
+ * <ul>
+ *     <li>a stylesheet, {@code <Name>.css}, or</li>
+ *     <li>a color theme, {@code <Name>.properties}, holding looked-up color overrides for {@code .root} plus an optional
+ *     {@code extends} entry naming the stylesheet theme it builds on (the light theme by default):
+ * <pre>
+ * extends=DarkTheme
+ * -fx-base=#1b2333
+ * -aegis-menu-bar-color=#243049
+ * </pre></li>
+ * </ul>
+ *
+ * <p>Discovery resolves every stylesheet URL and root style once, so applying a theme never touches the class path or
+ * the file system. The resolved themes are published as an immutable snapshot and may be read from any thread.</p>
+ */
+public final class AEGISThemeRegistry {
+
+    private static final String BUILT_IN_DIRECTORY = "/themes";
+    private static final List<String> BUILT_IN_THEMES = List.of(AEGISThemeManager.LIGHT_THEME, AEGISThemeManager.DARK_THEME);
+    private static final String STYLESHEET_EXTENSION = ".css";
+    private static final String COLOR_THEME_EXTENSION = ".properties";
+    private static final String EXTENDS_PROPERTY = "extends";
+    private static final Pattern LOOKED_UP_COLOR = Pattern.compile("-[A-Za-z0-9-]+");
+
+    private static volatile Map<String, AEGISTheme> themes;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private AEGISThemeRegistry() {}
+
+    /**
+     * Scans the built-in and user theme locations and replaces the cached themes. May run on any thread; it is called
+     * once in the background during startup and again whenever the user's themes should be picked up.
+     *
+     * <p>Themes that cannot be read are skipped with a warning; the built-in light and dark themes are always available.</p>
+     */
+    public static synchronized void discover() {
+        long start = System.nanoTime();
+
+        Map<String, AEGISTheme> stylesheetThemes = new TreeMap<>();
+        Map<String, Properties> colorThemes = new TreeMap<>();
+
+        discoverBuiltIn(stylesheetThemes, colorThemes);
+        discoverUserThemes(stylesheetThemes, colorThemes);
+
+        Map<String, AEGISTheme> discovered = new TreeMap<>(stylesheetThemes);
+        for(Map.Entry<String, Properties> colorTheme : colorThemes.entrySet()) {
+            AEGISTheme theme = resolveColorTheme(colorTheme.getKey(), colorTheme.getValue(), stylesheetThemes);
+            if(theme != null) {
+                discovered.put(theme.name(), theme);
+            }
+        }
+
+        themes = Collections.unmodifiableMap(discovered);
+        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.FINE, "Discovered {} themes in {} ms",
+                discovered.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Provides every known theme, sorted by name. Discovers the themes first if that has not happened yet.
+     *
+     * @return the known themes
+     */
+    public static Collection<AEGISTheme> getThemes() { return snapshot().values(); }
+
+    /**
+     * Looks up a theme by name. Discovers the themes first if that has not happened yet.
+     *
+     * @param name the theme name (e.g. {@code DarkTheme})
+     * @return the theme; Null if not found
+     */
+    public static AEGISTheme get(String name) { return snapshot().get(name); }
+
+    private static Map<String, AEGISTheme> snapshot() {
+        Map<String, AEGISTheme> current = themes;
+        if(current == null) {
+            discover();
+            current = themes;
+        }
+        return current;
+    }
+
+    /**
+     * Lists the {@code /themes} resource directory, whether it lives in a directory, a jar or a runtime image. If the
+     * directory cannot be listed, the known built-in stylesheets are looked up individually.
+     */
+    private static void discoverBuiltIn(Map<String, AEGISTheme> stylesheetThemes, Map<String, Properties> colorThemes) {
+        List<String> fileNames = new ArrayList<>();
+        URL directory = AEGISThemeRegistry.class.getResource(BUILT_IN_DIRECTORY);
+        if(directory != null) {
+            try {
+                listBuiltInDirectory(directory.toURI(), fileNames);
+            } catch (URISyntaxException | IOException | FileSystemNotFoundException | ProviderNotFoundException | IllegalArgumentException e) {
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Built-In Themes Could Not Be Listed", e);
+            }
+        }
+        for(String builtIn : BUILT_IN_THEMES) {
+            if(!fileNames.contains(builtIn + STYLESHEET_EXTENSION)) {
+                fileNames.add(builtIn + STYLESHEET_EXTENSION);
+            }
+        }
+
+        for(String fileName : fileNames) {
+            String resource = BUILT_IN_DIRECTORY + "/" + fileName;
+            if(fileName.endsWith(STYLESHEET_EXTENSION)) {
+                URL url = AEGISThemeRegistry.class.getResource(resource);
+                if(url != null) {
+                    String name = stripExtension(fileName, STYLESHEET_EXTENSION);
+                    stylesheetThemes.put(name, new AEGISTheme(name, List.of(url.toExternalForm()), ""));
+                }
+            } else if(fileName.endsWith(COLOR_THEME_EXTENSION)) {
+                try(InputStream in = AEGISThemeRegistry.class.getResourceAsStream(resource)) {
+                    if(in != null) {
+                        Properties properties = new Properties();
+                        properties.load(in);
+                        colorThemes.put(stripExtension(fileName, COLOR_THEME_EXTENSION), properties);
+                    }
+                } catch (IOException e) {
+                    AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Theme " + resource + " Could Not Be Read", e);
+                }
+            }
+        }
+    }
+
+    private static void listBuiltInDirectory(URI directory, List<String> fileNames) throws IOException {
+        if(!"jar".equals(directory.getScheme())) {
+            listFileNames(Path.of(directory), fileNames);
+            return;
+        }
+
+        FileSystem jarFileSystem;
+        boolean opened = false;
+        try {
+            jarFileSystem = FileSystems.newFileSystem(directory, Map.of());
+            opened = true;
+        } catch (FileSystemAlreadyExistsException e) {
+            jarFileSystem = FileSystems.getFileSystem(directory);
+        }
+        try {
+            listFileNames(jarFileSystem.getPath(BUILT_IN_DIRECTORY), fileNames);
+        } finally {
+            if(opened) {
+                jarFileSystem.close();
+            }
+        }
+    }
+
+    private static void listFileNames(Path directory, List<String> fileNames) throws IOException {
+        try(DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for(Path entry : entries) {
+                fileNames.add(entry.getFileName().toString());
+            }
+        }
+    }
+
+    /**
+     * Adds the themes found in the user's theme directory; they replace built-in themes of the same name.
+     */
+    private static void discoverUserThemes(Map<String, AEGISTheme> stylesheetThemes, Map<String, Properties> colorThemes) {
+        if(!Files.isDirectory(AEGISConfigurationManager.themesDir)) {
+            return;
+        }
+
+        try(DirectoryStream<Path> entries = Files.newDirectoryStream(AEGISConfigurationManager.themesDir)) {
+            for(Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                if(fileName.endsWith(STYLESHEET_EXTENSION)) {
+                    String name = stripExtension(fileName, STYLESHEET_EXTENSION);
+                    colorThemes.remove(name);
+                    stylesheetThemes.put(name, new AEGISTheme(name, List.of(entry.toUri().toString()), ""));
+                } else if(fileName.endsWith(COLOR_THEME_EXTENSION)) {
+                    try(Reader reader = Files.newBufferedReader(entry)) {
+                        Properties properties = new Properties();
+                        properties.load(reader);
+                        String name = stripExtension(fileName, COLOR_THEME_EXTENSION);
+                        stylesheetThemes.remove(name);
+                        colorThemes.put(name, properties);
+                    } catch (IOException | IllegalArgumentException e) {
+                        AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "Theme " + entry + " Could Not Be Read", e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING, "User Themes Could Not Be Listed In " + AEGISConfigurationManager.themesDir, e);
+        }
+    }
+
+    /**
+     * Builds a color theme on top of the stylesheet theme it extends. Entries that are not looked-up colors, or whose
+     * value could break out of the inline style, are skipped with a warning.
+     *
+     * @return the resolved theme; Null if the extended theme does not exist
+     */
+    private static AEGISTheme resolveColorTheme(String name, Properties properties, Map<String, AEGISTheme> stylesheetThemes) {
+        String parentName = properties.getProperty(EXTENDS_PROPERTY, AEGISThemeManager.LIGHT_THEME).trim();
+        AEGISTheme parent = stylesheetThemes.get(parentName);
+        if(parent == null) {
+            AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING,
+                    "Theme {} Extends Unknown Stylesheet Theme {}", name, parentName);
+            return null;
+        }
+
+        StringBuilder rootStyle = new StringBuilder();
+        for(String key : new TreeSet<>(properties.stringPropertyNames())) {
+            if(EXTENDS_PROPERTY.equals(key)) {
+                continue;
+            }
+            String value = properties.getProperty(key).trim();
+            if(!LOOKED_UP_COLOR.matcher(key).matches() || value.isEmpty() || value.indexOf(';') >= 0 || value.indexOf('{') >= 0 || value.indexOf('}') >= 0) {
+                AEGISLogger.log(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.WARNING,
+                        "Theme {} Ignores Invalid Color Entry {}", name, key);
+                continue;
+            }
+            rootStyle.append(key).append(": ").append(value).append(';');
+        }
+
+        return new AEGISTheme(name, parent.stylesheets(), rootStyle.toString());
+    }
+
+    private static String stripExtension(String fileName, String extension) {
+        return fileName.substring(0, fileName.length() - extension.length());
+    }
+}
@@ -0,0 +1,17 @@
+package atlanteshellsing.aegis.tools;
+
+import javafx.scene.Node;
+
+import java.util.function.Supplier;
+
+/**
+ * One tool listed in the generated {@link AEGISToolIndex}.
+ *
+ * @param id      the unique tool id, also used as the tab key
+ * @param title   the title shown on the menu item and the tab
+ * @param menu    the name of the menu holding the tool
+ * @param order   the position of the tool within its menu
+ * @param factory creates the tool's content; the tool class is only loaded when the factory is first invoked
+ */
+public record AEGISToolDescriptor(String id, String title, String menu, int order, Supplier<? extends Node> factory) {
+}
@@ -4,10 +4,15 @@ module atlanteshellsing.aegis {
     requires java.logging;
 	requires java.compiler;
     requires java.xml;
+    requires java.management;
+    requires jdk.jfr;
 
     opens atlanteshellsing.aegis to javafx.fxml;  // Allows FXML reflection
     exports atlanteshellsing.aegis;               // Expose public API
     exports  atlanteshellsing.aegis.gui;
     exports atlanteshellsing.aegis.components.gui;
     exports atlanteshellsing.aegis.theme;
+    exports atlanteshellsing.aegis.tasks;
+    exports atlanteshellsing.aegis.resources;
+    exports atlanteshellsing.aegis.files;
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package atlanteshellsing.aegis.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Generates {@code atlanteshellsing.aegis.tools.AEGISToolIndex} from every class annotated with
+ * {@code atlanteshellsing.aegis.annotations.AEGISTool}.
+ *
+ * <p>The index is written in the first round, so tools must be hand-written classes rather than the output of another
+ * processor. It is written even if no class is annotated, so the classes listing the tools keep compiling once the last
+ * tool is removed; the processor therefore runs for every compilation and claims no annotation. Each factory in the index calls a small holder class creating the tool, which
+ * keeps the tool class unloaded until the factory is invoked. Invalid tools (not a public, concrete JavaFX node with a
+ * public no-argument constructor, or a malformed or duplicate id) are reported as compile errors on the annotated class.</p>
+ *
+ * <p>The annotation is looked up by name, so the processor does not depend on the application classes it processes.</p>
+ */
+@SupportedAnnotationTypes("*")
+public class AEGISToolProcessor extends AbstractProcessor {
+
+    static final String TOOL_ANNOTATION = "atlanteshellsing.aegis.annotations.AEGISTool";
+
+    private static final String INDEX_PACKAGE = "atlanteshellsing.aegis.tools";
+    private static final String INDEX_CLASS = "AEGISToolIndex";
+    private static final String NODE_CLASS = "javafx.scene.Node";
+    private static final String DEFAULT_MENU = "Tools";
+    private static final Pattern TOOL_ID = Pattern.compile("[a-z0-9]+(-[a-z0-9]+)*");
+
+    private boolean generated;
+
+    /**
+     * One validated tool, as written into the index.
+     */
+    private record Tool(String id, String title, String menu, int order, String className) {}
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() { return SourceVersion.latestSupported(); }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(TOOL_ANNOTATION);
+        if(annotation == null || roundEnv.processingOver()) {
+            return false;
+        }
+
+        Set<? extends Element> annotated = roundEnv.getElementsAnnotatedWith(annotation);
+        if(generated) {
+            if(!annotated.isEmpty()) {
+                error(annotated.iterator().next(), "Tools must not be generated by other annotation processors");
+            }
+            return false;
+        }
+
+        List<Tool> tools = new ArrayList<>();
+        Map<String, Element> ids = new HashMap<>();
+        for(Element element : annotated) {
+            Tool tool = readTool(element);
+            if(tool == null) {
+                continue;
+            }
+            Element previous = ids.putIfAbsent(tool.id(), element);
+            if(previous != null) {
+                error(element, "Duplicate tool id '" + tool.id() + "', already used by " + previous);
+                continue;
+            }
+            tools.add(tool);
+        }
+
+        tools.sort(Comparator.comparing(Tool::menu).thenComparingInt(Tool::order).thenComparing(Tool::title));
+        writeIndex(tools, annotated.toArray(new Element[0]));
+        generated = true;
+        return false;
+    }
+
+    /**
+     * Validates an annotated element and reads its annotation values.
+     *
+     * @return the tool; Null if the element is not a valid tool (the reason is reported as an error)
+     */
+    private Tool readTool(Element element) {
+        if(element.getKind() != ElementKind.CLASS) {
+            error(element, "@AEGISTool is only allowed on classes");
+            return null;
+        }
+        TypeElement type = (TypeElement) element;
+        if(!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)
+                || (type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC))) {
+            error(element, "A tool must be a public, concrete, top-level or static nested class");
+            return null;
+        }
+        boolean hasDefaultConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC));
+        if(!hasDefaultConstructor) {
+            error(element, "A tool must have a public no-argument constructor");
+            return null;
+        }
+        TypeElement node = processingEnv.getElementUtils().getTypeElement(NODE_CLASS);
+        if(node != null && !processingEnv.getTypeUtils().isAssignable(type.asType(), processingEnv.getTypeUtils().erasure(node.asType()))) {
+            error(element, "A tool must extend " + NODE_CLASS);
+            return null;
+        }
+
+        Map<String, Object> values = annotationValues(type);
+        String id = (String) values.get("id");
+        String title = (String) values.get("title");
+        String menu = (String) values.getOrDefault("menu", DEFAULT_MENU);
+        int order = (Integer) values.getOrDefault("order", 0);
+        if(id == null || !TOOL_ID.matcher(id).matches()) {
+            error(element, "Tool id '" + id + "' must consist of lower-case letters, digits and single dashes");
+            return null;
+        }
+        if(title == null || title.isBlank() || menu.isBlank()) {
+            error(element, "Tool title and menu must not be blank");
+            return null;
+        }
+
+        return new Tool(id, title, menu, order, type.getQualifiedName().toString());
+    }
+
+    private Map<String, Object> annotationValues(TypeElement type) {
+        Map<String, Object> values = new HashMap<>();
+        for(AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if(!annotationType.getQualifiedName().contentEquals(TOOL_ANNOTATION)) {
+                continue;
+            }
+            for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+                values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+            }
+        }
+        return values;
+    }
+
+    private void writeIndex(List<Tool> tools, Element[] originatingElements) {
+        Filer filer = processingEnv.getFiler();
+        try(Writer writer = filer.createSourceFile(INDEX_PACKAGE + "." + INDEX_CLASS, originatingElements).openWriter()) {
+            writer.write("package " + INDEX_PACKAGE + ";\n\n");
+            writer.write("import atlanteshellsing.aegis.annotations.ExcludeAsGenerated;\n\n");
+            writer.write("import java.util.List;\n\n");
+            writer.write("/**\n * Every tool annotated with {@code @AEGISTool}, sorted by menu, order and title. Generated at build time.\n */\n");
+            writer.write("@ExcludeAsGenerated\n");
+            writer.write("@javax.annotation.processing.Generated(\"" + AEGISToolProcessor.class.getName() + "\")\n");
+            writer.write("public final class " + INDEX_CLASS + " {\n\n");
+            writer.write("    private static final List<AEGISToolDescriptor> TOOLS = List.of(");
+            for(int i = 0; i < tools.size(); i++) {
+                Tool tool = tools.get(i);
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write("            new AEGISToolDescriptor(" + literal(tool.id()) + ", " + literal(tool.title()) + ", "
+                        + literal(tool.menu()) + ", " + tool.order() + ", nodeFactory(new Factory" + i + "()))");
+            }
+            writer.write(");\n\n");
+            writer.write("    private " + INDEX_CLASS + "() {}\n\n");
+            writer.write("    /**\n     * Provides every tool.\n     *\n     * @return the tools, sorted by menu, order and title\n     */\n");
+            writer.write("    public static List<AEGISToolDescriptor> tools() { return TOOLS; }\n");
+            // Every tool was checked to be a Node, so the unchecked cast is safe. Keeping javafx types out of the index's
+            // method descriptors lets headless callers list the tools without loading any javafx class.
+            writer.write("\n    @SuppressWarnings(\"unchecked\")\n");
+            writer.write("    private static java.util.function.Supplier<? extends " + NODE_CLASS + "> nodeFactory(java.util.function.Supplier<?> factory) {\n");
+            writer.write("        return (java.util.function.Supplier<? extends " + NODE_CLASS + ">) factory;\n");
+            writer.write("    }\n");
+            // One factory class per tool, returning Object: verifying a lambda or method that returned the tool as a Node
+            // would load the tool class and javafx.scene.Node together with the index.
+            for(int i = 0; i < tools.size(); i++) {
+                writer.write("\n    private static final class Factory" + i + " implements java.util.function.Supplier<Object> {\n");
+                writer.write("        @Override\n");
+                writer.write("        public Object get() { return new " + tools.get(i).className() + "(); }\n");
+                writer.write("    }\n");
+            }
+            writer.write("}\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + INDEX_CLASS + ": " + e.getMessage());
+        }
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch(c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if(c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
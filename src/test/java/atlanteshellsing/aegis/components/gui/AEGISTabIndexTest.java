@@ -0,0 +1,130 @@
+package atlanteshellsing.aegis.components.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AEGISTabIndexTest {
+
+    private final AEGISTabIndex index = new AEGISTabIndex();
+
+    @Test
+    void blankQueryListsMostRecentlyUsedFirst() {
+        index.add("a", "Alpha");
+        index.add("b", "Beta");
+        index.add("c", "Gamma");
+        index.touch("a");
+
+        assertEquals(List.of("a", "c", "b"), index.find("", 10));
+        assertEquals(List.of("a", "c"), index.find("   ", 2));
+        assertEquals(List.of(), index.find("", 0));
+    }
+
+    @Test
+    void startOfKeyOrTitleOutranksWordStartOutranksInsideWord() {
+        index.add("inside", "Unsettings");
+        index.add("word", "Display Settings");
+        index.add("prefix", "Settings");
+
+        assertEquals(List.of("prefix", "word", "inside"), index.find("settings", 10));
+        assertEquals(List.of("prefix", "word", "inside"), index.find("SETT", 10));
+    }
+
+    @Test
+    void equalMatchesAreRankedByRecentUse() {
+        index.add("log-1", "Log");
+        index.add("log-2", "Log");
+        index.add("log-3", "Log");
+        index.touch("log-1");
+
+        assertEquals(List.of("log-1", "log-3", "log-2"), index.find("log", 10));
+        assertEquals(List.of("log-1", "log-3"), index.find("log", 2));
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        index.add("server-log", "Server Log");
+        index.add("client-log", "Client Log");
+        index.add("server-config", "Server Config");
+
+        assertEquals(List.of("server-log"), index.find("log serv", 10));
+        assertEquals(List.of(), index.find("client config", 10));
+        assertEquals(List.of(), index.find("missing", 10));
+    }
+
+    @Test
+    void shortTermsOnlyMatchTheStartOfAWord() {
+        index.add("metrics", "Metrics");
+        index.add("diagnostics", "Diagnostics View");
+
+        assertEquals(List.of("metrics"), index.find("me", 10));
+        assertEquals(List.of("diagnostics"), index.find("vi", 10));
+        assertEquals(List.of(), index.find("ic", 10));
+        assertEquals(List.of("diagnostics", "metrics"), index.find("ics", 10));
+    }
+
+    @Test
+    void broadShortTermStopsAtTheMostRecentStartMatches() {
+        for(int i = 0; i < 2000; i++) {
+            index.add("tab-" + i, "Tab " + i);
+        }
+
+        assertEquals(List.of("tab-1999", "tab-1998", "tab-1997"), index.find("t", 3));
+        index.touch("tab-5");
+        assertEquals(List.of("tab-5", "tab-1999"), index.find("T", 2));
+    }
+
+    @Test
+    void broadShortTermStillFindsOlderBetterMatches() {
+        index.add("tools", "Tools");
+        for(int i = 0; i < 2000; i++) {
+            index.add("view-" + i, "Other Thing " + i);
+        }
+
+        assertEquals(List.of("tools", "view-1999", "view-1998"), index.find("t", 3));
+    }
+
+    @Test
+    void removedTabsAreNotFound() {
+        index.add("editor", "Editor");
+        index.add("explorer", "Explorer");
+        index.remove("editor");
+        index.remove("unknown");
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(), index.find("editor", 10));
+        assertEquals(List.of(), index.find("ed", 10));
+        assertEquals(List.of("explorer"), index.find("e", 10));
+        assertEquals(List.of("explorer"), index.find("", 10));
+    }
+
+    @Test
+    void addingAnIndexedKeyReplacesItsTitle() {
+        index.add("tab", "Old Name");
+        index.add("other", "Other");
+        index.add("tab", "New Name");
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(), index.find("old", 10));
+        assertEquals(List.of("tab"), index.find("new", 10));
+        assertEquals(List.of("tab", "other"), index.find("", 10));
+    }
+
+    @Test
+    void removingEveryTabEmptiesTheIndex() {
+        for(int i = 0; i < 100; i++) {
+            index.add("tab-" + i, "Tab " + i);
+        }
+        for(int i = 0; i < 100; i++) {
+            index.remove("tab-" + i);
+        }
+
+        assertEquals(0, index.size());
+        assertTrue(index.find("", 10).isEmpty());
+        assertTrue(index.find("tab", 10).isEmpty());
+        assertTrue(index.find("t", 10).isEmpty());
+    }
+}
@@ -0,0 +1,168 @@
+package atlanteshellsing.aegis.files;
+
+import atlanteshellsing.aegis.tasks.AEGISTaskContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AEGISMappedTextFileTest {
+
+    private static final AEGISTaskContext RUNNING = new TestContext(false);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void emptyFileHasNoLines() throws IOException {
+        try(AEGISMappedTextFile file = indexed("", 16)) {
+            assertTrue(file.isIndexComplete());
+            assertEquals(0, file.lineCount());
+            assertThrows(IndexOutOfBoundsException.class, () -> file.line(0));
+        }
+    }
+
+    @Test
+    void lastLineWithoutTrailingNewlineIsCounted() throws IOException {
+        try(AEGISMappedTextFile file = indexed("one\ntwo\r\nthree", 4)) {
+            assertEquals(3, file.lineCount());
+            assertEquals("one", file.line(0));
+            assertEquals("two", file.line(1));
+            assertEquals("three", file.line(2));
+        }
+        try(AEGISMappedTextFile file = indexed("one\ntwo\n", 4)) {
+            assertEquals(2, file.lineCount());
+            assertEquals("two", file.line(1));
+        }
+    }
+
+    @Test
+    void lineSpanningChunkBoundaryIsReadWhole() throws IOException {
+        try(AEGISMappedTextFile file = indexed("first\nspanning three chunks\nlast\n", 8)) {
+            assertEquals(3, file.lineCount());
+            assertEquals("first", file.line(0));
+            assertEquals("spanning three chunks", file.line(1));
+            assertEquals("last", file.line(2));
+        }
+    }
+
+    @Test
+    void chunkWithoutNewlinesDoesNotShiftLaterLines() throws IOException {
+        String longLine = "x".repeat(40);
+        try(AEGISMappedTextFile file = indexed("a\n" + longLine + "\nb\nc", 16)) {
+            assertEquals(4, file.lineCount());
+            assertEquals(longLine, file.line(1));
+            assertEquals("b", file.line(2));
+            assertEquals("c", file.line(3));
+        }
+    }
+
+    @Test
+    void everyLineMatchesAcrossManyChunksAndCheckpoints() throws IOException {
+        Random random = new Random(42);
+        List<String> expected = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 5 * AEGISMappedTextFile.CHECKPOINT_STRIDE; i++) {
+            String line = i + ":" + "ab".repeat(random.nextInt(20));
+            expected.add(line);
+            text.append(line).append('\n');
+        }
+
+        try(AEGISMappedTextFile file = indexed(text.toString(), 997)) {
+            assertEquals(expected.size(), file.lineCount());
+            for(int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), file.line(i));
+            }
+            for(int i = 0; i < 1000; i++) {
+                int line = random.nextInt(expected.size());
+                assertEquals(expected.get(line), file.line(line));
+            }
+        }
+    }
+
+    @Test
+    void findNextIgnoresCaseAndMatchesAcrossWordBoundaries() throws IOException {
+        try(AEGISMappedTextFile file = indexed("alpha\nbeta Gamma\n123456NeEdLe\nGAMMA ray\nend gam", 16)) {
+            assertEquals(1, file.findNext("gamma", 0, RUNNING));
+            assertEquals(3, file.findNext("gamma", 2, RUNNING));
+            assertEquals(2, file.findNext("needle", 0, RUNNING));
+            assertEquals(4, file.findNext("GAM", 4, RUNNING));
+            assertEquals(-1, file.findNext("delta", 0, RUNNING));
+            assertEquals(-1, file.findNext("gamma", 4, RUNNING));
+            assertThrows(IllegalArgumentException.class, () -> file.findNext("", 0, RUNNING));
+        }
+    }
+
+    @Test
+    void findNextStopsWhenCancelled() throws IOException {
+        try(AEGISMappedTextFile file = indexed("some text\n", 16)) {
+            assertThrows(CancellationException.class, () -> file.findNext("text", 0, new TestContext(true)));
+        }
+    }
+
+    @Test
+    void lineLongerThanLimitIsCutOff() throws IOException {
+        String limit = "y".repeat(AEGISMappedTextFile.MAX_LINE_BYTES);
+        try(AEGISMappedTextFile file = indexed(limit + "zzz\n" + limit + "\nnext", 4096)) {
+            assertEquals(3, file.lineCount());
+            assertEquals(limit + AEGISMappedTextFile.TRUNCATION_MARK, file.line(0));
+            assertEquals(limit, file.line(1));
+            assertEquals("next", file.line(2));
+        }
+    }
+
+    @Test
+    void cancelledIndexingLeavesIndexIncomplete() throws IOException {
+        try(AEGISMappedTextFile file = AEGISMappedTextFile.open(write("a\nb\nc\n"), 2)) {
+            assertThrows(CancellationException.class, () -> file.buildIndex(new TestContext(true)));
+            assertFalse(file.isIndexComplete());
+            assertEquals("a", file.line(0));
+
+            file.buildIndex(RUNNING);
+            assertEquals(3, file.lineCount());
+        }
+    }
+
+    @Test
+    void closedFileCannotBeRead() throws IOException {
+        AEGISMappedTextFile unindexed = AEGISMappedTextFile.open(write("a\nb\n"), 2);
+        unindexed.close();
+        assertThrows(CancellationException.class, () -> unindexed.buildIndex(RUNNING));
+
+        AEGISMappedTextFile file = indexed("a\nb\n", 2);
+        file.close();
+        assertDoesNotThrow(file::close);
+        assertThrows(IllegalStateException.class, () -> file.line(1));
+        assertThrows(IllegalStateException.class, () -> file.findNext("b", 0, RUNNING));
+    }
+
+    private AEGISMappedTextFile indexed(String text, long chunkBytes) throws IOException {
+        AEGISMappedTextFile file = AEGISMappedTextFile.open(write(text), chunkBytes);
+        file.buildIndex(RUNNING);
+        return file;
+    }
+
+    private Path write(String text) throws IOException {
+        Path path = Files.createTempFile(directory, "text", ".txt");
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private record TestContext(boolean isCancelled) implements AEGISTaskContext {
+        @Override
+        public void updateProgress(double fraction, String message) {}
+    }
+}
@@ -0,0 +1,169 @@
+package atlanteshellsing.aegis.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Publishes through the dispatcher from several threads into a small ring and checks what reaches the handler under
+ * each backpressure policy, and across shutdown.
+ */
+class AEGISAsyncLogDispatcherTest {
+
+    private static final int CAPACITY = 64;
+    private static final int PRODUCERS = 4;
+    private static final int RECORDS_PER_PRODUCER = 50_000;
+    private static final long SHUTDOWN_MILLIS = 10_000;
+    private static final String DROP_REPORT = "Log buffer full";
+
+    private final Logger logger = Logger.getAnonymousLogger();
+    private final CountingHandler handler = new CountingHandler();
+
+    /**
+     * Counts delivered records, apart from the dispatcher's own drop reports. Blocks until {@link #gate} opens.
+     */
+    private static final class CountingHandler extends Handler {
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong dropReports = new AtomicLong();
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public void publish(LogRecord logRec) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if(logRec.getMessage().startsWith(DROP_REPORT)) {
+                dropReports.incrementAndGet();
+            } else {
+                delivered.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+
+    @BeforeEach
+    void installHandler() {
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.ALL);
+        logger.addHandler(handler);
+    }
+
+    @AfterEach
+    void removeHandler() {
+        handler.gate.countDown();
+        logger.removeHandler(handler);
+    }
+
+    @Test
+    void blockLosesNothing() throws InterruptedException {
+        AEGISAsyncLogDispatcher dispatcher = new AEGISAsyncLogDispatcher(logger, CAPACITY, AEGISLogger.AEGISLogBackpressure.BLOCK);
+        handler.gate.countDown();
+
+        AtomicLong rejected = new AtomicLong();
+        runProducers(() -> {
+            for(int i = 0; i < RECORDS_PER_PRODUCER; i++) {
+                if(!dispatcher.publish(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.FINE, "record " + i, null)) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+        dispatcher.shutdown(SHUTDOWN_MILLIS);
+
+        assertEquals(0, rejected.get());
+        assertEquals(0, dispatcher.getDroppedCount());
+        assertEquals((long) PRODUCERS * RECORDS_PER_PRODUCER, handler.delivered.get());
+    }
+
+    @Test
+    void dropLowLevelsCountsEveryDroppedRecord() throws InterruptedException {
+        AEGISAsyncLogDispatcher dispatcher = new AEGISAsyncLogDispatcher(logger, CAPACITY, AEGISLogger.AEGISLogBackpressure.DROP_LOW_LEVELS);
+
+        // The handler is held closed, so the ring fills up and low-level records must be dropped instead of waiting.
+        runProducers(() -> {
+            for(int i = 0; i < RECORDS_PER_PRODUCER; i++) {
+                dispatcher.publish(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.INFO, "record " + i, null);
+            }
+        });
+        handler.gate.countDown();
+        dispatcher.shutdown(SHUTDOWN_MILLIS);
+
+        long total = (long) PRODUCERS * RECORDS_PER_PRODUCER;
+        assertTrue(dispatcher.getDroppedCount() > 0, "nothing was dropped");
+        assertTrue(handler.delivered.get() <= CAPACITY, "more records delivered than the ring holds: " + handler.delivered.get());
+        assertEquals(total, handler.delivered.get() + dispatcher.getDroppedCount());
+        assertTrue(handler.dropReports.get() > 0, "drops were not reported");
+    }
+
+    @Test
+    void dropLowLevelsStillWaitsForWarnings() throws InterruptedException {
+        AEGISAsyncLogDispatcher dispatcher = new AEGISAsyncLogDispatcher(logger, CAPACITY, AEGISLogger.AEGISLogBackpressure.DROP_LOW_LEVELS);
+        handler.gate.countDown();
+
+        runProducers(() -> {
+            for(int i = 0; i < RECORDS_PER_PRODUCER; i++) {
+                dispatcher.publish(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.WARNING, "record " + i, null);
+            }
+        });
+        dispatcher.shutdown(SHUTDOWN_MILLIS);
+
+        assertEquals(0, dispatcher.getDroppedCount());
+        assertEquals((long) PRODUCERS * RECORDS_PER_PRODUCER, handler.delivered.get());
+    }
+
+    @Test
+    void recordsPublishedAcrossShutdownAreDeliveredOrReturned() throws InterruptedException {
+        AEGISAsyncLogDispatcher dispatcher = new AEGISAsyncLogDispatcher(logger, CAPACITY, AEGISLogger.AEGISLogBackpressure.BLOCK);
+        handler.gate.countDown();
+
+        AtomicLong accepted = new AtomicLong();
+        CountDownLatch publishing = new CountDownLatch(PRODUCERS);
+        List<Thread> producers = new ArrayList<>();
+        for(int p = 0; p < PRODUCERS; p++) {
+            producers.add(Thread.ofPlatform().start(() -> {
+                publishing.countDown();
+                for(int i = 0; i < RECORDS_PER_PRODUCER; i++) {
+                    if(dispatcher.publish(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.INFO, "record " + i, null)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        assertTrue(publishing.await(SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS));
+        dispatcher.shutdown(SHUTDOWN_MILLIS);
+        for(Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(accepted.get(), handler.delivered.get());
+    }
+
+    private static void runProducers(Runnable body) throws InterruptedException {
+        List<Thread> producers = new ArrayList<>();
+        for(int p = 0; p < PRODUCERS; p++) {
+            producers.add(Thread.ofPlatform().start(body));
+        }
+        for(Thread producer : producers) {
+            producer.join();
+        }
+    }
+}
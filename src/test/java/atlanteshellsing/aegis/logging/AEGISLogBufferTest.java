@@ -0,0 +1,49 @@
+package atlanteshellsing.aegis.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AEGISLogBufferTest {
+
+    private static final AEGISLogger.AEGISLogKey KEY = AEGISLogger.AEGISLogKey.AEGIS_MAIN;
+    private static final AEGISLogger.AEGISLogLevel LEVEL = AEGISLogger.AEGISLogLevel.INFO;
+
+    @Test
+    void oldestRecordsAreOverwrittenOnceFull() {
+        AEGISLogBuffer buffer = new AEGISLogBuffer(4);
+        for(int i = 0; i < 6; i++) {
+            buffer.append(i, KEY, LEVEL, "record " + i, null);
+        }
+
+        AEGISLogEntry[] read = new AEGISLogEntry[8];
+        assertEquals(2, buffer.firstSequence());
+        assertEquals(4, buffer.read(0, read));
+        assertEquals("record 2", read[0].message());
+        assertEquals("record 5", read[3].message());
+        assertEquals(5, read[3].sequence());
+    }
+
+    @Test
+    void attachedThrowableIsKeptAsItsDescriptionOnly() {
+        AEGISLogBuffer buffer = new AEGISLogBuffer(4);
+        Throwable thrown = new IllegalStateException("broken", new RuntimeException("cause"));
+        WeakReference<Throwable> reference = new WeakReference<>(thrown);
+        buffer.append(0, KEY, LEVEL, "failed", thrown);
+        buffer.append(1, KEY, LEVEL, "fine", null);
+        thrown = null;
+
+        AEGISLogEntry[] read = new AEGISLogEntry[2];
+        buffer.read(0, read);
+        assertEquals("java.lang.IllegalStateException: broken", read[0].thrown());
+        assertNull(read[1].thrown());
+
+        for(int i = 0; i < 10 && !reference.refersTo(null); i++) {
+            System.gc();
+        }
+        assertNull(reference.get());
+    }
+}
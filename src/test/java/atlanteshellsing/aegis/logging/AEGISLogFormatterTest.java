@@ -0,0 +1,71 @@
+package atlanteshellsing.aegis.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AEGISLogFormatterTest {
+
+    private static final int CALLS_BELOW_CALLER = 20;
+
+    private final AEGISLogFormatter formatter = new AEGISLogFormatter(false);
+
+    @Test
+    void sameFailureReachedThroughDifferentCallersKeepsItsOwnTrace() {
+        String first = format(fromFirstCaller());
+        String second = format(fromSecondCaller());
+
+        assertTrue(first.contains("fromFirstCaller"), first);
+        assertFalse(first.contains("fromSecondCaller"), first);
+        assertTrue(second.contains("fromSecondCaller"), second);
+        assertFalse(second.contains("fromFirstCaller"), second);
+    }
+
+    @Test
+    void repeatedTraceIsRenderedIdentically() {
+        IllegalStateException thrown = new IllegalStateException("outer", new RuntimeException("inner"));
+        thrown.addSuppressed(new IllegalArgumentException("suppressed"));
+
+        String trace = format(thrown);
+        assertEquals(trace, format(thrown));
+        assertTrue(trace.contains("Caused by: java.lang.RuntimeException: inner"), trace);
+        assertTrue(trace.contains("\tSuppressed: java.lang.IllegalArgumentException: suppressed"), trace);
+        assertTrue(trace.contains(" more"), trace);
+    }
+
+    @Test
+    void circularCauseIsCut() {
+        RuntimeException outer = new RuntimeException("outer");
+        RuntimeException inner = new RuntimeException("inner", outer);
+        outer.initCause(inner);
+
+        assertTrue(format(outer).contains("[CIRCULAR REFERENCE: java.lang.RuntimeException: outer]"));
+    }
+
+    private String format(Throwable thrown) {
+        LogRecord logRec = new LogRecord(Level.SEVERE, "Failed");
+        logRec.setThrown(thrown);
+        String formatted = formatter.format(logRec);
+        return formatted.substring(formatted.indexOf(System.lineSeparator()) + System.lineSeparator().length());
+    }
+
+    private static Exception fromFirstCaller() {
+        return fail(CALLS_BELOW_CALLER);
+    }
+
+    private static Exception fromSecondCaller() {
+        return fail(CALLS_BELOW_CALLER);
+    }
+
+    /**
+     * Fails after nesting deep enough that the callers above differ only below the frames the repeat suppressor looks at.
+     */
+    private static Exception fail(int depth) {
+        return depth == 0 ? new IllegalStateException("Same Failure") : fail(depth - 1);
+    }
+}
@@ -0,0 +1,93 @@
+package atlanteshellsing.aegis.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Publishes into the ring from several threads while a single consumer drains it, and checks that every record arrives
+ * exactly once and in the order of its producer.
+ */
+class AEGISLogRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int RECORDS_PER_PRODUCER = 200_000;
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, new AEGISLogRingBuffer(1).capacity());
+        assertEquals(2, new AEGISLogRingBuffer(2).capacity());
+        assertEquals(4, new AEGISLogRingBuffer(3).capacity());
+        assertEquals(64, new AEGISLogRingBuffer(64).capacity());
+        assertEquals(128, new AEGISLogRingBuffer(65).capacity());
+    }
+
+    @Test
+    void fullRingRejectsUntilDrained() {
+        AEGISLogRingBuffer ring = new AEGISLogRingBuffer(4);
+        for(int i = 0; i < ring.capacity(); i++) {
+            assertTrue(ring.tryPublish(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "m" + i, null, i));
+        }
+        assertFalse(ring.tryPublish(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "overflow", null, 0));
+        assertEquals(4, ring.size());
+
+        List<String> drained = new ArrayList<>();
+        assertEquals(2, ring.drain(slot -> drained.add(slot.message), 2));
+        assertEquals(List.of("m0", "m1"), drained);
+        assertTrue(ring.tryPublish(AEGISLogger.AEGISLogKey.AEGIS_MAIN, AEGISLogger.AEGISLogLevel.INFO, "m4", null, 4));
+
+        assertEquals(3, ring.drain(slot -> drained.add(slot.message), Integer.MAX_VALUE));
+        assertEquals(List.of("m0", "m1", "m2", "m3", "m4"), drained);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        AEGISLogRingBuffer ring = new AEGISLogRingBuffer(64);
+        long[] next = new long[PRODUCERS];
+        long[] received = {0};
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+
+        List<Thread> producers = new ArrayList<>();
+        for(int p = 0; p < PRODUCERS; p++) {
+            String producer = Integer.toString(p);
+            producers.add(Thread.ofPlatform().start(() -> {
+                for(int i = 0; i < RECORDS_PER_PRODUCER; i++) {
+                    while(!ring.tryPublish(AEGISLogger.AEGISLogKey.AEGIS_TOOL, AEGISLogger.AEGISLogLevel.INFO, producer, null, i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        long total = (long) PRODUCERS * RECORDS_PER_PRODUCER;
+        while(received[0] < total) {
+            int drained = ring.drain(slot -> {
+                int producer = Integer.parseInt(slot.message);
+                if(slot.timestamp != next[producer]) {
+                    outOfOrder.set(true);
+                }
+                next[producer]++;
+                received[0]++;
+            }, 256);
+            if(drained == 0) {
+                Thread.yield();
+            }
+        }
+        for(Thread producer : producers) {
+            producer.join();
+        }
+
+        assertFalse(outOfOrder.get(), "records of one producer were reordered");
+        for(long count : next) {
+            assertEquals(RECORDS_PER_PRODUCER, count);
+        }
+        assertEquals(0, ring.drain(slot -> {}, Integer.MAX_VALUE));
+    }
+}
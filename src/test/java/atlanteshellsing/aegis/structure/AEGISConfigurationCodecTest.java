@@ -0,0 +1,42 @@
+package atlanteshellsing.aegis.structure;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AEGISConfigurationCodecTest {
+
+    @Test
+    void validPreferencesAreWritable() {
+        assertDoesNotThrow(() -> AEGISConfigurationCodec.checkWritable(AEGISPreferences.defaults()
+                .withTheme("My Theme")
+                .with("logging.AEGIS_MAIN", "fine")
+                .with("tools.recorder.last-file", "C:\\Recordings\\today.jfr")));
+    }
+
+    @Test
+    void keysThatAreNotElementNamesAreRejected() {
+        for(String key : new String[] {"foo bar", "1st", "a..b", "trailing.", ".leading", "ns:name", ""}) {
+            assertThrows(XMLStreamException.class, () -> AEGISConfigurationCodec.checkWritable(AEGISPreferences.defaults().with(key, "x")), key);
+        }
+    }
+
+    @Test
+    void valuesFailingTheSchemaAreRejected() {
+        assertThrows(XMLStreamException.class,
+                () -> AEGISConfigurationCodec.checkWritable(AEGISPreferences.defaults().with("logging.AEGIS_MAIN", "verbose")));
+        assertThrows(XMLStreamException.class,
+                () -> AEGISConfigurationCodec.checkWritable(AEGISPreferences.defaults().withTheme("")));
+    }
+
+    @Test
+    void keysThatWouldNotReadBackAreRejected() {
+        assertThrows(XMLStreamException.class,
+                () -> AEGISConfigurationCodec.checkWritable(AEGISPreferences.defaults().with("tools.note", " padded ")));
+        assertThrows(XMLStreamException.class,
+                () -> AEGISConfigurationCodec.checkWritable(AEGISPreferences.defaults().with("tools.note", "bell \u0007")));
+    }
+}
@@ -0,0 +1,107 @@
+package atlanteshellsing.aegis.structure;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrades a version 1 configuration file the way the configuration manager does on load: read and validated against
+ * its own schema, migrated, and written back in the current schema version.
+ */
+class AEGISConfigurationMigrationsTest {
+
+    private static final String V1_FILE = "/structure/configuration-v1.aegis";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void v1FileMatchesV1Schema() throws Exception {
+        try(InputStream in = open()) {
+            AEGISConfigurationSchemas.forVersion(1).newValidator().validate(new StreamSource(in));
+        }
+    }
+
+    @Test
+    void v1FileIsMigratedAndRewrittenAsCurrentVersion() throws Exception {
+        AEGISConfigurationCodec.Document v1;
+        try(InputStream in = open()) {
+            v1 = AEGISConfigurationCodec.readValidated(in);
+        }
+        assertEquals(1, v1.schemaVersion());
+        assertEquals("DarkTheme", v1.preferences().getTheme());
+
+        AEGISPreferences migrated = AEGISConfigurationMigrations.migrate(v1.schemaVersion(), v1.preferences());
+        assertEquals(v1.preferences(), migrated);
+
+        Path rewritten = directory.resolve("configuration.aegis");
+        try(OutputStream out = Files.newOutputStream(rewritten)) {
+            AEGISConfigurationCodec.write(out, migrated);
+        }
+        assertTrue(Files.readString(rewritten, StandardCharsets.UTF_8).contains("schemaVersion=\"" + AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION + "\""));
+
+        AEGISConfigurationSchemas.forVersion(AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION).newValidator().validate(new StreamSource(rewritten.toFile()));
+        try(InputStream in = Files.newInputStream(rewritten)) {
+            AEGISConfigurationCodec.Document current = AEGISConfigurationCodec.readValidated(in);
+            assertEquals(AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION, current.schemaVersion());
+            assertEquals(migrated, current.preferences());
+        }
+    }
+
+    @Test
+    void currentPreferencesAreNotMigrated() {
+        AEGISPreferences preferences = AEGISPreferences.defaults().with("logging.AEGIS_TOOL", "WARNING");
+        assertEquals(preferences, AEGISConfigurationMigrations.migrate(AEGISConfigurationCodec.CURRENT_SCHEMA_VERSION, preferences));
+    }
+
+    @Test
+    void v1SchemaRejectsSectionsIntroducedByV2() {
+        String xml = "<aegisConfig schemaVersion=\"1\"><preferences><theme>DarkTheme</theme><logging><AEGIS_MAIN>INFO</AEGIS_MAIN></logging></preferences></aegisConfig>";
+        assertThrows(XMLStreamException.class, () -> AEGISConfigurationCodec.readValidated(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void v2SchemaAcceptsLogLevelsInAnyCase() throws Exception {
+        String xml = "<aegisConfig schemaVersion=\"2\"><preferences><logging><AEGIS_MAIN>fine</AEGIS_MAIN><AEGIS_TOOL>Warning</AEGIS_TOOL></logging></preferences></aegisConfig>";
+        AEGISConfigurationCodec.Document document = AEGISConfigurationCodec.readValidated(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("fine", document.preferences().get("logging.AEGIS_MAIN"));
+
+        String unknown = xml.replace("fine", "verbose");
+        assertThrows(XMLStreamException.class, () -> AEGISConfigurationCodec.readValidated(new ByteArrayInputStream(unknown.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void themeNamesWithSpacesSurviveMigrationAndRewrite() throws Exception {
+        String v1 = "<aegisConfig schemaVersion=\"1\"><preferences><theme>My Theme</theme></preferences></aegisConfig>";
+        AEGISConfigurationCodec.Document document = AEGISConfigurationCodec.readValidated(new ByteArrayInputStream(v1.getBytes(StandardCharsets.UTF_8)));
+        AEGISPreferences migrated = AEGISConfigurationMigrations.migrate(document.schemaVersion(), document.preferences());
+
+        Path rewritten = directory.resolve("configuration.aegis");
+        try(OutputStream out = Files.newOutputStream(rewritten)) {
+            AEGISConfigurationCodec.write(out, migrated.withTheme("Another Theme"));
+        }
+        try(InputStream in = Files.newInputStream(rewritten)) {
+            assertEquals("Another Theme", AEGISConfigurationCodec.readValidated(in).preferences().getTheme());
+        }
+        assertEquals("My Theme", migrated.getTheme());
+    }
+
+    private InputStream open() {
+        InputStream in = getClass().getResourceAsStream(V1_FILE);
+        assertNotNull(in, V1_FILE);
+        return in;
+    }
+}